@@ -0,0 +1,331 @@
+package com.keypoint;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * An encoder for animated PNG (APNG) files, such as a time-lapse sequence of
+ * charts.  The frames are written to the stream as they are added, so only
+ * the current frame is held in memory.
+ * <p>
+ * The first frame is the default image, written in the usual "IDAT" chunks,
+ * so viewers that do not support animation show it.  Each later frame holds
+ * only the bounding box of the pixels that changed since the frame before,
+ * written in "fdAT" chunks, and replaces that part of the canvas.  Frames
+ * that change little are therefore small and quick to encode.
+ * <p>
+ * A typical use is:
+ * <pre>
+ * AnimatedPngEncoder encoder = new AnimatedPngEncoder();
+ * encoder.setCompressionLevel(9);
+ * encoder.start(out, images.length);
+ * for (int i = 0; i &lt; images.length; i++) {
+ *     encoder.addFrame(images[i], 500);
+ * }
+ * encoder.finish();
+ * </pre>
+ * Every frame must be the same size as the first.  Frames are always
+ * written in truecolour (see {@link #setIndexedColor(boolean)}), and the
+ * compression time budget is not used.
+ */
+public class AnimatedPngEncoder extends PngEncoder {
+
+    /** Constants for the animation control chunk. */
+    protected static final byte[] ACTL = {97, 99, 84, 76};
+
+    /** Constants for the frame control chunk. */
+    protected static final byte[] FCTL = {102, 99, 84, 76};
+
+    /** Constants for the frame data chunk. */
+    protected static final byte[] FDAT = {102, 100, 65, 84};
+
+    /** Dispose operation: leave the canvas as it is. */
+    private static final int DISPOSE_OP_NONE = 0;
+
+    /** Blend operation: replace the canvas pixels with the frame pixels. */
+    private static final int BLEND_OP_SOURCE = 0;
+
+    /** The stream that receives the animation. */
+    private OutputStream out;
+
+    /** The number of frames in the animation. */
+    private int frameCount;
+
+    /** The number of frames written so far. */
+    private int framesWritten;
+
+    /** The number of times to play the animation (0 for forever). */
+    private int playCount;
+
+    /** The next sequence number for the fcTL and fdAT chunks. */
+    private int sequenceNumber;
+
+    /** The pixels of the last frame. */
+    private BufferedImage canvas;
+
+    /** The data array of the canvas. */
+    private int[] canvasPixels;
+
+    /** The stream that writes fdAT chunks. */
+    private PngChunkOutputStream fdatStream;
+
+    /**
+     * Creates a new encoder.
+     */
+    public AnimatedPngEncoder() {
+        super();
+    }
+
+    /**
+     * Sets the number of times the animation is played.
+     *
+     * @param count  the count (0 to play forever).
+     */
+    public void setPlayCount(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Requires 'count' >= 0.");
+        }
+        this.playCount = count;
+    }
+
+    /**
+     * Returns the number of times the animation is played.
+     *
+     * @return The count (0 to play forever).
+     */
+    public int getPlayCount() {
+        return this.playCount;
+    }
+
+    /**
+     * Does nothing: the frames of an animation are always written in
+     * truecolour, as {@link PngEncoder} does when an image has too many
+     * colours for a palette.
+     *
+     * @param indexed  ignored.
+     */
+    public void setIndexedColor(boolean indexed) {
+        // palette images are not supported
+    }
+
+    /**
+     * Starts a new animation.  Nothing is written until the first frame is
+     * added.
+     *
+     * @param out  the output stream (<code>null</code> not permitted).
+     * @param frameCount  the number of frames that will be added.
+     */
+    public void start(OutputStream out, int frameCount) {
+        if (out == null) {
+            throw new IllegalArgumentException("Null 'out' argument.");
+        }
+        if (frameCount < 1) {
+            throw new IllegalArgumentException("Requires 'frameCount' >= 1.");
+        }
+        this.out = out;
+        this.frameCount = frameCount;
+        this.framesWritten = 0;
+        this.sequenceNumber = 0;
+    }
+
+    /**
+     * Adds a frame to the animation and writes it to the stream.
+     *
+     * @param frame  the frame (<code>null</code> not permitted).
+     * @param delayMillis  the time to show the frame, in milliseconds.
+     *
+     * @throws IOException if there is a problem writing to the stream or
+     *     grabbing the pixels of the frame.
+     */
+    public void addFrame(Image frame, int delayMillis) throws IOException {
+        if (frame == null) {
+            throw new IllegalArgumentException("Null 'frame' argument.");
+        }
+        if (delayMillis < 0) {
+            throw new IllegalArgumentException("Requires 'delayMillis' >= 0.");
+        }
+        if (this.out == null) {
+            throw new IllegalStateException("No animation has been started.");
+        }
+        if (this.framesWritten == this.frameCount) {
+            throw new IllegalStateException("All the frames have been added.");
+        }
+        int w = frame.getWidth(null);
+        int h = frame.getHeight(null);
+        this.bytesPerPixel = (this.encodeAlpha) ? 4 : 3;
+        if (this.framesWritten == 0) {
+            this.canvas = new BufferedImage(w, h,
+                    BufferedImage.TYPE_INT_ARGB);
+            this.canvasPixels = ((DataBufferInt) this.canvas.getRaster()
+                    .getDataBuffer()).getData();
+            int[] box = copyFrame(frame);
+            this.image = this.canvas;
+            this.width = w;
+            this.height = h;
+            this.out.write(PNG_SIGNATURE);
+            writeHeader(this.out);
+            writeAnimationControl(this.out);
+            writeResolution(this.out);
+            writeFrameControl(this.out, box, delayMillis);
+            writeImageData(this.out);
+        }
+        else {
+            if (w != this.canvas.getWidth() || h != this.canvas.getHeight()) {
+                throw new IllegalArgumentException(
+                        "The frame size does not match the first frame.");
+            }
+            int[] box = copyFrame(frame);
+            if (box == null) {
+                box = new int[] {0, 0, 1, 1};
+            }
+            writeFrameControl(this.out, box, delayMillis);
+            this.image = this.canvas.getSubimage(box[0], box[1], box[2],
+                    box[3]);
+            this.width = box[2];
+            this.height = box[3];
+            if (this.fdatStream == null
+                    || this.fdatStream.getChunkSize() != this.idatChunkSize) {
+                this.fdatStream = new PngChunkOutputStream(this.out, FDAT,
+                        this.idatChunkSize, this.crc);
+            }
+            this.fdatStream.reset(this.out);
+            this.fdatStream.setSequenceNumber(this.sequenceNumber);
+            writeCompressedData(this.fdatStream);
+            this.fdatStream.finish();
+            this.sequenceNumber = this.fdatStream.getSequenceNumber();
+        }
+        this.image = null;
+        this.framesWritten++;
+    }
+
+    /**
+     * Ends the animation.  The stream is flushed but not closed.
+     *
+     * @throws IOException if there is a problem writing to the stream.
+     */
+    public void finish() throws IOException {
+        if (this.out == null) {
+            throw new IllegalStateException("No animation has been started.");
+        }
+        if (this.framesWritten != this.frameCount) {
+            throw new IllegalStateException("Expected " + this.frameCount
+                    + " frames, but " + this.framesWritten + " were added.");
+        }
+        writeEnd(this.out);
+        this.out.flush();
+        this.out = null;
+        this.canvas = null;
+        this.canvasPixels = null;
+    }
+
+    /**
+     * Copies a frame to the canvas and finds the bounding box of the pixels
+     * that changed.
+     *
+     * @param frame  the frame.
+     *
+     * @return The bounding box (x, y, width, height), or <code>null</code> if
+     *     no pixels changed.
+     *
+     * @throws IOException if the pixels could not be read.
+     */
+    private int[] copyFrame(Image frame) throws IOException {
+        int w = this.canvas.getWidth();
+        int h = this.canvas.getHeight();
+        PngPixelSource source = PngPixelSource.create(frame, w, h);
+        if (this.framesWritten == 0) {
+            int[] row = new int[w];
+            for (int y = 0; y < h; y++) {
+                source.getRow(y, row);
+                System.arraycopy(row, 0, this.canvasPixels, y * w, w);
+            }
+            return new int[] {0, 0, w, h};
+        }
+        int[] row = new int[w];
+        int x0 = w;
+        int x1 = -1;
+        int y0 = h;
+        int y1 = -1;
+        for (int y = 0; y < h; y++) {
+            source.getRow(y, row);
+            int offset = y * w;
+            int left = 0;
+            while (left < w && row[left] == this.canvasPixels[offset + left]) {
+                left++;
+            }
+            if (left == w) {
+                continue;
+            }
+            int right = w - 1;
+            while (row[right] == this.canvasPixels[offset + right]) {
+                right--;
+            }
+            System.arraycopy(row, left, this.canvasPixels, offset + left,
+                    right - left + 1);
+            x0 = Math.min(x0, left);
+            x1 = Math.max(x1, right);
+            y0 = Math.min(y0, y);
+            y1 = y;
+        }
+        if (y1 < 0) {
+            return null;
+        }
+        return new int[] {x0, y0, x1 - x0 + 1, y1 - y0 + 1};
+    }
+
+    /**
+     * Writes the "acTL" chunk.
+     *
+     * @param out  the output stream.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    protected void writeAnimationControl(OutputStream out)
+            throws IOException {
+        byte[] data = new byte[8];
+        setInt4(data, 0, this.frameCount);
+        setInt4(data, 4, this.playCount);
+        writeChunk(out, ACTL, data, 0, data.length);
+    }
+
+    /**
+     * Writes a "fcTL" chunk.  The delay is written in milliseconds if it
+     * fits, otherwise in hundredths of a second or in seconds.
+     *
+     * @param out  the output stream.
+     * @param box  the frame region (x, y, width, height).
+     * @param delayMillis  the delay in milliseconds.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    protected void writeFrameControl(OutputStream out, int[] box,
+            int delayMillis) throws IOException {
+        int num = delayMillis;
+        int den = 1000;
+        if (num > 0xffff) {
+            num = (delayMillis + 5) / 10;
+            den = 100;
+        }
+        if (num > 0xffff) {
+            num = Math.min(0xffff, (delayMillis + 500) / 1000);
+            den = 1;
+        }
+        byte[] data = new byte[26];
+        setInt4(data, 0, this.sequenceNumber++);
+        setInt4(data, 4, box[2]);
+        setInt4(data, 8, box[3]);
+        setInt4(data, 12, box[0]);
+        setInt4(data, 16, box[1]);
+        data[20] = (byte) (num >> 8);
+        data[21] = (byte) num;
+        data[22] = (byte) (den >> 8);
+        data[23] = (byte) den;
+        data[24] = DISPOSE_OP_NONE;
+        data[25] = BLEND_OP_SOURCE;
+        writeChunk(out, FCTL, data, 0, data.length);
+    }
+
+}
@@ -0,0 +1,415 @@
+package com.keypoint;
+
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.Adler32;
+import java.util.zip.Deflater;
+
+/**
+ * A PNG encoder for an image that is encoded again and again with only small
+ * changes between frames, such as a dashboard that is redrawn every few
+ * seconds.
+ * <p>
+ * The image data is cut into bands of {@link #getBandRows()} rows.  Each band
+ * is deflated on its own and ended with a full flush, so the compressed bands
+ * can be spliced together into one zlib stream, and the compressed bands are
+ * kept between calls.  When the image is encoded again, only the bands whose
+ * pixels changed (and the band below each one, whose first row is filtered
+ * against the last changed row) are filtered and deflated again.  The
+ * Adler-32 checksum of the whole stream is combined from the checksums of the
+ * bands.
+ * <p>
+ * The changed rows are found by comparing the image with a copy of the
+ * pixels from the last frame, or are given by the caller with
+ * {@link #encode(OutputStream, Rectangle)}, in which case only the rows in
+ * the changed bands are read.  The encoder keeps the copy of the pixels
+ * (4 bytes per pixel) and the compressed bands between calls; call
+ * {@link #reset()} or {@link #dispose()} to release them.
+ * <p>
+ * Palette images are not supported (see {@link #setIndexedColor(boolean)}),
+ * and the compression executor is not used.  Changing the size of the
+ * image, the alpha setting, the filter or the compression settings causes
+ * the next frame to be encoded in full.
+ */
+public class IncrementalPngEncoder extends PngEncoder {
+
+    /** The default number of rows in each band. */
+    public static final int DEFAULT_BAND_ROWS = 16;
+
+    /** The modulus used by the Adler-32 checksum. */
+    private static final int ADLER_BASE = 65521;
+
+    /** The number of rows in each band. */
+    private int bandRows = DEFAULT_BAND_ROWS;
+
+    /** The rows changed since the last frame (<code>null</code> to search). */
+    private Rectangle dirtyRegion;
+
+    /** The compressed data for each band (<code>null</code> if none). */
+    private byte[][] bands;
+
+    /** The Adler-32 checksum of the filtered data in each band. */
+    private int[] bandChecksums;
+
+    /** The number of filtered bytes in each band. */
+    private int[] bandLengths;
+
+    /** The pixels of the last frame. */
+    private int[] frame;
+
+    /** The settings the kept bands were encoded with. */
+    private int[] frameSettings;
+
+    /** The number of bands encoded by the last call. */
+    private int encodedBandCount;
+
+    /** The deflater used for the bands. */
+    private Deflater deflater;
+
+    /** A buffer for the compressed data of one band. */
+    private ByteArrayOutputStream compressed;
+
+    /** The checksum used for one band. */
+    private Adler32 adler;
+
+    /**
+     * Creates an encoder with no image.
+     */
+    public IncrementalPngEncoder() {
+        super();
+    }
+
+    /**
+     * Creates an encoder for an image.
+     *
+     * @param image  the image (<code>null</code> permitted).
+     * @param encodeAlpha  encode the alpha channel?
+     * @param whichFilter  the filter (see {@link #setFilter(int)}).
+     * @param compLevel  the compression level (0 to 9).
+     */
+    public IncrementalPngEncoder(Image image, boolean encodeAlpha,
+            int whichFilter, int compLevel) {
+        super(image, encodeAlpha, whichFilter, compLevel);
+    }
+
+    /**
+     * Sets the number of rows in each band.  Smaller bands mean less work
+     * for small changes, but slightly larger files.  Changing the band size
+     * causes the next frame to be encoded in full.
+     *
+     * @param rows  the number of rows (at least 1).
+     */
+    public void setBandRows(int rows) {
+        if (rows < 1) {
+            throw new IllegalArgumentException("Requires 'rows' >= 1.");
+        }
+        this.bandRows = rows;
+    }
+
+    /**
+     * Returns the number of rows in each band.
+     *
+     * @return The number of rows.
+     */
+    public int getBandRows() {
+        return this.bandRows;
+    }
+
+    /**
+     * Returns the number of bands that were filtered and deflated by the
+     * last call to <code>encode()</code>.
+     *
+     * @return The number of bands.
+     */
+    public int getEncodedBandCount() {
+        return this.encodedBandCount;
+    }
+
+    /**
+     * Writes the PNG equivalent of the current image to a stream, trusting
+     * the caller that no pixels have changed since the last frame outside
+     * a given region.  Only the rows covered by the region matter.
+     *
+     * @param out  the output stream (<code>null</code> not permitted).
+     * @param dirty  the changed region (<code>null</code> permitted, in
+     *     which case the changes are found by comparing the pixels).
+     *
+     * @throws IOException if there is a problem writing to the stream or
+     *     grabbing the pixels of the image.
+     */
+    public void encode(OutputStream out, Rectangle dirty) throws IOException {
+        this.dirtyRegion = dirty;
+        try {
+            encode(out);
+        }
+        finally {
+            this.dirtyRegion = null;
+        }
+    }
+
+    /**
+     * Makes the next frame be encoded in full.
+     */
+    public void invalidate() {
+        this.frameSettings = null;
+    }
+
+    /**
+     * Does nothing: this encoder always writes truecolour images, as
+     * {@link PngEncoder} does when an image has too many colours for a
+     * palette.
+     *
+     * @param indexed  ignored.
+     */
+    public void setIndexedColor(boolean indexed) {
+        // palette images are not supported
+    }
+
+    /**
+     * Prepares the encoder for reuse, discarding the kept frame.
+     */
+    public void reset() {
+        super.reset();
+        this.bandRows = DEFAULT_BAND_ROWS;
+        this.bands = null;
+        this.bandChecksums = null;
+        this.bandLengths = null;
+        this.frame = null;
+        this.frameSettings = null;
+        this.encodedBandCount = 0;
+    }
+
+    /**
+     * Releases the kept frame, the Deflater and the working buffers.
+     */
+    public void dispose() {
+        super.dispose();
+        if (this.deflater != null) {
+            this.deflater.end();
+            this.deflater = null;
+        }
+        this.compressed = null;
+    }
+
+    /**
+     * Writes the image data as IDAT chunks, deflating again only the bands
+     * that changed since the last frame.
+     *
+     * @param out  the output stream.
+     *
+     * @throws IOException if there is an I/O problem or an error grabbing
+     *     the pixels.
+     */
+    protected void writeImageData(OutputStream out) throws IOException {
+        int[] settings = new int[] {this.width, this.height,
+                this.bytesPerPixel, this.filter, this.compressionLevel,
+                this.compressionStrategy, this.bandRows};
+        int bandCount = (this.height + this.bandRows - 1) / this.bandRows;
+        PngPixelSource source = PngPixelSource.create(this.image, this.width,
+                this.height);
+        boolean[] changedRows = new boolean[this.height];
+        boolean[] dirtyBands = new boolean[bandCount];
+
+        // if anything fails part way, the kept frame and bands no longer
+        // match each other, so the next frame is encoded in full
+        boolean complete = false;
+        try {
+            if (!Arrays.equals(settings, this.frameSettings)) {
+                this.frame = new int[this.width * this.height];
+                this.bands = new byte[bandCount][];
+                this.bandChecksums = new int[bandCount];
+                this.bandLengths = new int[bandCount];
+                this.frameSettings = settings;
+                Arrays.fill(changedRows, true);
+                Arrays.fill(dirtyBands, true);
+                readRows(source, dirtyBands);
+            }
+            else if (this.dirtyRegion != null) {
+                Rectangle r = this.dirtyRegion.intersection(
+                        new Rectangle(0, 0, this.width, this.height));
+                for (int y = r.y; y < r.y + r.height; y++) {
+                    changedRows[y] = true;
+                    dirtyBands[y / this.bandRows] = true;
+                }
+                readRows(source, dirtyBands);
+            }
+            else {
+                int[] pixels = new int[this.width];
+                for (int y = 0; y < this.height; y++) {
+                    source.getRow(y, pixels);
+                    int offset = y * this.width;
+                    for (int x = 0; x < this.width; x++) {
+                        if (pixels[x] != this.frame[offset + x]) {
+                            changedRows[y] = true;
+                            dirtyBands[y / this.bandRows] = true;
+                            System.arraycopy(pixels, 0, this.frame, offset,
+                                    this.width);
+                            break;
+                        }
+                    }
+                }
+            }
+
+            // the first row of a band is filtered against the row above
+            for (int b = 1; b < bandCount; b++) {
+                if (changedRows[b * this.bandRows - 1]) {
+                    dirtyBands[b] = true;
+                }
+            }
+
+            this.encodedBandCount = 0;
+            for (int b = 0; b < bandCount; b++) {
+                if (dirtyBands[b]) {
+                    encodeBand(b, bandCount);
+                    this.encodedBandCount++;
+                }
+            }
+            complete = true;
+        }
+        finally {
+            if (!complete) {
+                invalidate();
+            }
+        }
+
+        PngChunkOutputStream idat = new PngChunkOutputStream(out, IDAT,
+                this.idatChunkSize, this.crc);
+        ParallelDeflaterOutputStream.writeHeader(idat, this.compressionLevel);
+        int checksum = 1;
+        for (int b = 0; b < bandCount; b++) {
+            idat.write(this.bands[b]);
+            checksum = combine(checksum, this.bandChecksums[b],
+                    this.bandLengths[b]);
+        }
+        PngChunkOutputStream.writeInt4(idat, checksum);
+        idat.finish();
+    }
+
+    /**
+     * Reads the rows of the dirty bands into the kept frame.
+     *
+     * @param source  the pixel source.
+     * @param dirtyBands  the dirty bands.
+     *
+     * @throws IOException if the pixels could not be read.
+     */
+    private void readRows(PngPixelSource source, boolean[] dirtyBands)
+            throws IOException {
+        int[] pixels = new int[this.width];
+        for (int b = 0; b < dirtyBands.length; b++) {
+            if (!dirtyBands[b]) {
+                continue;
+            }
+            int end = Math.min(this.height, (b + 1) * this.bandRows);
+            for (int y = b * this.bandRows; y < end; y++) {
+                source.getRow(y, pixels);
+                System.arraycopy(pixels, 0, this.frame, y * this.width,
+                        this.width);
+            }
+        }
+    }
+
+    /**
+     * Filters and deflates one band from the kept frame.  Every band but the
+     * last ends with a full flush, and the last ends the deflate stream.
+     *
+     * @param b  the band index.
+     * @param bandCount  the number of bands.
+     *
+     * @throws IOException if there is a problem packing the rows.
+     */
+    private void encodeBand(int b, int bandCount) throws IOException {
+        int rowBytes = this.width * this.bytesPerPixel;
+        int[] pixels = new int[this.width];
+        byte[] prior = new byte[rowBytes];
+        byte[] row = new byte[rowBytes];
+        byte[] scanLine = new byte[rowBytes + 1];
+        int start = b * this.bandRows;
+        int end = Math.min(this.height, start + this.bandRows);
+        if (start > 0) {
+            System.arraycopy(this.frame, (start - 1) * this.width, pixels, 0,
+                    this.width);
+            packRow(pixels, prior);
+        }
+
+        if (this.deflater == null) {
+            this.deflater = new Deflater(this.compressionLevel, true);
+            this.compressed = new ByteArrayOutputStream();
+            this.adler = new Adler32();
+        }
+        Deflater def = this.deflater;
+        def.reset();
+        def.setLevel(this.compressionLevel);
+        def.setStrategy(this.compressionStrategy);
+        this.compressed.reset();
+        this.adler.reset();
+        byte[] buffer = new byte[8192];
+        for (int y = start; y < end; y++) {
+            System.arraycopy(this.frame, y * this.width, pixels, 0,
+                    this.width);
+            packRow(pixels, row);
+            filterRow(row, prior, scanLine);
+            this.adler.update(scanLine);
+            def.setInput(scanLine);
+            while (!def.needsInput()) {
+                int n = def.deflate(buffer);
+                this.compressed.write(buffer, 0, n);
+            }
+            byte[] swap = prior;
+            prior = row;
+            row = swap;
+        }
+        if (b == bandCount - 1) {
+            def.finish();
+            while (!def.finished()) {
+                int n = def.deflate(buffer);
+                this.compressed.write(buffer, 0, n);
+            }
+        }
+        else {
+            ParallelDeflaterOutputStream.flush(def, Deflater.FULL_FLUSH,
+                    buffer, this.compressed);
+        }
+        this.bands[b] = this.compressed.toByteArray();
+        this.bandChecksums[b] = (int) this.adler.getValue();
+        this.bandLengths[b] = (end - start) * scanLine.length;
+    }
+
+    /**
+     * Combines the Adler-32 checksums of two blocks of data into the
+     * checksum of the blocks one after the other (as zlib's
+     * <code>adler32_combine()</code> does).
+     *
+     * @param adler1  the checksum of the first block.
+     * @param adler2  the checksum of the second block.
+     * @param length2  the length of the second block.
+     *
+     * @return The combined checksum.
+     */
+    static int combine(int adler1, int adler2, long length2) {
+        long rem = length2 % ADLER_BASE;
+        long sum1 = adler1 & 0xffff;
+        long sum2 = (rem * sum1) % ADLER_BASE;
+        sum1 += (adler2 & 0xffff) + ADLER_BASE - 1;
+        sum2 += ((adler1 >>> 16) & 0xffff) + ((adler2 >>> 16) & 0xffff)
+                + ADLER_BASE - rem;
+        if (sum1 >= ADLER_BASE) {
+            sum1 -= ADLER_BASE;
+        }
+        if (sum1 >= ADLER_BASE) {
+            sum1 -= ADLER_BASE;
+        }
+        if (sum2 >= (ADLER_BASE << 1)) {
+            sum2 -= (ADLER_BASE << 1);
+        }
+        if (sum2 >= ADLER_BASE) {
+            sum2 -= ADLER_BASE;
+        }
+        return (int) ((sum2 << 16) | sum1);
+    }
+
+}
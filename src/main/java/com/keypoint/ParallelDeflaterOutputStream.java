@@ -0,0 +1,366 @@
+package com.keypoint;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.Adler32;
+import java.util.zip.Deflater;
+
+/**
+ * An output stream that compresses the data written to it into a single zlib
+ * stream, deflating bands of the data in parallel (in the same way as pigz).
+ * <p>
+ * The data is cut into bands of a fixed size.  Each band is deflated by a
+ * task on an executor, using the last 32K of the data before it as a preset
+ * dictionary, and is ended with a sync flush so that the compressed bands can
+ * simply be concatenated.  The zlib header and the Adler-32 checksum of the
+ * whole stream are written by this class.  Only a limited number of bands are
+ * in progress at any time, so the memory used does not depend on the amount
+ * of data written.
+ * <p>
+ * This class is used by {@link PngEncoder} and is not intended to be used
+ * directly.
+ */
+class ParallelDeflaterOutputStream extends OutputStream {
+
+    /** The size of the deflate window (and of the preset dictionaries). */
+    private static final int WINDOW_SIZE = 32768;
+
+    /** The stream that receives the compressed data. */
+    private final OutputStream out;
+
+    /** The executor that runs the compression tasks. */
+    private final ExecutorService executor;
+
+    /** The compression level. */
+    private final int level;
+
+    /** The compression strategy. */
+    private final int strategy;
+
+    /** The maximum number of bands in progress at one time. */
+    private final int maxPending;
+
+    /** The compression tasks in progress, in stream order. */
+    private final LinkedList pending;
+
+    /** The checksum of all the uncompressed data. */
+    private final Adler32 adler;
+
+    /** The band being filled. */
+    private byte[] band;
+
+    /** The number of bytes in the band being filled. */
+    private int count;
+
+    /** The last (up to) 32K bytes before the band being filled. */
+    private byte[] window;
+
+    /** The number of valid bytes in the window. */
+    private int windowLength;
+
+    /** Has the zlib header been written? */
+    private boolean headerWritten;
+
+    /**
+     * Creates a new stream.
+     *
+     * @param out  the stream that receives the compressed data.
+     * @param executor  the executor that runs the compression tasks.
+     * @param level  the compression level (0 to 9).
+     * @param strategy  the compression strategy (see {@link Deflater}).
+     * @param bandSize  the number of uncompressed bytes in each band.
+     * @param maxPending  the maximum number of bands in progress at once.
+     */
+    ParallelDeflaterOutputStream(OutputStream out, ExecutorService executor,
+            int level, int strategy, int bandSize, int maxPending) {
+        this.out = out;
+        this.executor = executor;
+        this.level = level;
+        this.strategy = strategy;
+        this.maxPending = Math.max(1, maxPending);
+        this.pending = new LinkedList();
+        this.adler = new Adler32();
+        this.band = new byte[bandSize];
+        this.window = new byte[WINDOW_SIZE];
+    }
+
+    /**
+     * Writes a single byte.
+     *
+     * @param b  the byte.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    public void write(int b) throws IOException {
+        write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    /**
+     * Writes a range of bytes, starting a compression task each time a band
+     * is full.
+     *
+     * @param b  the data.
+     * @param off  the start offset in the data.
+     * @param len  the number of bytes to write.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    public void write(byte[] b, int off, int len) throws IOException {
+        this.adler.update(b, off, len);
+        while (len > 0) {
+            int n = Math.min(len, this.band.length - this.count);
+            System.arraycopy(b, off, this.band, this.count, n);
+            this.count += n;
+            off += n;
+            len -= n;
+            if (this.count == this.band.length) {
+                submitBand(false);
+            }
+        }
+    }
+
+    /**
+     * Compresses any remaining data, waits for all the compression tasks
+     * and writes the end of the zlib stream.  The underlying stream is not
+     * closed.
+     *
+     * @throws IOException if there is an I/O problem or a compression task
+     *     failed.
+     */
+    public void finish() throws IOException {
+        submitBand(true);
+        while (!this.pending.isEmpty()) {
+            writeNextBand();
+        }
+        PngChunkOutputStream.writeInt4(this.out, (int) this.adler.getValue());
+    }
+
+    /**
+     * Starts a compression task for the band being filled, and starts a new
+     * band.  If too many tasks are in progress, the oldest is waited for and
+     * written first.
+     *
+     * @param last  is this the last band in the stream?
+     *
+     * @throws IOException if there is an I/O problem or a compression task
+     *     failed.
+     */
+    private void submitBand(boolean last) throws IOException {
+        if (!this.headerWritten) {
+            writeHeader();
+        }
+        while (this.pending.size() >= this.maxPending) {
+            writeNextBand();
+        }
+        byte[] dictionary = null;
+        if (this.windowLength > 0) {
+            dictionary = new byte[this.windowLength];
+            System.arraycopy(this.window, 0, dictionary, 0,
+                    this.windowLength);
+        }
+        this.pending.add(this.executor.submit(new BandTask(this.band,
+                this.count, dictionary, this.level, this.strategy, last)));
+        updateWindow();
+        if (!last) {
+            this.band = new byte[this.band.length];
+        }
+        this.count = 0;
+    }
+
+    /**
+     * Slides the window so that it holds the last 32K bytes up to the end of
+     * the band being filled.
+     */
+    private void updateWindow() {
+        if (this.count >= WINDOW_SIZE) {
+            System.arraycopy(this.band, this.count - WINDOW_SIZE,
+                    this.window, 0, WINDOW_SIZE);
+            this.windowLength = WINDOW_SIZE;
+        }
+        else {
+            int keep = Math.min(this.windowLength,
+                    WINDOW_SIZE - this.count);
+            System.arraycopy(this.window, this.windowLength - keep,
+                    this.window, 0, keep);
+            System.arraycopy(this.band, 0, this.window, keep, this.count);
+            this.windowLength = keep + this.count;
+        }
+    }
+
+    /**
+     * Waits for the oldest compression task and writes its output.
+     *
+     * @throws IOException if there is an I/O problem or the task failed.
+     */
+    private void writeNextBand() throws IOException {
+        Future future = (Future) this.pending.removeFirst();
+        try {
+            byte[] compressed = (byte[]) future.get();
+            this.out.write(compressed);
+        }
+        catch (InterruptedException e) {
+            cancelPending();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for compression.");
+        }
+        catch (ExecutionException e) {
+            cancelPending();
+            throw new IOException("Compression failed.", e.getCause());
+        }
+    }
+
+    /**
+     * Cancels the compression tasks still in progress.
+     */
+    private void cancelPending() {
+        while (!this.pending.isEmpty()) {
+            ((Future) this.pending.removeFirst()).cancel(true);
+        }
+    }
+
+    /**
+     * Writes the two byte zlib header.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    private void writeHeader() throws IOException {
+        writeHeader(this.out, this.level);
+        this.headerWritten = true;
+    }
+
+    /**
+     * Writes a two byte zlib header for a deflate stream with a 32K window.
+     *
+     * @param out  the stream.
+     * @param level  the compression level (0 to 9).
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    static void writeHeader(OutputStream out, int level) throws IOException {
+        int cmf = 0x78; // deflate with a 32K window
+        int flevel;
+        if (level >= 0 && level < 2) {
+            flevel = 0;
+        }
+        else if (level < 6) {
+            flevel = 1;
+        }
+        else if (level == 6) {
+            flevel = 2;
+        }
+        else {
+            flevel = 3;
+        }
+        int flg = flevel << 6;
+        flg += 31 - ((cmf << 8) + flg) % 31;
+        out.write(cmf);
+        out.write(flg);
+    }
+
+    /**
+     * Deflates all the remaining input of a deflater and then flushes it,
+     * so that the output ends on a byte boundary and another deflate
+     * fragment can follow it.  A pending level or strategy change makes the
+     * first call to <code>deflate()</code> return early, so this keeps going
+     * until all the input is used.
+     *
+     * @param deflater  the deflater.
+     * @param flush  the flush mode (<code>Deflater.SYNC_FLUSH</code> or
+     *     <code>Deflater.FULL_FLUSH</code>).
+     * @param buffer  a buffer for the compressed data.
+     * @param out  the stream that receives the compressed data.
+     */
+    static void flush(Deflater deflater, int flush, byte[] buffer,
+            ByteArrayOutputStream out) {
+        int n;
+        do {
+            n = deflater.deflate(buffer, 0, buffer.length, flush);
+            out.write(buffer, 0, n);
+        } while (n == buffer.length || !deflater.needsInput());
+    }
+
+    /**
+     * A task that deflates one band into a raw deflate fragment.
+     */
+    private static class BandTask implements Callable {
+
+        /** The uncompressed data. */
+        private final byte[] data;
+
+        /** The number of bytes of data. */
+        private final int length;
+
+        /** The preset dictionary (<code>null</code> permitted). */
+        private final byte[] dictionary;
+
+        /** The compression level. */
+        private final int level;
+
+        /** The compression strategy. */
+        private final int strategy;
+
+        /** Is this the last band in the stream? */
+        private final boolean last;
+
+        /**
+         * Creates a new task.
+         *
+         * @param data  the uncompressed data.
+         * @param length  the number of bytes of data.
+         * @param dictionary  the preset dictionary (<code>null</code>
+         *     permitted).
+         * @param level  the compression level.
+         * @param strategy  the compression strategy.
+         * @param last  is this the last band in the stream?
+         */
+        BandTask(byte[] data, int length, byte[] dictionary, int level,
+                int strategy, boolean last) {
+            this.data = data;
+            this.length = length;
+            this.dictionary = dictionary;
+            this.level = level;
+            this.strategy = strategy;
+            this.last = last;
+        }
+
+        /**
+         * Deflates the band.
+         *
+         * @return The compressed data.
+         */
+        public Object call() {
+            Deflater deflater = new Deflater(this.level, true);
+            try {
+                deflater.setStrategy(this.strategy);
+                if (this.dictionary != null) {
+                    deflater.setDictionary(this.dictionary);
+                }
+                deflater.setInput(this.data, 0, this.length);
+                ByteArrayOutputStream result = new ByteArrayOutputStream(
+                        this.length / 2 + 64);
+                byte[] buffer = new byte[8192];
+                if (this.last) {
+                    deflater.finish();
+                    while (!deflater.finished()) {
+                        int n = deflater.deflate(buffer);
+                        result.write(buffer, 0, n);
+                    }
+                }
+                else {
+                    flush(deflater, Deflater.SYNC_FLUSH, buffer, result);
+                }
+                return result.toByteArray();
+            }
+            finally {
+                deflater.end();
+            }
+        }
+    }
+
+}
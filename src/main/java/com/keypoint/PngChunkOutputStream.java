@@ -0,0 +1,216 @@
+package com.keypoint;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+
+/**
+ * An output stream that collects the bytes written to it and passes them on
+ * to an underlying stream as a sequence of PNG chunks of one type (normally
+ * "IDAT").  No chunk holds more than a fixed number of data bytes, so the
+ * memory used does not depend on the size of the image being encoded.  For
+ * the "fdAT" chunks of an animated PNG, each chunk's data can be prefixed
+ * with a sequence number.
+ *
+ * <p>This class is used by {@link PngEncoder} and is not intended to be used
+ * directly.</p>
+ */
+class PngChunkOutputStream extends OutputStream {
+
+    /** The stream that receives the chunks. */
+    private OutputStream out;
+
+    /** The chunk type tag. */
+    private final byte[] type;
+
+    /** The CRC used to checksum each chunk. */
+    private final CRC32 crc;
+
+    /** The data for the chunk currently being collected. */
+    private final byte[] buffer;
+
+    /** The number of bytes held in the buffer. */
+    private int count;
+
+    /** The number of chunks written so far. */
+    private int chunkCount;
+
+    /** The next sequence number (-1 if chunks are not numbered). */
+    private int sequenceNumber = -1;
+
+    /**
+     * Creates a new stream.
+     *
+     * @param out  the stream that receives the chunks.
+     * @param type  the chunk type tag (four bytes).
+     * @param chunkSize  the maximum number of data bytes in one chunk.
+     * @param crc  the CRC used to checksum each chunk.
+     */
+    PngChunkOutputStream(OutputStream out, byte[] type, int chunkSize,
+            CRC32 crc) {
+        this.out = out;
+        this.type = type;
+        this.crc = crc;
+        this.buffer = new byte[chunkSize];
+    }
+
+    /**
+     * Returns the maximum number of data bytes in one chunk.
+     *
+     * @return The chunk size.
+     */
+    int getChunkSize() {
+        return this.buffer.length;
+    }
+
+    /**
+     * Discards any buffered bytes and directs the chunks to another stream,
+     * so that this stream can be reused.  The chunks are no longer numbered.
+     *
+     * @param out  the stream that receives the chunks.
+     */
+    void reset(OutputStream out) {
+        this.out = out;
+        this.count = 0;
+        this.chunkCount = 0;
+        this.sequenceNumber = -1;
+    }
+
+    /**
+     * Sets the sequence number for the next chunk.  Once set, the data of
+     * each chunk starts with a four byte sequence number, which goes up by
+     * one for each chunk.
+     *
+     * @param n  the sequence number (-1 to stop numbering the chunks).
+     */
+    void setSequenceNumber(int n) {
+        this.sequenceNumber = n;
+    }
+
+    /**
+     * Returns the sequence number for the next chunk.
+     *
+     * @return The sequence number (-1 if chunks are not numbered).
+     */
+    int getSequenceNumber() {
+        return this.sequenceNumber;
+    }
+
+    /**
+     * Writes a single byte.
+     *
+     * @param b  the byte.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    public void write(int b) throws IOException {
+        if (this.count == this.buffer.length) {
+            writeChunk();
+        }
+        this.buffer[this.count++] = (byte) b;
+    }
+
+    /**
+     * Writes a range of bytes, emitting a chunk each time the buffer fills.
+     *
+     * @param b  the data.
+     * @param off  the start offset in the data.
+     * @param len  the number of bytes to write.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (this.count == this.buffer.length) {
+                writeChunk();
+            }
+            int n = Math.min(len, this.buffer.length - this.count);
+            System.arraycopy(b, off, this.buffer, this.count, n);
+            this.count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Writes any bytes still held in the buffer as a final chunk.  At least
+     * one chunk is always written, even if no data was supplied.  The
+     * underlying stream is not closed.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    public void finish() throws IOException {
+        if (this.count > 0 || this.chunkCount == 0) {
+            writeChunk();
+        }
+    }
+
+    /**
+     * Writes the buffered bytes as one chunk and empties the buffer.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    private void writeChunk() throws IOException {
+        if (this.sequenceNumber >= 0) {
+            byte[] seq = {(byte) (this.sequenceNumber >> 24),
+                    (byte) (this.sequenceNumber >> 16),
+                    (byte) (this.sequenceNumber >> 8),
+                    (byte) this.sequenceNumber};
+            writeInt4(this.out, this.count + 4);
+            this.out.write(this.type);
+            this.out.write(seq);
+            this.out.write(this.buffer, 0, this.count);
+            this.crc.reset();
+            this.crc.update(this.type);
+            this.crc.update(seq);
+            this.crc.update(this.buffer, 0, this.count);
+            writeInt4(this.out, (int) this.crc.getValue());
+            this.sequenceNumber++;
+        }
+        else {
+            writeChunk(this.out, this.crc, this.type, this.buffer, 0,
+                    this.count);
+        }
+        this.count = 0;
+        this.chunkCount++;
+    }
+
+    /**
+     * Writes a complete PNG chunk (length, type, data and CRC) to a stream.
+     *
+     * @param out  the stream.
+     * @param crc  the CRC used to checksum the chunk.
+     * @param type  the chunk type tag (four bytes).
+     * @param data  the chunk data.
+     * @param off  the start offset in the data.
+     * @param len  the number of data bytes.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    static void writeChunk(OutputStream out, CRC32 crc, byte[] type,
+            byte[] data, int off, int len) throws IOException {
+        writeInt4(out, len);
+        out.write(type);
+        out.write(data, off, len);
+        crc.reset();
+        crc.update(type);
+        crc.update(data, off, len);
+        writeInt4(out, (int) crc.getValue());
+    }
+
+    /**
+     * Writes a four-byte big-endian integer to a stream.
+     *
+     * @param out  the stream.
+     * @param n  the integer.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    static void writeInt4(OutputStream out, int n) throws IOException {
+        out.write((n >> 24) & 0xff);
+        out.write((n >> 16) & 0xff);
+        out.write((n >> 8) & 0xff);
+        out.write(n & 0xff);
+    }
+
+}
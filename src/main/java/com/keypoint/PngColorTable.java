@@ -0,0 +1,139 @@
+package com.keypoint;
+
+import java.util.Arrays;
+
+/**
+ * A small open-addressing hash table that maps ARGB colours to palette
+ * indices, using primitive int arrays only.  The table holds at most
+ * {@link #MAX_COLORS} colours.
+ * <p>
+ * This class is used by {@link PngEncoder} and is not intended to be used
+ * directly.
+ */
+final class PngColorTable {
+
+    /** The maximum number of colours (the size of a PNG palette). */
+    static final int MAX_COLORS = 256;
+
+    /** The number of slots (a power of two, at most half full). */
+    private static final int CAPACITY = 2 * MAX_COLORS;
+
+    /** The colours, by slot. */
+    private final int[] keys;
+
+    /** The palette index of each slot (-1 for an empty slot). */
+    private final int[] values;
+
+    /** The colours in the order they were added. */
+    private final int[] colors;
+
+    /** The number of colours in the table. */
+    private int size;
+
+    /** The most recently looked up colour. */
+    private int lastColor;
+
+    /** The index of the most recently looked up colour (-1 if none). */
+    private int lastIndex;
+
+    /**
+     * Creates an empty table.
+     */
+    PngColorTable() {
+        this.keys = new int[CAPACITY];
+        this.values = new int[CAPACITY];
+        this.colors = new int[MAX_COLORS];
+        clear();
+    }
+
+    /**
+     * Removes all the colours from the table.
+     */
+    void clear() {
+        Arrays.fill(this.values, -1);
+        this.size = 0;
+        this.lastIndex = -1;
+    }
+
+    /**
+     * Returns the number of colours in the table.
+     *
+     * @return The number of colours.
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns a colour by index.
+     *
+     * @param index  the index (0 to size() - 1).
+     *
+     * @return The colour.
+     */
+    int getColor(int index) {
+        return this.colors[index];
+    }
+
+    /**
+     * Adds a colour to the table, unless it is already there.
+     *
+     * @param argb  the colour.
+     *
+     * @return <code>false</code> if the colour could not be added because the
+     *     table is full, <code>true</code> otherwise.
+     */
+    boolean add(int argb) {
+        if (this.lastIndex >= 0 && argb == this.lastColor) {
+            return true;
+        }
+        int slot = slot(argb);
+        if (this.values[slot] < 0) {
+            if (this.size == MAX_COLORS) {
+                return false;
+            }
+            this.keys[slot] = argb;
+            this.values[slot] = this.size;
+            this.colors[this.size++] = argb;
+        }
+        this.lastColor = argb;
+        this.lastIndex = this.values[slot];
+        return true;
+    }
+
+    /**
+     * Returns the index of a colour.
+     *
+     * @param argb  the colour.
+     *
+     * @return The index, or -1 if the colour is not in the table.
+     */
+    int indexOf(int argb) {
+        if (this.lastIndex >= 0 && argb == this.lastColor) {
+            return this.lastIndex;
+        }
+        int index = this.values[slot(argb)];
+        if (index >= 0) {
+            this.lastColor = argb;
+            this.lastIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the slot that holds a colour, or the empty slot where it
+     * would be added.
+     *
+     * @param argb  the colour.
+     *
+     * @return The slot.
+     */
+    private int slot(int argb) {
+        int slot = (argb * 0x9e3779b9) >>> 23;
+        while (this.values[slot] >= 0 && this.keys[slot] != argb) {
+            slot = (slot + 1) & (CAPACITY - 1);
+        }
+        return slot;
+    }
+
+}
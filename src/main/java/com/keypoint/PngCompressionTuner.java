@@ -0,0 +1,103 @@
+package com.keypoint;
+
+import java.util.zip.Deflater;
+
+/**
+ * Chooses a compression level and strategy for an image from a sample of its
+ * filtered scan lines, so that the whole image can be compressed within a
+ * time budget or at a target throughput.
+ * <p>
+ * The candidate settings are tried on the sample from the fastest to the
+ * slowest.  The cost of each is scaled up to the size of the whole image,
+ * and the candidate that gives the smallest output while still meeting the
+ * target is chosen.  Trials stop at the first candidate that misses the
+ * target, so the sampling cost stays small when the budget is tight.
+ * <p>
+ * This class is used by {@link PngEncoder} and is not intended to be used
+ * directly.
+ */
+final class PngCompressionTuner {
+
+    /**
+     * The candidate (level, strategy) pairs, roughly from the fastest to the
+     * slowest.
+     */
+    private static final int[][] CANDIDATES = {
+        {1, Deflater.HUFFMAN_ONLY},
+        {1, Deflater.DEFAULT_STRATEGY},
+        {4, Deflater.FILTERED},
+        {6, Deflater.FILTERED},
+        {6, Deflater.DEFAULT_STRATEGY},
+        {9, Deflater.FILTERED},
+        {9, Deflater.DEFAULT_STRATEGY}
+    };
+
+    /**
+     * Private constructor to prevent object creation.
+     */
+    private PngCompressionTuner() {
+    }
+
+    /**
+     * Chooses the compression settings.  Exactly one of
+     * <code>budgetNanos</code> and <code>bytesPerMilli</code> should be
+     * positive.
+     *
+     * @param sample  the sample of filtered scan lines.
+     * @param length  the number of bytes in the sample.
+     * @param totalBytes  the number of bytes in all the filtered scan lines.
+     * @param fixedNanos  the estimated time to read and filter all the rows,
+     *     in nanoseconds.
+     * @param budgetNanos  the time available for the rest of the encoding, in
+     *     nanoseconds (zero or less if there is no time budget).
+     * @param bytesPerMilli  the target throughput in uncompressed bytes per
+     *     millisecond (zero or less if there is no throughput target).
+     * @param deflater  a deflater to run the trials with (it is reset).
+     *
+     * @return An array containing the level and the strategy.
+     */
+    static int[] choose(byte[] sample, int length, long totalBytes,
+            long fixedNanos, long budgetNanos, double bytesPerMilli,
+            Deflater deflater) {
+        double scale = (double) totalBytes / Math.max(1, length);
+        byte[] buffer = new byte[8192];
+        int best = 0;
+        long bestSize = Long.MAX_VALUE;
+        for (int i = 0; i < CANDIDATES.length; i++) {
+            deflater.reset();
+            deflater.setLevel(CANDIDATES[i][0]);
+            deflater.setStrategy(CANDIDATES[i][1]);
+            deflater.setInput(sample, 0, length);
+            deflater.finish();
+            long size = 0;
+            long start = System.nanoTime();
+            while (!deflater.finished()) {
+                size += deflater.deflate(buffer);
+            }
+            long elapsed = System.nanoTime() - start;
+            long estimate = fixedNanos + (long) (elapsed * scale);
+
+            boolean fits;
+            if (budgetNanos > 0) {
+                fits = estimate <= budgetNanos;
+            }
+            else {
+                fits = totalBytes * 1000000.0 / Math.max(1, estimate)
+                        >= bytesPerMilli;
+            }
+            if (i == 0) {
+                bestSize = size;
+            }
+            else if (fits && size < bestSize) {
+                best = i;
+                bestSize = size;
+            }
+            if (!fits) {
+                break;
+            }
+        }
+        deflater.reset();
+        return new int[] {CANDIDATES[best][0], CANDIDATES[best][1]};
+    }
+
+}
@@ -1,10 +1,14 @@
 package com.keypoint;
 
 import java.awt.Image;
-import java.awt.image.ImageObserver;
-import java.awt.image.PixelGrabber;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
 import java.util.zip.CRC32;
 import java.util.zip.Deflater;
 import java.util.zip.DeflaterOutputStream;
@@ -12,6 +16,16 @@ import java.util.zip.DeflaterOutputStream;
 /**
  * PngEncoder takes a Java Image object and creates a byte string which can be
  * saved as a PNG file.  The Image is presumed to use the DirectColorModel.
+ * The PNG can also be written straight to an {@link OutputStream} or a
+ * {@link WritableByteChannel}, in which case the memory used does not depend
+ * on the size of the image.  Images with no more than 256 colours can be
+ * written as palette images (see {@link #setIndexedColor(boolean)}).
+ *
+ * <p>An encoder can be used for any number of images.  It keeps its Deflater
+ * and its working buffers between calls, so repeated encoding allocates very
+ * little; call {@link #dispose()} to release the Deflater's native memory
+ * when the encoder is no longer needed.  Instances are not thread-safe;
+ * {@link PngEncoderPool} shares encoders between threads.</p>
  *
  * <p>Thanks to Jay Denny at KeyPoint Software
  *    http://www.keypoint.com/
@@ -51,6 +65,30 @@ import java.util.zip.DeflaterOutputStream;
  *               Fixed bug with calculation of nRows
  * 15-Aug-2008 : Added scrunch.end() in writeImageData() method - see
  *               JFreeChart bug report 2037930 (David Gilbert);
+ * 18-Oct-2026 : Added encode(OutputStream) and encode(WritableByteChannel),
+ *               which write the image one row at a time and split the
+ *               compressed data into IDAT chunks of bounded size.
+ *               pngEncode() now uses the same code path.  The prior row used
+ *               by FILTER_UP is no longer reset at each band of rows;
+ * 18-Oct-2026 : Added setCompressionExecutor() to deflate the image data
+ *               in parallel bands;
+ * 18-Oct-2026 : Added FILTER_AVERAGE, FILTER_PAETH and FILTER_ADAPTIVE, and
+ *               fixed FILTER_SUB, which did not subtract the first pixel of
+ *               each row;
+ * 18-Oct-2026 : Read the pixels of INT_ARGB, INT_RGB and 3BYTE_BGR buffered
+ *               images straight from the raster instead of through a
+ *               PixelGrabber;
+ * 18-Oct-2026 : Added setIndexedColor() to write images with few colours
+ *               as palette images;
+ * 18-Oct-2026 : The Deflater, chunk buffer and row buffers are now kept for
+ *               reuse between calls.  Added reset(), dispose() and
+ *               PngEncoderPool;
+ * 18-Oct-2026 : Added setCompressionStrategy(), and a time budget and a
+ *               throughput target that choose the level and strategy from a
+ *               sample of the image;
+ * 18-Oct-2026 : Made packRow() protected for IncrementalPngEncoder;
+ * 18-Oct-2026 : Split writeCompressedData() from writeImageData() and made
+ *               PNG_SIGNATURE protected, for AnimatedPngEncoder;
  */
 
 public class PngEncoder {
@@ -70,8 +108,20 @@ public class PngEncoder {
     /** Constants for filter (UP). */
     public static final int FILTER_UP = 2;
 
+    /** Constants for filter (AVERAGE). */
+    public static final int FILTER_AVERAGE = 3;
+
+    /** Constants for filter (PAETH). */
+    public static final int FILTER_PAETH = 4;
+
     /** Constants for filter (LAST). */
-    public static final int FILTER_LAST = 2;
+    public static final int FILTER_LAST = 4;
+
+    /**
+     * Constant for adaptive filtering: the filter for each row is the one
+     * that gives the smallest sum of absolute differences.
+     */
+    public static final int FILTER_ADAPTIVE = 5;
 
     /** IHDR tag. */
     protected static final byte[] IHDR = {73, 72, 68, 82};
@@ -82,17 +132,47 @@ public class PngEncoder {
     /** IEND tag. */
     protected static final byte[] IEND = {73, 69, 78, 68};
 
+    /** PLTE tag. */
+    protected static final byte[] PLTE = {80, 76, 84, 69};
+
+    /** tRNS tag. */
+    protected static final byte[] TRNS = {116, 82, 78, 83};
+
     /** PHYS tag. */
     protected static final byte[] PHYS = {(byte)'p', (byte)'H', (byte)'Y',
         (byte)'s'};
 
+    /** The default maximum number of data bytes in one IDAT chunk. */
+    public static final int DEFAULT_IDAT_CHUNK_SIZE = 32768;
+
+    /** The default number of uncompressed bytes in a parallel band. */
+    public static final int DEFAULT_COMPRESSION_BAND_SIZE = 131072;
+
+    /** The approximate number of scan line bytes sampled for tuning. */
+    private static final int SAMPLE_SIZE = 32768;
+
+    /** The number of bands of rows sampled for tuning. */
+    private static final int SAMPLE_BANDS = 4;
+
+    /** The eight byte signature that starts every PNG file. */
+    protected static final byte[] PNG_SIGNATURE
+            = {-119, 80, 78, 71, 13, 10, 26, 10};
+
+    /** The size of the buffers used when streaming the output. */
+    private static final int BUFFER_SIZE = 8192;
+
     /** The png bytes. */
     protected byte[] pngBytes;
 
-    /** The prior row. */
+    /** The prior row (unfiltered). */
     protected byte[] priorRow;
 
-    /** The left bytes. */
+    /**
+     * The left bytes.
+     *
+     * @deprecated No longer used.
+     */
+    @Deprecated
     protected byte[] leftBytes;
 
     /** The image. */
@@ -140,6 +220,68 @@ public class PngEncoder {
      */
     protected int compressionLevel;
 
+    /** The maximum number of data bytes in one IDAT chunk. */
+    protected int idatChunkSize = DEFAULT_IDAT_CHUNK_SIZE;
+
+    /**
+     * The executor used to deflate bands of image data in parallel
+     * (<code>null</code> to deflate on the calling thread).
+     */
+    protected ExecutorService compressionExecutor;
+
+    /** The number of uncompressed bytes in each parallel band. */
+    protected int compressionBandSize = DEFAULT_COMPRESSION_BAND_SIZE;
+
+    /** The compression strategy (see {@link Deflater}). */
+    protected int compressionStrategy = Deflater.DEFAULT_STRATEGY;
+
+    /**
+     * The time budget for encoding, in milliseconds (zero for no budget).
+     */
+    protected long compressionTimeBudget;
+
+    /**
+     * The target throughput, in uncompressed bytes per millisecond (zero for
+     * no target).
+     */
+    protected double compressionThroughput;
+
+    /** Write a palette image if the image has few enough colours? */
+    protected boolean indexedColor;
+
+    /**
+     * The palette for the image being encoded, with any translucent colours
+     * first (<code>null</code> for a truecolour image).
+     */
+    private int[] palette;
+
+    /** The palette indices of the colours in the image being encoded. */
+    private PngColorTable colorTable;
+
+    /** The bit depth of the image being encoded. */
+    private int bitDepth = 8;
+
+    /** The deflater, kept for reuse (<code>null</code> until needed). */
+    private Deflater deflater;
+
+    /** The compressing stream, kept for reuse. */
+    private ReusableDeflaterOutputStream deflaterStream;
+
+    /** The IDAT chunk stream, kept for reuse. */
+    private PngChunkOutputStream idatStream;
+
+    /** A scratch buffer for one row of pixels. */
+    private int[] pixelBuffer;
+
+    /** A scratch buffer for one unfiltered row. */
+    private byte[] rowBuffer;
+
+    /** A scratch buffer for one filtered scan line. */
+    private byte[] scanLineBuffer;
+
+    /** A scratch buffer for the scan lines sampled for tuning. */
+    private byte[] sampleBuffer;
+
     /**
      * Class constructor.
      */
@@ -176,7 +318,8 @@ public class PngEncoder {
      *
      * @param image A Java Image object which uses the DirectColorModel
      * @param encodeAlpha Encode the alpha channel? false=no; true=yes
-     * @param whichFilter 0=none, 1=sub, 2=up
+     * @param whichFilter 0=none, 1=sub, 2=up, 3=average, 4=paeth,
+     *     5=adaptive
      * @see java.awt.Image
      */
     public PngEncoder(Image image, boolean encodeAlpha, int whichFilter) {
@@ -190,7 +333,8 @@ public class PngEncoder {
      *
      * @param image A Java Image object
      * @param encodeAlpha Encode the alpha channel? false=no; true=yes
-     * @param whichFilter 0=none, 1=sub, 2=up
+     * @param whichFilter 0=none, 1=sub, 2=up, 3=average, 4=paeth,
+     *     5=adaptive
      * @param compLevel 0..9 (1 = best speed, 9 = best compression, 0 = no
      *        compression)
      * @see java.awt.Image
@@ -226,6 +370,50 @@ public class PngEncoder {
       return this.image;
     }
 
+    /**
+     * Prepares the encoder for reuse: the image and the last encoded bytes
+     * are released and every setting is restored to its default, but the
+     * Deflater and the working buffers are kept.
+     */
+    public void reset() {
+        this.image = null;
+        this.pngBytes = null;
+        this.encodeAlpha = false;
+        this.filter = FILTER_NONE;
+        this.compressionLevel = 0;
+        this.xDpi = 0;
+        this.yDpi = 0;
+        this.idatChunkSize = DEFAULT_IDAT_CHUNK_SIZE;
+        this.compressionExecutor = null;
+        this.compressionBandSize = DEFAULT_COMPRESSION_BAND_SIZE;
+        this.indexedColor = false;
+        this.palette = null;
+        this.compressionStrategy = Deflater.DEFAULT_STRATEGY;
+        this.compressionTimeBudget = 0;
+        this.compressionThroughput = 0.0;
+    }
+
+    /**
+     * Releases the native memory held by the encoder's Deflater, and the
+     * working buffers.  The encoder can still be used afterwards, but will
+     * allocate them again.
+     */
+    public void dispose() {
+        reset();
+        if (this.deflater != null) {
+            this.deflater.end();
+            this.deflater = null;
+        }
+        this.deflaterStream = null;
+        this.idatStream = null;
+        this.colorTable = null;
+        this.pixelBuffer = null;
+        this.rowBuffer = null;
+        this.scanLineBuffer = null;
+        this.sampleBuffer = null;
+        this.priorRow = null;
+    }
+
   /**
      * Creates an array of bytes that is the PNG equivalent of the current
      * image, specifying whether to encode alpha or not.
@@ -234,40 +422,82 @@ public class PngEncoder {
      * @return an array of bytes, or null if there was a problem
      */
     public byte[] pngEncode(boolean encodeAlpha) {
-        byte[]  pngIdBytes = {-119, 80, 78, 71, 13, 10, 26, 10};
-
         if (this.image == null) {
             return null;
         }
-        this.width = this.image.getWidth(null);
-        this.height = this.image.getHeight(null);
-
-        /*
-         * start with an array that is big enough to hold all the pixels
-         * (plus filter bytes), and an extra 200 bytes for header info
-         */
-        this.pngBytes = new byte[((this.width + 1) * this.height * 3) + 200];
-
-        /*
-         * keep track of largest byte written to the array
-         */
-        this.maxPos = 0;
-
-        this.bytePos = writeBytes(pngIdBytes, 0);
-        //hdrPos = bytePos;
-        writeHeader();
-        writeResolution();
-        //dataPos = bytePos;
-        if (writeImageData()) {
-            writeEnd();
-            this.pngBytes = resizeByteArray(this.pngBytes, this.maxPos);
+        ByteArrayOutputStream outBytes = new ByteArrayOutputStream(
+                BUFFER_SIZE);
+        try {
+            encode(outBytes);
         }
-        else {
+        catch (IOException e) {
+            System.err.println(e.toString());
             this.pngBytes = null;
+            return null;
         }
+        this.pngBytes = outBytes.toByteArray();
+        this.bytePos = this.pngBytes.length;
+        this.maxPos = this.pngBytes.length;
         return this.pngBytes;
     }
 
+    /**
+     * Writes the PNG equivalent of the current image to a stream.  The image
+     * is read and compressed a few rows at a time, and the compressed data is
+     * written in IDAT chunks of at most {@link #getIdatChunkSize()} bytes, so
+     * the memory used does not depend on the size of the image.  The stream
+     * is flushed but not closed.
+     *
+     * @param out  the output stream (<code>null</code> not permitted).
+     *
+     * @throws IOException if there is a problem writing to the stream or
+     *     grabbing the pixels of the image.
+     */
+    public void encode(OutputStream out) throws IOException {
+        if (out == null) {
+            throw new IllegalArgumentException("Null 'out' argument.");
+        }
+        if (this.image == null) {
+            throw new IllegalStateException("No image to encode.");
+        }
+        long start = System.nanoTime();
+        this.width = this.image.getWidth(null);
+        this.height = this.image.getHeight(null);
+        this.bytesPerPixel = (this.encodeAlpha) ? 4 : 3;
+        this.bitDepth = 8;
+        this.palette = null;
+        if (this.indexedColor) {
+            createPalette();
+        }
+        if (this.compressionTimeBudget > 0 || this.compressionThroughput > 0) {
+            tuneCompression(start);
+        }
+        out.write(PNG_SIGNATURE);
+        writeHeader(out);
+        writePalette(out);
+        writeResolution(out);
+        writeImageData(out);
+        writeEnd(out);
+        out.flush();
+    }
+
+    /**
+     * Writes the PNG equivalent of the current image to a channel.  See
+     * {@link #encode(OutputStream)} for details.  The channel is not closed.
+     *
+     * @param channel  the channel (<code>null</code> not permitted).
+     *
+     * @throws IOException if there is a problem writing to the channel or
+     *     grabbing the pixels of the image.
+     */
+    public void encode(WritableByteChannel channel) throws IOException {
+        if (channel == null) {
+            throw new IllegalArgumentException("Null 'channel' argument.");
+        }
+        encode(new BufferedOutputStream(Channels.newOutputStream(channel),
+                BUFFER_SIZE));
+    }
+
     /**
      * Creates an array of bytes that is the PNG equivalent of the current
      * image.  Alpha encoding is determined by its setting in the constructor.
@@ -297,13 +527,15 @@ public class PngEncoder {
     }
 
     /**
-     * Set the filter to use.
+     * Set the filter to use.  {@link #FILTER_ADAPTIVE} chooses a filter for
+     * each row; an unrecognised value selects {@link #FILTER_NONE}.
      *
      * @param whichFilter from constant list
      */
     public void setFilter(int whichFilter) {
         this.filter = FILTER_NONE;
-        if (whichFilter <= FILTER_LAST) {
+        if ((whichFilter >= FILTER_NONE && whichFilter <= FILTER_LAST)
+                || whichFilter == FILTER_ADAPTIVE) {
             this.filter = whichFilter;
         }
     }
@@ -338,6 +570,186 @@ public class PngEncoder {
         return this.compressionLevel;
     }
 
+    /**
+     * Set the maximum number of data bytes written in one IDAT chunk.
+     *
+     * @param size  the chunk size (must be positive).
+     */
+    public void setIdatChunkSize(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Requires 'size' > 0.");
+        }
+        this.idatChunkSize = size;
+    }
+
+    /**
+     * Retrieve the maximum number of data bytes written in one IDAT chunk.
+     *
+     * @return The chunk size.
+     */
+    public int getIdatChunkSize() {
+        return this.idatChunkSize;
+    }
+
+    /**
+     * Sets the executor used to compress the image data in parallel.  When
+     * an executor is set, the filtered scan lines are cut into bands of
+     * {@link #getCompressionBandSize()} bytes and each band is deflated by a
+     * separate task, with the end of the previous band as its dictionary.
+     * The bands are joined into one zlib stream, so the output is a normal
+     * PNG file that is slightly larger than a serial encoding.
+     * <p>
+     * The encoder waits for the tasks it submits, so it should not itself be
+     * run on a bounded executor that it also uses for compression.  The
+     * executor is not shut down by the encoder.
+     *
+     * @param executor  the executor, for example a
+     *     <code>java.util.concurrent.ForkJoinPool</code>
+     *     (<code>null</code> permitted, to compress on the calling thread).
+     */
+    public void setCompressionExecutor(ExecutorService executor) {
+        this.compressionExecutor = executor;
+    }
+
+    /**
+     * Returns the executor used to compress the image data in parallel.
+     *
+     * @return The executor (possibly <code>null</code>).
+     */
+    public ExecutorService getCompressionExecutor() {
+        return this.compressionExecutor;
+    }
+
+    /**
+     * Sets the number of uncompressed bytes deflated by each parallel task.
+     *
+     * @param size  the band size (must be positive).
+     */
+    public void setCompressionBandSize(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Requires 'size' > 0.");
+        }
+        this.compressionBandSize = size;
+    }
+
+    /**
+     * Returns the number of uncompressed bytes deflated by each parallel
+     * task.
+     *
+     * @return The band size.
+     */
+    public int getCompressionBandSize() {
+        return this.compressionBandSize;
+    }
+
+    /**
+     * Sets the compression strategy.
+     *
+     * @param strategy  one of <code>Deflater.DEFAULT_STRATEGY</code>,
+     *     <code>Deflater.FILTERED</code> and
+     *     <code>Deflater.HUFFMAN_ONLY</code>.
+     */
+    public void setCompressionStrategy(int strategy) {
+        if (strategy != Deflater.DEFAULT_STRATEGY
+                && strategy != Deflater.FILTERED
+                && strategy != Deflater.HUFFMAN_ONLY) {
+            throw new IllegalArgumentException("Unknown 'strategy'.");
+        }
+        this.compressionStrategy = strategy;
+    }
+
+    /**
+     * Returns the compression strategy.
+     *
+     * @return The strategy (see {@link Deflater}).
+     */
+    public int getCompressionStrategy() {
+        return this.compressionStrategy;
+    }
+
+    /**
+     * Sets a time budget for encoding.  When a budget is set, each encode
+     * starts by compressing a sample of the image's scan lines with several
+     * levels and strategies (including <code>Deflater.FILTERED</code> and
+     * <code>Deflater.HUFFMAN_ONLY</code>), and then uses the one that gives
+     * the smallest output within the time remaining.  The chosen settings
+     * replace the compression level and strategy, so they can be read back
+     * after encoding.  The budget is an estimate, not a guarantee.  Setting
+     * a budget clears any throughput target.
+     *
+     * @param millis  the budget in milliseconds (zero for no budget).
+     */
+    public void setCompressionTimeBudget(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Requires 'millis' >= 0.");
+        }
+        this.compressionTimeBudget = millis;
+        this.compressionThroughput = 0.0;
+    }
+
+    /**
+     * Returns the time budget for encoding.
+     *
+     * @return The budget in milliseconds (zero for no budget).
+     */
+    public long getCompressionTimeBudget() {
+        return this.compressionTimeBudget;
+    }
+
+    /**
+     * Sets a target throughput for encoding, measured in uncompressed scan
+     * line bytes (about 3 or 4 per pixel) per millisecond.  The compression
+     * level and strategy are chosen as for
+     * {@link #setCompressionTimeBudget(long)}, but the chosen settings are
+     * those with the smallest output that still meet the throughput.
+     * Setting a target clears any time budget.
+     *
+     * @param bytesPerMillisecond  the target (zero for no target).
+     */
+    public void setCompressionThroughput(double bytesPerMillisecond) {
+        if (!(bytesPerMillisecond >= 0.0)) {
+            throw new IllegalArgumentException(
+                    "Requires 'bytesPerMillisecond' >= 0.");
+        }
+        this.compressionThroughput = bytesPerMillisecond;
+        this.compressionTimeBudget = 0;
+    }
+
+    /**
+     * Returns the target throughput for encoding.
+     *
+     * @return The target in uncompressed bytes per millisecond (zero for no
+     *     target).
+     */
+    public double getCompressionThroughput() {
+        return this.compressionThroughput;
+    }
+
+    /**
+     * Sets whether to write a palette (indexed-colour) image when the image
+     * has no more than 256 distinct colours.  The colours are counted before
+     * the image data is written, and if there are too many the image is
+     * written in truecolour as usual.  The palette image uses 1, 2, 4 or 8
+     * bits per pixel, depending on the number of colours.  When alpha is
+     * encoded, translucent colours are written to a "tRNS" chunk and all
+     * fully transparent pixels share one palette entry.
+     *
+     * @param indexed  write palette images?
+     */
+    public void setIndexedColor(boolean indexed) {
+        this.indexedColor = indexed;
+    }
+
+    /**
+     * Returns whether a palette image is written when the image has no more
+     * than 256 distinct colours.
+     *
+     * @return boolean false=no, true=yes
+     */
+    public boolean getIndexedColor() {
+        return this.indexedColor;
+    }
+
     /**
      * Increase or decrease the length of a byte array.
      *
@@ -438,50 +850,207 @@ public class PngEncoder {
 
     /**
      * Write a PNG "IHDR" chunk into the pngBytes array.
+     *
+     * @deprecated Use {@link #writeHeader(OutputStream)}.
      */
+    @Deprecated
     protected void writeHeader() {
-
-        int startPos = this.bytePos = writeInt4(13, this.bytePos);
-        this.bytePos = writeBytes(IHDR, this.bytePos);
         this.width = this.image.getWidth(null);
         this.height = this.image.getHeight(null);
-        this.bytePos = writeInt4(this.width, this.bytePos);
-        this.bytePos = writeInt4(this.height, this.bytePos);
-        this.bytePos = writeByte(8, this.bytePos); // bit depth
-        this.bytePos = writeByte((this.encodeAlpha) ? 6 : 2, this.bytePos);
-            // direct model
-        this.bytePos = writeByte(0, this.bytePos); // compression method
-        this.bytePos = writeByte(0, this.bytePos); // filter method
-        this.bytePos = writeByte(0, this.bytePos); // no interlace
-        this.crc.reset();
-        this.crc.update(this.pngBytes, startPos, this.bytePos - startPos);
-        this.crcValue = this.crc.getValue();
-        this.bytePos = writeInt4((int) this.crcValue, this.bytePos);
+        ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+        try {
+            writeHeader(chunk);
+        }
+        catch (IOException e) {
+            // cannot happen with a ByteArrayOutputStream
+        }
+        this.bytePos = writeBytes(chunk.toByteArray(), this.bytePos);
     }
 
     /**
-     * Perform "sub" filtering on the given row.
-     * Uses temporary array leftBytes to store the original values
-     * of the previous pixels.  The array is 16 bytes long, which
-     * will easily hold two-byte samples plus two-byte alpha.
+     * Write a PNG "IHDR" chunk to a stream.
+     *
+     * @param out  the output stream.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    protected void writeHeader(OutputStream out) throws IOException {
+        byte[] data = new byte[13];
+        setInt4(data, 0, this.width);
+        setInt4(data, 4, this.height);
+        data[8] = (byte) this.bitDepth;
+        if (this.palette != null) {
+            data[9] = 3; // indexed colour
+        }
+        else {
+            data[9] = (byte) ((this.encodeAlpha) ? 6 : 2); // direct model
+        }
+        data[10] = 0; // compression method
+        data[11] = 0; // filter method
+        data[12] = 0; // no interlace
+        writeChunk(out, IHDR, data, 0, data.length);
+    }
+
+    /**
+     * Write the PNG "PLTE" chunk, and a "tRNS" chunk if the palette has
+     * translucent colours, when a palette image is being written.
+     *
+     * @param out  the output stream.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    protected void writePalette(OutputStream out) throws IOException {
+        if (this.palette == null) {
+            return;
+        }
+        byte[] data = new byte[this.palette.length * 3];
+        int translucent = 0;
+        for (int i = 0; i < this.palette.length; i++) {
+            int argb = this.palette[i];
+            data[i * 3] = (byte) ((argb >> 16) & 0xff);
+            data[i * 3 + 1] = (byte) ((argb >> 8) & 0xff);
+            data[i * 3 + 2] = (byte) (argb & 0xff);
+            if ((argb >>> 24) != 0xff) {
+                translucent = i + 1;
+            }
+        }
+        writeChunk(out, PLTE, data, 0, data.length);
+        if (translucent > 0) {
+            byte[] alpha = new byte[translucent];
+            for (int i = 0; i < translucent; i++) {
+                alpha[i] = (byte) (this.palette[i] >>> 24);
+            }
+            writeChunk(out, TRNS, alpha, 0, alpha.length);
+        }
+    }
+
+    /**
+     * Counts the colours in the image and, if there are no more than 256,
+     * sets up the palette, bit depth and colour table for a palette image.
+     *
+     * @throws IOException if the pixels could not be read.
+     */
+    private void createPalette() throws IOException {
+        PngColorTable table = this.colorTable;
+        if (table == null) {
+            table = new PngColorTable();
+        }
+        table.clear();
+        this.colorTable = null;
+        PngPixelSource source = PngPixelSource.create(this.image, this.width,
+                this.height);
+        int[] pixels = pixelBuffer();
+        for (int y = 0; y < this.height; y++) {
+            source.getRow(y, pixels);
+            for (int x = 0; x < this.width; x++) {
+                if (!table.add(paletteColor(pixels[x]))) {
+                    return;
+                }
+            }
+        }
+
+        // translucent colours go first, so that the tRNS chunk is short
+        int n = table.size();
+        int[] colors = new int[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            if ((table.getColor(i) >>> 24) != 0xff) {
+                colors[count++] = table.getColor(i);
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if ((table.getColor(i) >>> 24) == 0xff) {
+                colors[count++] = table.getColor(i);
+            }
+        }
+        table.clear();
+        for (int i = 0; i < n; i++) {
+            table.add(colors[i]);
+        }
+
+        this.palette = colors;
+        this.colorTable = table;
+        if (n <= 2) {
+            this.bitDepth = 1;
+        }
+        else if (n <= 4) {
+            this.bitDepth = 2;
+        }
+        else if (n <= 16) {
+            this.bitDepth = 4;
+        }
+        else {
+            this.bitDepth = 8;
+        }
+        this.bytesPerPixel = 1;
+    }
+
+    /**
+     * Returns the palette colour for a pixel: the alpha is dropped when alpha
+     * is not encoded, and all fully transparent pixels map to one colour.
+     *
+     * @param argb  the pixel.
+     *
+     * @return The palette colour.
+     */
+    private int paletteColor(int argb) {
+        if (!this.encodeAlpha) {
+            return argb | 0xff000000;
+        }
+        if ((argb >>> 24) == 0) {
+            return 0;
+        }
+        return argb;
+    }
+
+    /**
+     * Write a complete PNG chunk (length, type, data and CRC) to a stream.
+     *
+     * @param out  the output stream.
+     * @param type  the chunk type tag.
+     * @param data  the chunk data.
+     * @param offset  the start offset in the data.
+     * @param length  the number of data bytes.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    protected void writeChunk(OutputStream out, byte[] type, byte[] data,
+            int offset, int length) throws IOException {
+        PngChunkOutputStream.writeChunk(out, this.crc, type, data, offset,
+                length);
+    }
+
+    /**
+     * Stores a four-byte big-endian integer in an array.
+     *
+     * @param data  the array.
+     * @param offset  the position of the first byte.
+     * @param n  the integer.
+     */
+    static void setInt4(byte[] data, int offset, int n) {
+        data[offset] = (byte) ((n >> 24) & 0xff);
+        data[offset + 1] = (byte) ((n >> 16) & 0xff);
+        data[offset + 2] = (byte) ((n >> 8) & 0xff);
+        data[offset + 3] = (byte) (n & 0xff);
+    }
+
+    /**
+     * Perform "sub" filtering on the given row, in place.
      *
      * @param pixels The array holding the scan lines being built
      * @param startPos Starting position within pixels of bytes to be filtered.
      * @param width Width of a scanline in pixels.
+     *
+     * @deprecated Scan lines are now filtered by {@link #filterRow(byte[],
+     *     byte[], byte[])}.
      */
+    @Deprecated
     protected void filterSub(byte[] pixels, int startPos, int width) {
-        int offset = this.bytesPerPixel;
-        int actualStart = startPos + offset;
-        int nBytes = width * this.bytesPerPixel;
-        int leftInsert = offset;
-        int leftExtract = 0;
+        final int nBytes = width * this.bytesPerPixel;
 
-        for (int i = actualStart; i < startPos + nBytes; i++) {
-            this.leftBytes[leftInsert] =  pixels[i];
-            pixels[i] = (byte) ((pixels[i] - this.leftBytes[leftExtract])
-                     % 256);
-            leftInsert = (leftInsert + 1) % 0x0f;
-            leftExtract = (leftExtract + 1) % 0x0f;
+        for (int i = startPos + nBytes - 1; i >= startPos + this.bytesPerPixel;
+                i--) {
+            pixels[i] = (byte) (pixels[i] - pixels[i - this.bytesPerPixel]);
         }
     }
 
@@ -492,7 +1061,11 @@ public class PngEncoder {
      * @param pixels The array holding the scan lines being built
      * @param startPos Starting position within pixels of bytes to be filtered.
      * @param width Width of a scanline in pixels.
+     *
+     * @deprecated Scan lines are now filtered by {@link #filterRow(byte[],
+     *     byte[], byte[])}.
      */
+    @Deprecated
     protected void filterUp(byte[] pixels, int startPos, int width) {
 
         final int nBytes = width * this.bytesPerPixel;
@@ -506,138 +1079,322 @@ public class PngEncoder {
     }
 
     /**
-     * Write the image data into the pngBytes array.
-     * This will write one or more PNG "IDAT" chunks. In order
-     * to conserve memory, this method grabs as many rows as will
-     * fit into 32K bytes, or the whole image; whichever is less.
+     * Filters one row into a scan line, using the current filter setting
+     * (choosing a filter for the row if the setting is
+     * {@link #FILTER_ADAPTIVE}).
      *
+     * @param row  the unfiltered bytes of the row.
+     * @param prior  the unfiltered bytes of the row above (all zero for the
+     *     first row).
+     * @param scanLine  the array that receives the filter type byte followed
+     *     by the filtered bytes.
+     *
+     * @return The filter type used.
+     */
+    protected int filterRow(byte[] row, byte[] prior, byte[] scanLine) {
+        int length = scanLine.length - 1;
+        int type = this.filter;
+        if (type == FILTER_ADAPTIVE) {
+            // for palette images, no filtering usually works best
+            if (this.palette != null) {
+                type = FILTER_NONE;
+            }
+            else {
+                type = PngFilter.choose(row, prior, length,
+                        this.bytesPerPixel);
+            }
+        }
+        scanLine[0] = (byte) type;
+        PngFilter.filter(type, row, prior, length, this.bytesPerPixel,
+                scanLine, 1);
+        return type;
+    }
+
+    /**
+     * Write the image data into the pngBytes array.
      *
      * @return true if no errors; false if error grabbing pixels
+     *
+     * @deprecated Use {@link #writeImageData(OutputStream)}.
      */
+    @Deprecated
     protected boolean writeImageData() {
-        int rowsLeft = this.height;  // number of rows remaining to write
-        int startRow = 0;       // starting row to process this time through
-        int nRows;              // how many rows to grab at a time
-
-        byte[] scanLines;       // the scan lines to be compressed
-        int scanPos;            // where we are in the scan lines
-        int startPos;           // where this line's actual pixels start (used
-                                // for filtering)
-
-        byte[] compressedLines; // the resultant compressed lines
-        int nCompressed;        // how big is the compressed area?
-
-        //int depth;              // color depth ( handle only 8 or 32 )
-
-        PixelGrabber pg;
-
         this.bytesPerPixel = (this.encodeAlpha) ? 4 : 3;
-
-        Deflater scrunch = new Deflater(this.compressionLevel);
-        ByteArrayOutputStream outBytes = new ByteArrayOutputStream(1024);
-
-        DeflaterOutputStream compBytes = new DeflaterOutputStream(outBytes,
-                scrunch);
+        ByteArrayOutputStream chunks = new ByteArrayOutputStream();
         try {
-            while (rowsLeft > 0) {
-                nRows = Math.min(32767 / (this.width
-                        * (this.bytesPerPixel + 1)), rowsLeft);
-                nRows = Math.max(nRows, 1);
-
-                int[] pixels = new int[this.width * nRows];
+            writeImageData(chunks);
+        }
+        catch (IOException e) {
+            System.err.println(e.toString());
+            return false;
+        }
+        this.bytePos = writeBytes(chunks.toByteArray(), this.bytePos);
+        return true;
+    }
 
-                pg = new PixelGrabber(this.image, 0, startRow,
-                        this.width, nRows, pixels, 0, this.width);
-                try {
-                    pg.grabPixels();
-                }
-                catch (Exception e) {
-                    System.err.println("interrupted waiting for pixels!");
-                    return false;
-                }
-                if ((pg.getStatus() & ImageObserver.ABORT) != 0) {
-                    System.err.println("image fetch aborted or errored");
-                    return false;
-                }
+    /**
+     * Write the image data to a stream as one or more PNG "IDAT" chunks.
+     * In order to conserve memory, the rows are read and compressed one row
+     * at a time (or in parallel bands, if a compression executor has been
+     * set).
+     *
+     * @param out  the output stream.
+     *
+     * @throws IOException if there is an I/O problem or an error grabbing
+     *     the pixels.
+     */
+    protected void writeImageData(OutputStream out) throws IOException {
+        if (this.idatStream == null
+                || this.idatStream.getChunkSize() != this.idatChunkSize) {
+            this.idatStream = new PngChunkOutputStream(out, IDAT,
+                    this.idatChunkSize, this.crc);
+        }
+        PngChunkOutputStream idat = this.idatStream;
+        idat.reset(out);
+        writeCompressedData(idat);
+        idat.finish();
+    }
 
-                /*
-                 * Create a data chunk. scanLines adds "nRows" for
-                 * the filter bytes.
-                 */
-                scanLines = new byte[this.width * nRows * this.bytesPerPixel
-                                     + nRows];
+    /**
+     * Writes the image data, compressed into a zlib stream, to a stream
+     * (normally one that cuts it into chunks).  The rows are compressed one
+     * row at a time, or in parallel bands if a compression executor has been
+     * set.
+     *
+     * @param out  the stream that receives the zlib stream.
+     *
+     * @throws IOException if there is an I/O problem or an error grabbing
+     *     the pixels.
+     */
+    protected void writeCompressedData(OutputStream out) throws IOException {
+        if (this.compressionExecutor != null) {
+            ParallelDeflaterOutputStream compBytes
+                    = new ParallelDeflaterOutputStream(out,
+                    this.compressionExecutor, this.compressionLevel,
+                    this.compressionStrategy, this.compressionBandSize,
+                    2 * Runtime.getRuntime().availableProcessors());
+            writeScanLines(compBytes);
+            compBytes.finish();
+            return;
+        }
 
-                if (this.filter == FILTER_SUB) {
-                    this.leftBytes = new byte[16];
-                }
-                if (this.filter == FILTER_UP) {
-                    this.priorRow = new byte[this.width * this.bytesPerPixel];
-                }
+        if (this.deflater == null) {
+            this.deflater = new Deflater(this.compressionLevel);
+        }
+        if (this.deflaterStream == null) {
+            this.deflaterStream = new ReusableDeflaterOutputStream(out,
+                    this.deflater);
+        }
+        this.deflaterStream.reset(out, this.compressionLevel,
+                this.compressionStrategy);
+        writeScanLines(this.deflaterStream);
+        this.deflaterStream.finish();
+    }
 
-                scanPos = 0;
-                startPos = 1;
-                for (int i = 0; i < this.width * nRows; i++) {
-                    if (i % this.width == 0) {
-                        scanLines[scanPos++] = (byte) this.filter;
-                        startPos = scanPos;
-                    }
-                    scanLines[scanPos++] = (byte) ((pixels[i] >> 16) & 0xff);
-                    scanLines[scanPos++] = (byte) ((pixels[i] >>  8) & 0xff);
-                    scanLines[scanPos++] = (byte) ((pixels[i]) & 0xff);
-                    if (this.encodeAlpha) {
-                        scanLines[scanPos++] = (byte) ((pixels[i] >> 24)
-                                & 0xff);
-                    }
-                    if ((i % this.width == this.width - 1)
-                            && (this.filter != FILTER_NONE)) {
-                        if (this.filter == FILTER_SUB) {
-                            filterSub(scanLines, startPos, this.width);
-                        }
-                        if (this.filter == FILTER_UP) {
-                            filterUp(scanLines, startPos, this.width);
-                        }
-                    }
-                }
+    /**
+     * Writes the filtered scan lines of the image, each preceded by its
+     * filter type byte, to a stream.  The rows of buffered images of type
+     * <code>TYPE_INT_ARGB</code>, <code>TYPE_INT_RGB</code> and
+     * <code>TYPE_3BYTE_BGR</code> are read straight from the raster; other
+     * images are read through a <code>PixelGrabber</code>, in bands of as
+     * many rows as fit into 32K bytes.
+     *
+     * @param out  the stream that receives the (uncompressed) scan lines.
+     *
+     * @throws IOException if there is an I/O problem or an error grabbing
+     *     the pixels.
+     */
+    protected void writeScanLines(OutputStream out) throws IOException {
+        PngPixelSource source = PngPixelSource.create(this.image, this.width,
+                this.height);
+        int[] pixels = pixelBuffer();
+        prepareRowBuffers();
+        byte[] row = this.rowBuffer;
+        byte[] scanLine = this.scanLineBuffer;
+
+        for (int y = 0; y < this.height; y++) {
+            source.getRow(y, pixels);
+            packRow(pixels, row);
+            filterRow(row, this.priorRow, scanLine);
+            out.write(scanLine, 0, scanLine.length);
+            byte[] swap = this.priorRow;
+            this.priorRow = row;
+            row = swap;
+        }
+        this.rowBuffer = row;
+    }
 
-                /*
-                 * Write these lines to the output area
-                 */
-                compBytes.write(scanLines, 0, scanPos);
+    /**
+     * Makes sure the row buffers match the current row length, and clears
+     * the prior row.
+     */
+    private void prepareRowBuffers() {
+        int rowBytes = this.width * this.bytesPerPixel;
+        if (this.palette != null) {
+            rowBytes = (this.width * this.bitDepth + 7) / 8;
+        }
+        if (this.rowBuffer == null || this.rowBuffer.length != rowBytes) {
+            this.rowBuffer = new byte[rowBytes];
+            this.scanLineBuffer = new byte[rowBytes + 1];
+        }
+        if (this.priorRow == null || this.priorRow.length != rowBytes) {
+            this.priorRow = new byte[rowBytes];
+        }
+        else {
+            Arrays.fill(this.priorRow, (byte) 0);
+        }
+    }
 
-                startRow += nRows;
-                rowsLeft -= nRows;
+    /**
+     * Converts a row of pixels to the unfiltered bytes of a row: RGB or RGBA
+     * samples, or packed palette indices.
+     *
+     * @param pixels  the pixels.
+     * @param row  the array that receives the bytes.
+     *
+     * @throws IOException if a pixel is not in the palette.
+     */
+    protected void packRow(int[] pixels, byte[] row) throws IOException {
+        if (this.palette != null) {
+            packIndices(pixels, row);
+            return;
+        }
+        int pos = 0;
+        for (int x = 0; x < this.width; x++) {
+            int pixel = pixels[x];
+            row[pos++] = (byte) ((pixel >> 16) & 0xff);
+            row[pos++] = (byte) ((pixel >>  8) & 0xff);
+            row[pos++] = (byte) ((pixel) & 0xff);
+            if (this.encodeAlpha) {
+                row[pos++] = (byte) ((pixel >> 24) & 0xff);
             }
-            compBytes.close();
+        }
+    }
 
-            /*
-             * Write the compressed bytes
-             */
-            compressedLines = outBytes.toByteArray();
-            nCompressed = compressedLines.length;
+    /**
+     * Chooses the compression level and strategy that meet the time budget
+     * or throughput target, by compressing a few bands of rows spread over
+     * the image.
+     *
+     * @param start  the time (from <code>System.nanoTime()</code>) at which
+     *     encoding started.
+     *
+     * @throws IOException if the pixels could not be read.
+     */
+    private void tuneCompression(long start) throws IOException {
+        prepareRowBuffers();
+        int scanLineBytes = this.scanLineBuffer.length;
+        int bandRows = Math.max(1, Math.min(this.height,
+                SAMPLE_SIZE / SAMPLE_BANDS / scanLineBytes));
+        int bands = Math.max(1, Math.min(SAMPLE_BANDS,
+                this.height / bandRows));
+        int sampleBytes = bands * bandRows * scanLineBytes;
+        if (this.sampleBuffer == null
+                || this.sampleBuffer.length < sampleBytes) {
+            this.sampleBuffer = new byte[sampleBytes];
+        }
 
-            this.crc.reset();
-            this.bytePos = writeInt4(nCompressed, this.bytePos);
-            this.bytePos = writeBytes(IDAT, this.bytePos);
-            this.crc.update(IDAT);
-            this.bytePos = writeBytes(compressedLines, nCompressed,
-                    this.bytePos);
-            this.crc.update(compressedLines, 0, nCompressed);
+        long sampleStart = System.nanoTime();
+        PngPixelSource source = PngPixelSource.create(this.image, this.width,
+                this.height);
+        int[] pixels = pixelBuffer();
+        byte[] row = this.rowBuffer;
+        byte[] prior = this.priorRow;
+        int pos = 0;
+        for (int b = 0; b < bands; b++) {
+            int y0 = Math.min(b * this.height / bands,
+                    this.height - bandRows);
+            if (y0 > 0) {
+                source.getRow(y0 - 1, pixels);
+                packRow(pixels, prior);
+            }
+            else {
+                Arrays.fill(prior, (byte) 0);
+            }
+            for (int y = y0; y < y0 + bandRows; y++) {
+                source.getRow(y, pixels);
+                packRow(pixels, row);
+                filterRow(row, prior, this.scanLineBuffer);
+                System.arraycopy(this.scanLineBuffer, 0, this.sampleBuffer,
+                        pos, scanLineBytes);
+                pos += scanLineBytes;
+                byte[] swap = prior;
+                prior = row;
+                row = swap;
+            }
+        }
+        long now = System.nanoTime();
+        long fixedNanos = (long) ((now - sampleStart)
+                * ((double) this.height / (bands * bandRows)));
+
+        long budgetNanos = 0;
+        if (this.compressionTimeBudget > 0) {
+            budgetNanos = Math.max(1, this.compressionTimeBudget * 1000000L
+                    - (now - start));
+        }
+        if (this.deflater == null) {
+            this.deflater = new Deflater(this.compressionLevel);
+        }
+        int[] choice = PngCompressionTuner.choose(this.sampleBuffer, pos,
+                (long) scanLineBytes * this.height, fixedNanos, budgetNanos,
+                this.compressionThroughput, this.deflater);
+        this.compressionLevel = choice[0];
+        this.compressionStrategy = choice[1];
+        this.rowBuffer = row;
+        this.priorRow = prior;
+    }
 
-            this.crcValue = this.crc.getValue();
-            this.bytePos = writeInt4((int) this.crcValue, this.bytePos);
-            scrunch.finish();
-            scrunch.end();
-            return true;
+    /**
+     * Returns the scratch buffer for one row of pixels, allocating it if the
+     * image width has changed.
+     *
+     * @return The buffer.
+     */
+    private int[] pixelBuffer() {
+        if (this.pixelBuffer == null || this.pixelBuffer.length != this.width) {
+            this.pixelBuffer = new int[this.width];
         }
-        catch (IOException e) {
-            System.err.println(e.toString());
-            return false;
+        return this.pixelBuffer;
+    }
+
+    /**
+     * Converts a row of pixels to palette indices, packed most significant
+     * bits first at the current bit depth.
+     *
+     * @param pixels  the pixels.
+     * @param row  the array that receives the packed indices.
+     *
+     * @throws IOException if a pixel is not in the palette (because the
+     *     image changed while it was being encoded).
+     */
+    private void packIndices(int[] pixels, byte[] row) throws IOException {
+        int pos = 0;
+        int bits = 0;
+        int shift = 8 - this.bitDepth;
+        for (int x = 0; x < this.width; x++) {
+            int index = this.colorTable.indexOf(paletteColor(pixels[x]));
+            if (index < 0) {
+                throw new IOException("Image changed while being encoded.");
+            }
+            bits |= index << shift;
+            shift -= this.bitDepth;
+            if (shift < 0) {
+                row[pos++] = (byte) bits;
+                bits = 0;
+                shift = 8 - this.bitDepth;
+            }
+        }
+        if (shift != 8 - this.bitDepth) {
+            row[pos] = (byte) bits;
         }
     }
 
     /**
      * Write a PNG "IEND" chunk into the pngBytes array.
+     *
+     * @deprecated Use {@link #writeEnd(OutputStream)}.
      */
+    @Deprecated
     protected void writeEnd() {
         this.bytePos = writeInt4(0, this.bytePos);
         this.bytePos = writeBytes(IEND, this.bytePos);
@@ -647,6 +1404,17 @@ public class PngEncoder {
         this.bytePos = writeInt4((int) this.crcValue, this.bytePos);
     }
 
+    /**
+     * Write a PNG "IEND" chunk to a stream.
+     *
+     * @param out  the output stream.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    protected void writeEnd(OutputStream out) throws IOException {
+        writeChunk(out, IEND, new byte[0], 0, 0);
+    }
+
 
     /**
      * Set the DPI for the X axis.
@@ -698,7 +1466,10 @@ public class PngEncoder {
 
     /**
      * Write a PNG "pHYs" chunk into the pngBytes array.
+     *
+     * @deprecated Use {@link #writeResolution(OutputStream)}.
      */
+    @Deprecated
     protected void writeResolution() {
         if (this.xDpi > 0 && this.yDpi > 0) {
 
@@ -714,4 +1485,54 @@ public class PngEncoder {
             this.bytePos = writeInt4((int) this.crcValue, this.bytePos);
         }
     }
+
+    /**
+     * Write a PNG "pHYs" chunk to a stream, if a resolution has been set.
+     *
+     * @param out  the output stream.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    protected void writeResolution(OutputStream out) throws IOException {
+        if (this.xDpi > 0 && this.yDpi > 0) {
+            byte[] data = new byte[9];
+            setInt4(data, 0, this.xDpi);
+            setInt4(data, 4, this.yDpi);
+            data[8] = 1; // unit is the meter.
+            writeChunk(out, PHYS, data, 0, data.length);
+        }
+    }
+
+    /**
+     * A deflater stream that can be directed to a new output stream and
+     * restarted, so that its Deflater and buffer are reused.
+     */
+    private static class ReusableDeflaterOutputStream
+            extends DeflaterOutputStream {
+
+        /**
+         * Creates a new stream.
+         *
+         * @param out  the stream that receives the compressed data.
+         * @param deflater  the deflater.
+         */
+        ReusableDeflaterOutputStream(OutputStream out, Deflater deflater) {
+            super(out, deflater, BUFFER_SIZE);
+        }
+
+        /**
+         * Restarts the deflater and directs the output to another stream.
+         *
+         * @param out  the stream that receives the compressed data.
+         * @param level  the compression level.
+         * @param strategy  the compression strategy.
+         */
+        void reset(OutputStream out, int level, int strategy) {
+            this.out = out;
+            this.def.reset();
+            this.def.setLevel(level);
+            this.def.setStrategy(strategy);
+        }
+    }
+
 }
@@ -0,0 +1,135 @@
+package com.keypoint;
+
+import java.util.LinkedList;
+
+/**
+ * A thread-safe pool of {@link PngEncoder} instances.  Each encoder keeps its
+ * Deflater, CRC and working buffers between uses, so threads that encode
+ * images at a high rate through the pool allocate very little and the
+ * native memory used by the Deflaters stays flat.
+ * <p>
+ * A typical use is:
+ * <pre>
+ * PngEncoder encoder = pool.acquire();
+ * try {
+ *     encoder.setImage(image);
+ *     encoder.setCompressionLevel(6);
+ *     encoder.encode(out);
+ * }
+ * finally {
+ *     pool.release(encoder);
+ * }
+ * </pre>
+ * An encoder must not be used after it has been released.
+ */
+public class PngEncoderPool {
+
+    /** The default maximum number of idle encoders. */
+    public static final int DEFAULT_MAX_IDLE = 16;
+
+    /** The idle encoders. */
+    private final LinkedList idle;
+
+    /** The maximum number of idle encoders kept by the pool. */
+    private final int maxIdle;
+
+    /** Has the pool been closed? */
+    private boolean closed;
+
+    /**
+     * Creates a pool that keeps up to {@link #DEFAULT_MAX_IDLE} idle
+     * encoders.
+     */
+    public PngEncoderPool() {
+        this(DEFAULT_MAX_IDLE);
+    }
+
+    /**
+     * Creates a pool.
+     *
+     * @param maxIdle  the maximum number of idle encoders to keep (normally
+     *     the number of threads that encode images).
+     */
+    public PngEncoderPool(int maxIdle) {
+        if (maxIdle < 0) {
+            throw new IllegalArgumentException("Requires 'maxIdle' >= 0.");
+        }
+        this.idle = new LinkedList();
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Returns the maximum number of idle encoders kept by the pool.
+     *
+     * @return The maximum number of idle encoders.
+     */
+    public int getMaxIdle() {
+        return this.maxIdle;
+    }
+
+    /**
+     * Returns the number of idle encoders currently held by the pool.
+     *
+     * @return The number of idle encoders.
+     */
+    public synchronized int getIdleCount() {
+        return this.idle.size();
+    }
+
+    /**
+     * Takes an encoder from the pool, creating one if none is idle.  The
+     * encoder has its default settings and no image.
+     *
+     * @return An encoder.
+     */
+    public PngEncoder acquire() {
+        synchronized (this) {
+            if (this.closed) {
+                throw new IllegalStateException("The pool is closed.");
+            }
+            if (!this.idle.isEmpty()) {
+                return (PngEncoder) this.idle.removeFirst();
+            }
+        }
+        return new PngEncoder();
+    }
+
+    /**
+     * Returns an encoder to the pool.  The encoder is reset, and is kept for
+     * reuse unless the pool already holds the maximum number of idle
+     * encoders, in which case it is disposed.
+     *
+     * @param encoder  the encoder (<code>null</code> permitted, in which case
+     *     this method does nothing).
+     */
+    public void release(PngEncoder encoder) {
+        if (encoder == null) {
+            return;
+        }
+        encoder.reset();
+        synchronized (this) {
+            if (!this.closed && this.idle.size() < this.maxIdle) {
+                this.idle.addFirst(encoder);
+                return;
+            }
+        }
+        encoder.dispose();
+    }
+
+    /**
+     * Disposes all the idle encoders and closes the pool.  Encoders that are
+     * in use are disposed when they are released.
+     */
+    public void close() {
+        LinkedList encoders;
+        synchronized (this) {
+            this.closed = true;
+            encoders = new LinkedList(this.idle);
+            this.idle.clear();
+        }
+        while (!encoders.isEmpty()) {
+            ((PngEncoder) encoders.removeFirst()).dispose();
+        }
+    }
+
+}
@@ -0,0 +1,556 @@
+package com.keypoint;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jfree.ui.Drawable;
+
+/**
+ * A service that encodes batches of images (or {@link Drawable} objects,
+ * rendered at a given size) to PNG concurrently, with a limit on the memory
+ * used by the jobs in progress.
+ * <p>
+ * Each job is charged an estimate of the memory it needs: 4 bytes per pixel
+ * for a drawable that must be rendered, and 4 bytes per pixel for a result
+ * that is returned as a byte array.  When the jobs that are queued or
+ * running have used up the memory budget, <code>submit()</code> blocks until
+ * enough jobs finish, so a burst of jobs slows the callers down instead of
+ * filling the heap.  A job that needs more than the whole budget is run once
+ * every other job has finished.
+ * <p>
+ * Each job returns a {@link Future}.  Jobs that write to a stream return
+ * <code>null</code> from the future, and other jobs return the PNG bytes.
+ * The encoders are taken from a {@link PngEncoderPool}, and each one is
+ * configured with the service's alpha, filter and compression settings.
+ * <p>
+ * Call {@link #shutdown()} when the service is no longer needed.
+ */
+public class PngEncodingService {
+
+    /** The number of bytes in one unit of the memory budget. */
+    private static final int UNIT = 1024;
+
+    /** The executor that runs the jobs. */
+    private final ExecutorService executor;
+
+    /** Did this service create the executor? */
+    private final boolean ownExecutor;
+
+    /** The encoders. */
+    private final PngEncoderPool pool;
+
+    /** The memory budget, in units. */
+    private final int budget;
+
+    /** The unused part of the memory budget, in units. */
+    private final Semaphore memory;
+
+    /** The number of jobs submitted and not yet finished. */
+    private final AtomicInteger pending;
+
+    /** Has the service been shut down? */
+    private volatile boolean shutdown;
+
+    /** Encode the alpha channel? */
+    private volatile boolean encodeAlpha;
+
+    /** The filter. */
+    private volatile int filter;
+
+    /** The compression level. */
+    private volatile int compressionLevel;
+
+    /**
+     * Creates a service with its own pool of threads.
+     *
+     * @param threads  the number of threads.
+     * @param memoryBudget  the memory budget in bytes.
+     */
+    public PngEncodingService(int threads, long memoryBudget) {
+        this(Executors.newFixedThreadPool(threads), true, threads,
+                memoryBudget);
+    }
+
+    /**
+     * Creates a service that runs its jobs on an executor.  The executor is
+     * not shut down by {@link #shutdown()}.
+     *
+     * @param executor  the executor (<code>null</code> not permitted).
+     * @param memoryBudget  the memory budget in bytes.
+     */
+    public PngEncodingService(ExecutorService executor, long memoryBudget) {
+        this(executor, false, PngEncoderPool.DEFAULT_MAX_IDLE, memoryBudget);
+    }
+
+    /**
+     * Creates a service.
+     *
+     * @param executor  the executor.
+     * @param ownExecutor  did the service create the executor?
+     * @param maxIdle  the maximum number of idle encoders to keep.
+     * @param memoryBudget  the memory budget in bytes.
+     */
+    private PngEncodingService(ExecutorService executor, boolean ownExecutor,
+            int maxIdle, long memoryBudget) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Null 'executor' argument.");
+        }
+        if (memoryBudget < UNIT) {
+            throw new IllegalArgumentException(
+                    "Requires 'memoryBudget' >= " + UNIT + ".");
+        }
+        this.executor = executor;
+        this.ownExecutor = ownExecutor;
+        this.pool = new PngEncoderPool(maxIdle);
+        this.budget = (int) Math.min(Integer.MAX_VALUE, memoryBudget / UNIT);
+        this.memory = new Semaphore(this.budget, true);
+        this.pending = new AtomicInteger();
+        this.filter = PngEncoder.FILTER_NONE;
+    }
+
+    /**
+     * Sets whether the alpha channel is encoded.
+     *
+     * @param encodeAlpha  encode the alpha channel?
+     */
+    public void setEncodeAlpha(boolean encodeAlpha) {
+        this.encodeAlpha = encodeAlpha;
+    }
+
+    /**
+     * Returns whether the alpha channel is encoded.
+     *
+     * @return boolean false=no, true=yes
+     */
+    public boolean getEncodeAlpha() {
+        return this.encodeAlpha;
+    }
+
+    /**
+     * Sets the filter (see {@link PngEncoder#setFilter(int)}).  An unknown
+     * filter is treated as {@link PngEncoder#FILTER_NONE}.
+     *
+     * @param filter  the filter.
+     */
+    public void setFilter(int filter) {
+        this.filter = PngEncoder.FILTER_NONE;
+        if ((filter >= PngEncoder.FILTER_NONE
+                && filter <= PngEncoder.FILTER_LAST)
+                || filter == PngEncoder.FILTER_ADAPTIVE) {
+            this.filter = filter;
+        }
+    }
+
+    /**
+     * Returns the filter.
+     *
+     * @return The filter.
+     */
+    public int getFilter() {
+        return this.filter;
+    }
+
+    /**
+     * Sets the compression level.  Values outside the range 0 to 9 are
+     * ignored.
+     *
+     * @param level  the level (1 = best speed, 9 = best compression, 0 = no
+     *     compression).
+     */
+    public void setCompressionLevel(int level) {
+        if (level >= 0 && level <= 9) {
+            this.compressionLevel = level;
+        }
+    }
+
+    /**
+     * Returns the compression level.
+     *
+     * @return The level.
+     */
+    public int getCompressionLevel() {
+        return this.compressionLevel;
+    }
+
+    /**
+     * Returns the part of the memory budget not used by the jobs in
+     * progress.
+     *
+     * @return The number of bytes.
+     */
+    public long getAvailableMemory() {
+        return (long) this.memory.availablePermits() * UNIT;
+    }
+
+    /**
+     * Submits an image, to be encoded into a byte array.
+     *
+     * @param image  the image (<code>null</code> not permitted).
+     *
+     * @return A future that gives the PNG bytes.
+     *
+     * @throws InterruptedException if interrupted while waiting for memory.
+     */
+    public Future submit(Image image) throws InterruptedException {
+        return submit(image, null, 0, 0, null);
+    }
+
+    /**
+     * Submits an image, to be encoded to a stream.  The stream is flushed
+     * but not closed.
+     *
+     * @param image  the image (<code>null</code> not permitted).
+     * @param out  the output stream (<code>null</code> not permitted).
+     *
+     * @return A future that gives <code>null</code>.
+     *
+     * @throws InterruptedException if interrupted while waiting for memory.
+     */
+    public Future submit(Image image, OutputStream out)
+            throws InterruptedException {
+        if (out == null) {
+            throw new IllegalArgumentException("Null 'out' argument.");
+        }
+        return submit(image, null, 0, 0, out);
+    }
+
+    /**
+     * Submits a drawable, to be rendered and encoded into a byte array.
+     *
+     * @param drawable  the drawable (<code>null</code> not permitted).
+     * @param width  the image width.
+     * @param height  the image height.
+     *
+     * @return A future that gives the PNG bytes.
+     *
+     * @throws InterruptedException if interrupted while waiting for memory.
+     */
+    public Future submit(Drawable drawable, int width, int height)
+            throws InterruptedException {
+        if (drawable == null) {
+            throw new IllegalArgumentException("Null 'drawable' argument.");
+        }
+        return submit(null, drawable, width, height, null);
+    }
+
+    /**
+     * Submits a drawable, to be rendered and encoded to a stream.  The
+     * stream is flushed but not closed.
+     *
+     * @param drawable  the drawable (<code>null</code> not permitted).
+     * @param width  the image width.
+     * @param height  the image height.
+     * @param out  the output stream (<code>null</code> not permitted).
+     *
+     * @return A future that gives <code>null</code>.
+     *
+     * @throws InterruptedException if interrupted while waiting for memory.
+     */
+    public Future submit(Drawable drawable, int width, int height,
+            OutputStream out) throws InterruptedException {
+        if (drawable == null) {
+            throw new IllegalArgumentException("Null 'drawable' argument.");
+        }
+        if (out == null) {
+            throw new IllegalArgumentException("Null 'out' argument.");
+        }
+        return submit(null, drawable, width, height, out);
+    }
+
+    /**
+     * Waits for memory and submits a job.
+     *
+     * @param image  the image (<code>null</code> for a drawable).
+     * @param drawable  the drawable (<code>null</code> for an image).
+     * @param width  the width of the drawable.
+     * @param height  the height of the drawable.
+     * @param out  the output stream (<code>null</code> for a byte array).
+     *
+     * @return The future.
+     *
+     * @throws InterruptedException if interrupted while waiting for memory.
+     */
+    private Future submit(Image image, Drawable drawable, int width,
+            int height, OutputStream out) throws InterruptedException {
+        long pixels;
+        long cost = 0;
+        if (drawable != null) {
+            if (width <= 0 || height <= 0) {
+                throw new IllegalArgumentException(
+                        "Requires 'width' and 'height' > 0.");
+            }
+            pixels = (long) width * height;
+            cost += 4 * pixels;
+        }
+        else {
+            if (image == null) {
+                throw new IllegalArgumentException("Null 'image' argument.");
+            }
+            pixels = (long) Math.max(0, image.getWidth(null))
+                    * Math.max(0, image.getHeight(null));
+        }
+        if (out == null) {
+            cost += 4 * pixels;
+        }
+        int units = (int) Math.max(1, Math.min(this.budget,
+                (cost + UNIT - 1) / UNIT));
+        this.pending.incrementAndGet();
+        boolean submitted = false;
+        try {
+            if (this.shutdown) {
+                throw new IllegalStateException("The service is shut down.");
+            }
+            this.memory.acquire(units);
+            try {
+                EncodeFuture result = new EncodeFuture(new EncodeTask(image,
+                        drawable, width, height, out, this.encodeAlpha,
+                        this.filter, this.compressionLevel, units));
+                this.executor.execute(result);
+                submitted = true;
+                return result;
+            }
+            finally {
+                if (!submitted) {
+                    this.memory.release(units);
+                }
+            }
+        }
+        finally {
+            if (!submitted) {
+                jobDone();
+            }
+        }
+    }
+
+    /**
+     * Records that a job has finished, and closes the encoder pool if it was
+     * the last job after the service was shut down.
+     */
+    private void jobDone() {
+        if (this.pending.decrementAndGet() == 0 && this.shutdown) {
+            this.pool.close();
+        }
+    }
+
+    /**
+     * Stops accepting jobs.  The jobs already submitted are completed, and
+     * then the pooled encoders are disposed.  If the service created its own
+     * threads, they are shut down.
+     * <p>
+     * A job that never starts gives back its memory when its future is
+     * cancelled, so jobs that an executor drops without running (in
+     * <code>shutdownNow()</code>, for example) should be cancelled.
+     */
+    public void shutdown() {
+        this.shutdown = true;
+        if (this.ownExecutor) {
+            this.executor.shutdown();
+        }
+        if (this.pending.get() == 0) {
+            this.pool.close();
+        }
+    }
+
+    /**
+     * Waits for the jobs to finish after {@link #shutdown()}, if the service
+     * created its own threads.
+     *
+     * @param timeout  the maximum time to wait.
+     * @param unit  the unit of the timeout.
+     *
+     * @return <code>true</code> if the jobs finished, <code>false</code> if
+     *     the timeout elapsed first.
+     *
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit)
+            throws InterruptedException {
+        if (this.ownExecutor) {
+            return this.executor.awaitTermination(timeout, unit);
+        }
+        return true;
+    }
+
+    /**
+     * The future for a job.  A job that has started gives back its memory
+     * when it returns; this future gives it back for a job that is
+     * cancelled before it starts.  A job cancelled while it runs keeps its
+     * memory until the encoder returns, since the encoder does not stop
+     * when it is interrupted.
+     */
+    private class EncodeFuture extends FutureTask {
+
+        /** The job. */
+        private final EncodeTask task;
+
+        /**
+         * Creates a new future.
+         *
+         * @param task  the job.
+         */
+        EncodeFuture(EncodeTask task) {
+            super(task);
+            this.task = task;
+        }
+
+        /**
+         * Gives back the job's memory if it never started (called once,
+         * when the future is done).
+         */
+        protected void done() {
+            if (this.task.claimed.compareAndSet(false, true)) {
+                this.task.release();
+            }
+        }
+    }
+
+    /**
+     * A job that renders (if necessary) and encodes one image.
+     */
+    private class EncodeTask implements Callable {
+
+        /** The image (<code>null</code> for a drawable). */
+        private final Image image;
+
+        /** The drawable (<code>null</code> for an image). */
+        private final Drawable drawable;
+
+        /** The width of the drawable. */
+        private final int width;
+
+        /** The height of the drawable. */
+        private final int height;
+
+        /** The output stream (<code>null</code> for a byte array). */
+        private final OutputStream out;
+
+        /** Encode the alpha channel? */
+        private final boolean encodeAlpha;
+
+        /** The filter. */
+        private final int filter;
+
+        /** The compression level. */
+        private final int compressionLevel;
+
+        /** The memory charged to the job, in units. */
+        private final int units;
+
+        /**
+         * Set by whichever comes first: the job starting, or its future
+         * finishing without it.  That one gives back the memory.
+         */
+        final AtomicBoolean claimed = new AtomicBoolean();
+
+        /**
+         * Creates a new job.
+         *
+         * @param image  the image (<code>null</code> for a drawable).
+         * @param drawable  the drawable (<code>null</code> for an image).
+         * @param width  the width of the drawable.
+         * @param height  the height of the drawable.
+         * @param out  the output stream (<code>null</code> for a byte array).
+         * @param encodeAlpha  encode the alpha channel?
+         * @param filter  the filter.
+         * @param compressionLevel  the compression level.
+         * @param units  the memory charged to the job.
+         */
+        EncodeTask(Image image, Drawable drawable, int width, int height,
+                OutputStream out, boolean encodeAlpha, int filter,
+                int compressionLevel, int units) {
+            this.image = image;
+            this.drawable = drawable;
+            this.width = width;
+            this.height = height;
+            this.out = out;
+            this.encodeAlpha = encodeAlpha;
+            this.filter = filter;
+            this.compressionLevel = compressionLevel;
+            this.units = units;
+        }
+
+        /**
+         * Gives back the job's memory.
+         */
+        void release() {
+            PngEncodingService.this.memory.release(this.units);
+            jobDone();
+        }
+
+        /**
+         * Renders and encodes the image.
+         *
+         * @return The PNG bytes, or <code>null</code> if they were written to
+         *     a stream.
+         *
+         * @throws Exception if the image could not be encoded.
+         */
+        public Object call() throws Exception {
+            if (!this.claimed.compareAndSet(false, true)) {
+                return null;  // cancelled, and the memory is given back
+            }
+            try {
+                return encode();
+            }
+            finally {
+                release();
+            }
+        }
+
+        /**
+         * Renders and encodes the image.
+         *
+         * @return The PNG bytes, or <code>null</code> if they were written to
+         *     a stream.
+         *
+         * @throws Exception if the image could not be encoded.
+         */
+        private Object encode() throws Exception {
+            Image img = this.image;
+            if (this.drawable != null) {
+                BufferedImage bi = new BufferedImage(this.width,
+                        this.height, BufferedImage.TYPE_INT_ARGB);
+                Graphics2D g2 = bi.createGraphics();
+                try {
+                    this.drawable.draw(g2, new Rectangle2D.Double(0, 0,
+                            this.width, this.height));
+                }
+                finally {
+                    g2.dispose();
+                }
+                img = bi;
+            }
+            PngEncoder encoder = PngEncodingService.this.pool.acquire();
+            try {
+                encoder.setImage(img);
+                encoder.setEncodeAlpha(this.encodeAlpha);
+                encoder.setFilter(this.filter);
+                encoder.setCompressionLevel(this.compressionLevel);
+                if (this.out != null) {
+                    encoder.encode(this.out);
+                    return null;
+                }
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                encoder.encode(bytes);
+                return bytes.toByteArray();
+            }
+            finally {
+                PngEncodingService.this.pool.release(encoder);
+            }
+        }
+    }
+
+}
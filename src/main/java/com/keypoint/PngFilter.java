@@ -0,0 +1,151 @@
+package com.keypoint;
+
+/**
+ * The PNG scan line filters (None, Sub, Up, Average and Paeth), plus the
+ * "minimum sum of absolute differences" heuristic for choosing a filter for
+ * each row adaptively.
+ * <p>
+ * Each method reads the raw (unfiltered) bytes of the current row and of the
+ * row above it, so the caller must keep an unfiltered copy of the previous
+ * row (all zeroes for the first row of an image).
+ * <p>
+ * This class is used by {@link PngEncoder} and is not intended to be used
+ * directly.
+ */
+final class PngFilter {
+
+    /**
+     * Private constructor to prevent object creation.
+     */
+    private PngFilter() {
+    }
+
+    /**
+     * Filters a row.
+     *
+     * @param type  the filter type (<code>PngEncoder.FILTER_NONE</code> to
+     *     <code>PngEncoder.FILTER_PAETH</code>).
+     * @param row  the raw bytes of the row.
+     * @param prior  the raw bytes of the row above.
+     * @param length  the number of bytes in the row.
+     * @param bpp  the number of bytes per complete pixel (at least 1).
+     * @param out  the array that receives the filtered bytes.
+     * @param offset  the position in <code>out</code> of the first filtered
+     *     byte.
+     */
+    static void filter(int type, byte[] row, byte[] prior, int length,
+            int bpp, byte[] out, int offset) {
+        int i = 0;
+        switch (type) {
+            case PngEncoder.FILTER_SUB:
+                for (; i < bpp && i < length; i++) {
+                    out[offset + i] = row[i];
+                }
+                for (; i < length; i++) {
+                    out[offset + i] = (byte) (row[i] - row[i - bpp]);
+                }
+                break;
+            case PngEncoder.FILTER_UP:
+                for (; i < length; i++) {
+                    out[offset + i] = (byte) (row[i] - prior[i]);
+                }
+                break;
+            case PngEncoder.FILTER_AVERAGE:
+                for (; i < bpp && i < length; i++) {
+                    out[offset + i] = (byte) (row[i]
+                            - ((prior[i] & 0xff) >> 1));
+                }
+                for (; i < length; i++) {
+                    out[offset + i] = (byte) (row[i]
+                            - (((row[i - bpp] & 0xff)
+                            + (prior[i] & 0xff)) >> 1));
+                }
+                break;
+            case PngEncoder.FILTER_PAETH:
+                for (; i < bpp && i < length; i++) {
+                    out[offset + i] = (byte) (row[i] - prior[i]);
+                }
+                for (; i < length; i++) {
+                    out[offset + i] = (byte) (row[i]
+                            - paeth(row[i - bpp] & 0xff, prior[i] & 0xff,
+                            prior[i - bpp] & 0xff));
+                }
+                break;
+            default:
+                System.arraycopy(row, 0, out, offset, length);
+        }
+    }
+
+    /**
+     * Chooses the filter that gives the smallest sum of absolute values of
+     * the filtered bytes (each taken as a signed byte).  All five sums are
+     * computed in a single pass over the row, so the cost per row is fixed.
+     *
+     * @param row  the raw bytes of the row.
+     * @param prior  the raw bytes of the row above.
+     * @param length  the number of bytes in the row.
+     * @param bpp  the number of bytes per complete pixel (at least 1).
+     *
+     * @return The filter type.
+     */
+    static int choose(byte[] row, byte[] prior, int length, int bpp) {
+        int sumNone = 0;
+        int sumSub = 0;
+        int sumUp = 0;
+        int sumAverage = 0;
+        int sumPaeth = 0;
+        for (int i = 0; i < length; i++) {
+            int x = row[i] & 0xff;
+            int a = (i >= bpp) ? row[i - bpp] & 0xff : 0;
+            int b = prior[i] & 0xff;
+            int c = (i >= bpp) ? prior[i - bpp] & 0xff : 0;
+            sumNone += Math.abs((byte) x);
+            sumSub += Math.abs((byte) (x - a));
+            sumUp += Math.abs((byte) (x - b));
+            sumAverage += Math.abs((byte) (x - ((a + b) >> 1)));
+            sumPaeth += Math.abs((byte) (x - paeth(a, b, c)));
+        }
+        int best = PngEncoder.FILTER_NONE;
+        int bestSum = sumNone;
+        if (sumSub < bestSum) {
+            best = PngEncoder.FILTER_SUB;
+            bestSum = sumSub;
+        }
+        if (sumUp < bestSum) {
+            best = PngEncoder.FILTER_UP;
+            bestSum = sumUp;
+        }
+        if (sumAverage < bestSum) {
+            best = PngEncoder.FILTER_AVERAGE;
+            bestSum = sumAverage;
+        }
+        if (sumPaeth < bestSum) {
+            best = PngEncoder.FILTER_PAETH;
+        }
+        return best;
+    }
+
+    /**
+     * The Paeth predictor.
+     *
+     * @param a  the byte to the left.
+     * @param b  the byte above.
+     * @param c  the byte above and to the left.
+     *
+     * @return Whichever of a, b and c is closest to a + b - c.
+     */
+    static int paeth(int a, int b, int c) {
+        int p = a + b - c;
+        int pa = Math.abs(p - a);
+        int pb = Math.abs(p - b);
+        int pc = Math.abs(p - c);
+        if (pa <= pb && pa <= pc) {
+            return a;
+        }
+        if (pb <= pc) {
+            return b;
+        }
+        return c;
+    }
+
+}
@@ -0,0 +1,208 @@
+package com.keypoint;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.ImageObserver;
+import java.awt.image.PixelGrabber;
+import java.awt.image.WritableRaster;
+import java.io.IOException;
+
+/**
+ * Supplies the pixels of an image one row at a time, as non-premultiplied
+ * ARGB values (the default RGB colour model).
+ * <p>
+ * Buffered images of type <code>TYPE_INT_ARGB</code>,
+ * <code>TYPE_INT_RGB</code> and <code>TYPE_3BYTE_BGR</code> are read straight
+ * from their rasters into the caller's row buffer.  Any other image is read
+ * through a {@link PixelGrabber}, a band of rows at a time.
+ * <p>
+ * This class is used by {@link PngEncoder} and is not intended to be used
+ * directly.
+ */
+abstract class PngPixelSource {
+
+    /** The image width. */
+    protected final int width;
+
+    /** The image height. */
+    protected final int height;
+
+    /**
+     * Creates a new source.
+     *
+     * @param width  the image width.
+     * @param height  the image height.
+     */
+    protected PngPixelSource(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Creates a pixel source for an image, using the fastest route that
+     * supports the image.
+     *
+     * @param image  the image.
+     * @param width  the image width.
+     * @param height  the image height.
+     *
+     * @return The pixel source.
+     */
+    static PngPixelSource create(Image image, int width, int height) {
+        if (image instanceof BufferedImage) {
+            BufferedImage bi = (BufferedImage) image;
+            switch (bi.getType()) {
+                case BufferedImage.TYPE_INT_ARGB:
+                case BufferedImage.TYPE_INT_RGB:
+                case BufferedImage.TYPE_3BYTE_BGR:
+                    return new RasterSource(bi, width, height);
+                default:
+                    break;
+            }
+        }
+        return new GrabberSource(image, width, height);
+    }
+
+    /**
+     * Reads one row of pixels.  Rows are normally read in order from top to
+     * bottom, which is the fastest order for every kind of source.
+     *
+     * @param y  the row.
+     * @param argb  the array that receives <code>width</code> pixels.
+     *
+     * @throws IOException if the pixels could not be read.
+     */
+    abstract void getRow(int y, int[] argb) throws IOException;
+
+    /**
+     * Reads rows straight from the raster of a buffered image.
+     */
+    private static class RasterSource extends PngPixelSource {
+
+        /** The raster. */
+        private final WritableRaster raster;
+
+        /** The image type. */
+        private final int type;
+
+        /** A row buffer for images that store pixels as bytes. */
+        private byte[] bytes;
+
+        /**
+         * Creates a new source.
+         *
+         * @param image  the image.
+         * @param width  the image width.
+         * @param height  the image height.
+         */
+        RasterSource(BufferedImage image, int width, int height) {
+            super(width, height);
+            this.raster = image.getRaster();
+            this.type = image.getType();
+            if (this.type == BufferedImage.TYPE_3BYTE_BGR) {
+                this.bytes = new byte[width * 3];
+            }
+        }
+
+        /**
+         * Reads one row of pixels.
+         *
+         * @param y  the row.
+         * @param argb  the array that receives the pixels.
+         */
+        void getRow(int y, int[] argb) {
+            if (this.type == BufferedImage.TYPE_3BYTE_BGR) {
+                // the data elements come back in band order, that is R, G, B
+                this.raster.getDataElements(0, y, this.width, 1, this.bytes);
+                for (int x = 0, i = 0; x < this.width; x++, i += 3) {
+                    argb[x] = 0xff000000 | ((this.bytes[i] & 0xff) << 16)
+                            | ((this.bytes[i + 1] & 0xff) << 8)
+                            | (this.bytes[i + 2] & 0xff);
+                }
+            }
+            else {
+                this.raster.getDataElements(0, y, this.width, 1, argb);
+                if (this.type == BufferedImage.TYPE_INT_RGB) {
+                    for (int x = 0; x < this.width; x++) {
+                        argb[x] |= 0xff000000;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads rows through a {@link PixelGrabber}, a band of rows at a time.
+     */
+    private static class GrabberSource extends PngPixelSource {
+
+        /** The image. */
+        private final Image image;
+
+        /** The number of rows in each band. */
+        private final int bandRows;
+
+        /** The pixels of the current band. */
+        private final int[] band;
+
+        /** The first row of the current band (-1 before the first grab). */
+        private int bandStart;
+
+        /**
+         * Creates a new source.
+         *
+         * @param image  the image.
+         * @param width  the image width.
+         * @param height  the image height.
+         */
+        GrabberSource(Image image, int width, int height) {
+            super(width, height);
+            this.image = image;
+            this.bandRows = Math.max(1, Math.min(32767 / (width * 4), height));
+            this.band = new int[width * this.bandRows];
+            this.bandStart = -1;
+        }
+
+        /**
+         * Reads one row of pixels, grabbing a new band of rows if necessary.
+         *
+         * @param y  the row.
+         * @param argb  the array that receives the pixels.
+         *
+         * @throws IOException if the pixels could not be grabbed.
+         */
+        void getRow(int y, int[] argb) throws IOException {
+            if (this.bandStart < 0 || y < this.bandStart
+                    || y >= this.bandStart + this.bandRows) {
+                grab(y);
+            }
+            System.arraycopy(this.band, (y - this.bandStart) * this.width,
+                    argb, 0, this.width);
+        }
+
+        /**
+         * Grabs the band of rows starting at a given row.
+         *
+         * @param startRow  the first row.
+         *
+         * @throws IOException if the pixels could not be grabbed.
+         */
+        private void grab(int startRow) throws IOException {
+            int nRows = Math.min(this.bandRows, this.height - startRow);
+            PixelGrabber pg = new PixelGrabber(this.image, 0, startRow,
+                    this.width, nRows, this.band, 0, this.width);
+            try {
+                pg.grabPixels();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted waiting for pixels.");
+            }
+            if ((pg.getStatus() & ImageObserver.ABORT) != 0) {
+                throw new IOException("Image fetch aborted or errored.");
+            }
+            this.bandStart = startRow;
+        }
+    }
+
+}
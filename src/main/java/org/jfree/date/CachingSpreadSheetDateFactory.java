@@ -0,0 +1,116 @@
+package org.jfree.date;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+
+/**
+ * A {@link SpreadSheetDateFactory} that returns one shared instance for each
+ * date in a window of years, so that date arithmetic in that window does not
+ * allocate and collections that hold the same dates share them.  Dates
+ * outside the window are created as usual.
+ * <p>
+ * The instances are kept in an array indexed by serial number and are
+ * created the first time they are needed.  Two threads may create the same
+ * date at once; that is harmless, since {@link SpreadsheetDate} is
+ * immutable.
+ * <p>
+ * To use it for all dates:
+ * <pre>
+ * DayDateFactory.setInstance(new CachingSpreadSheetDateFactory(1990, 2100));
+ * </pre>
+ */
+public class CachingSpreadSheetDateFactory extends SpreadSheetDateFactory {
+
+    /** The first year in the window. */
+    private final int firstYear;
+
+    /** The last year in the window. */
+    private final int lastYear;
+
+    /** The serial number of the first date in the window. */
+    private final int firstSerial;
+
+    /** The shared dates, by serial number minus firstSerial. */
+    private final DayDate[] dates;
+
+    /**
+     * Creates a factory that shares the dates from 1 January of
+     * <code>firstYear</code> to 31 December of <code>lastYear</code>.
+     *
+     * @param firstYear  the first year (1900 to 9999).
+     * @param lastYear  the last year (firstYear to 9999).
+     */
+    public CachingSpreadSheetDateFactory(int firstYear, int lastYear) {
+        if (firstYear < SpreadsheetDate.MINIMUM_YEAR_SUPPORTED
+                || lastYear > SpreadsheetDate.MAXIMUM_YEAR_SUPPORTED
+                || firstYear > lastYear) {
+            throw new IllegalArgumentException(
+                    "Requires 1900 <= firstYear <= lastYear <= 9999.");
+        }
+        this.firstYear = firstYear;
+        this.lastYear = lastYear;
+        this.firstSerial = SpreadsheetDate.calcSerial(1, 1, firstYear);
+        int lastSerial = SpreadsheetDate.calcSerial(31, 12, lastYear);
+        this.dates = new DayDate[lastSerial - this.firstSerial + 1];
+    }
+
+    /**
+     * Returns the first year in the window.
+     *
+     * @return The year.
+     */
+    public int getFirstYear() {
+        return this.firstYear;
+    }
+
+    /**
+     * Returns the last year in the window.
+     *
+     * @return The year.
+     */
+    public int getLastYear() {
+        return this.lastYear;
+    }
+
+    @Override
+    protected DayDate _makeDate(int ordinal) {
+        int index = ordinal - this.firstSerial;
+        if (index < 0 || index >= this.dates.length) {
+            return super._makeDate(ordinal);
+        }
+        DayDate date = this.dates[index];
+        if (date == null) {
+            date = super._makeDate(ordinal);
+            this.dates[index] = date;
+        }
+        return date;
+    }
+
+    @Override
+    protected DayDate _makeDate(int day, Month month, int year) {
+        return _makeDate(day, month.toInt(), year);
+    }
+
+    @Override
+    protected DayDate _makeDate(int day, int month, int year) {
+        if (year >= this.firstYear && year <= this.lastYear
+                && month >= MonthConstants.JANUARY
+                && month <= MonthConstants.DECEMBER && day >= 1
+                && day <= DateUtil.lastDayOfMonth(Month.monthFromInt(month),
+                        year)) {
+            return _makeDate(SpreadsheetDate.calcSerial(day, month, year));
+        }
+        // out of the window, or invalid (the superclass throws)
+        return super._makeDate(day, month, year);
+    }
+
+    @Override
+    protected DayDate _makeDate(Date date) {
+        GregorianCalendar calendar = new GregorianCalendar();
+        calendar.setTime(date);
+        return _makeDate(calendar.get(Calendar.DATE),
+                calendar.get(Calendar.MONTH) + 1, calendar.get(Calendar.YEAR));
+    }
+
+}
@@ -0,0 +1,391 @@
+package org.jfree.date;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A growable array of dates, stored as the serial numbers used by
+ * {@link SpreadsheetDate} (1-Jan-1900 = 2) in an <code>int[]</code>, which
+ * takes a fraction of the memory of a list of {@link DayDate} objects.  The
+ * bulk operations work directly on the serial numbers, in simple loops.
+ * <p>
+ * {@link #get(int)} returns the date from {@link DayDateFactory}, so with a
+ * {@link CachingSpreadSheetDateFactory} installed it does not allocate.
+ */
+public class DayDateArray implements Serializable {
+
+    /** For serialization. */
+    private static final long serialVersionUID = 2461287403546839027L;
+
+    /** The smallest serial number (1-Jan-1900). */
+    private static final int MINIMUM_SERIAL = 2;
+
+    /** The largest serial number (31-Dec-9999). */
+    private static final int MAXIMUM_SERIAL = 2958465;
+
+    /** The serial numbers. */
+    private int[] serials;
+
+    /** The number of dates. */
+    private int size;
+
+    /**
+     * Creates a new empty array.
+     */
+    public DayDateArray() {
+        this(16);
+    }
+
+    /**
+     * Creates a new empty array.
+     *
+     * @param initialCapacity  the initial capacity (zero or more).
+     */
+    public DayDateArray(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException(
+                    "Requires initialCapacity >= 0.");
+        }
+        this.serials = new int[initialCapacity];
+    }
+
+    /**
+     * Creates a new array holding some dates.
+     *
+     * @param ordinalDays  the serial numbers of the dates (in the range 2 to
+     *     2958465, <code>null</code> not permitted).  The array is copied.
+     */
+    public DayDateArray(int[] ordinalDays) {
+        if (ordinalDays == null) {
+            throw new IllegalArgumentException(
+                    "Null 'ordinalDays' argument.");
+        }
+        for (int i = 0; i < ordinalDays.length; i++) {
+            checkSerial(ordinalDays[i]);
+        }
+        this.serials = ordinalDays.clone();
+        this.size = ordinalDays.length;
+    }
+
+    /**
+     * Creates a new array that takes ownership of some (valid) serial
+     * numbers.
+     *
+     * @param serials  the serial numbers.
+     * @param size  the number of serial numbers used.
+     */
+    private DayDateArray(int[] serials, int size) {
+        this.serials = serials;
+        this.size = size;
+    }
+
+    /**
+     * Throws an exception if a serial number is out of range.
+     *
+     * @param serial  the serial number.
+     */
+    private static void checkSerial(long serial) {
+        if (serial < MINIMUM_SERIAL || serial > MAXIMUM_SERIAL) {
+            throw new IllegalArgumentException(
+                    "Serial must be in range 2 to 2958465.");
+        }
+    }
+
+    /**
+     * Throws an exception if an index is out of range.
+     *
+     * @param index  the index.
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index
+                    + ", Size: " + this.size);
+        }
+    }
+
+    /**
+     * Returns the number of dates in the array.
+     *
+     * @return The size.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Adds a date to the end of the array.
+     *
+     * @param date  the date (<code>null</code> not permitted).
+     */
+    public void add(DayDate date) {
+        if (date == null) {
+            throw new IllegalArgumentException("Null 'date' argument.");
+        }
+        addOrdinalDay(date.getOrdinalDay());
+    }
+
+    /**
+     * Adds a date to the end of the array.
+     *
+     * @param ordinalDay  the serial number of the date (in the range 2 to
+     *     2958465).
+     */
+    public void addOrdinalDay(int ordinalDay) {
+        checkSerial(ordinalDay);
+        if (this.size == this.serials.length) {
+            int[] larger = new int[Math.max(16, 2 * this.size)];
+            System.arraycopy(this.serials, 0, larger, 0, this.size);
+            this.serials = larger;
+        }
+        this.serials[this.size++] = ordinalDay;
+    }
+
+    /**
+     * Returns a date.
+     *
+     * @param index  the index.
+     *
+     * @return The date.
+     */
+    public DayDate get(int index) {
+        checkIndex(index);
+        return DayDateFactory.makeDate(this.serials[index]);
+    }
+
+    /**
+     * Returns the serial number of a date.
+     *
+     * @param index  the index.
+     *
+     * @return The serial number.
+     */
+    public int getOrdinalDay(int index) {
+        checkIndex(index);
+        return this.serials[index];
+    }
+
+    /**
+     * Replaces a date.
+     *
+     * @param index  the index.
+     * @param date  the date (<code>null</code> not permitted).
+     */
+    public void set(int index, DayDate date) {
+        if (date == null) {
+            throw new IllegalArgumentException("Null 'date' argument.");
+        }
+        checkIndex(index);
+        this.serials[index] = date.getOrdinalDay();
+    }
+
+    /**
+     * Returns the day of the week of a date, without creating the date.
+     *
+     * @param index  the index.
+     *
+     * @return The day of the week.
+     */
+    public Day getDayOfWeek(int index) {
+        checkIndex(index);
+        return Day.dayFromInt(dayOfWeek(this.serials[index]));
+    }
+
+    /**
+     * Returns the days of the week of all the dates, as the
+     * {@link Day#toInt()} values (<code>Calendar.SUNDAY</code> to
+     * <code>Calendar.SATURDAY</code>).
+     *
+     * @return The days of the week.
+     */
+    public int[] getDaysOfWeek() {
+        int[] result = new int[this.size];
+        for (int i = 0; i < this.size; i++) {
+            result[i] = dayOfWeek(this.serials[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the day of the week for a serial number, as a
+     * {@link Day#toInt()} value.  Serial number 0 is a Saturday.
+     *
+     * @param serial  the serial number.
+     *
+     * @return The day of the week.
+     */
+    static int dayOfWeek(int serial) {
+        return (serial + 6) % 7 + 1;
+    }
+
+    /**
+     * Returns a new array with each date moved by a number of days.
+     *
+     * @param days  the number of days (negative to move back).
+     *
+     * @return The new array.
+     */
+    public DayDateArray plusDays(int days) {
+        if (this.size > 0) {
+            int min = Integer.MAX_VALUE;
+            int max = Integer.MIN_VALUE;
+            for (int i = 0; i < this.size; i++) {
+                min = Math.min(min, this.serials[i]);
+                max = Math.max(max, this.serials[i]);
+            }
+            checkSerial((long) min + days);
+            checkSerial((long) max + days);
+        }
+        int[] result = new int[this.size];
+        for (int i = 0; i < this.size; i++) {
+            result[i] = this.serials[i] + days;
+        }
+        return new DayDateArray(result, this.size);
+    }
+
+    /**
+     * Returns a new array with each date moved by a number of months.  A
+     * day that is past the end of the new month becomes the last day of
+     * that month (so 31-Jan-2024 plus one month is 29-Feb-2024).
+     *
+     * @param months  the number of months (negative to move back).
+     *
+     * @return The new array.
+     */
+    public DayDateArray plusMonths(int months) {
+        int[] result = new int[this.size];
+        for (int i = 0; i < this.size; i++) {
+            int ymd = SpreadsheetDate.toYearMonthDay(this.serials[i]);
+            long monthOrdinal = 12L * (ymd / 10000) + ymd / 100 % 100 - 1
+                    + months;
+            if (monthOrdinal < 12L * SpreadsheetDate.MINIMUM_YEAR_SUPPORTED
+                    || monthOrdinal >= 12L
+                    * (SpreadsheetDate.MAXIMUM_YEAR_SUPPORTED + 1)) {
+                throw new IllegalArgumentException(
+                        "Result out of range 1900 to 9999.");
+            }
+            int year = (int) (monthOrdinal / 12);
+            int month = (int) (monthOrdinal % 12) + 1;
+            int lastDay = Month.LAST_DAY_OF_MONTH[month];
+            if (month == MonthConstants.FEBRUARY && DateUtil.isLeapYear(year)) {
+                lastDay++;
+            }
+            result[i] = SpreadsheetDate.calcSerial(
+                    Math.min(ymd % 100, lastDay), month, year);
+        }
+        return new DayDateArray(result, this.size);
+    }
+
+    /**
+     * Returns a new array with the dates that are in the range between two
+     * dates (in either order), in the same order as in this array.  The
+     * range follows the same rules as
+     * {@link DayDate#isInRange(DayDate, DayDate, DateInterval)}.
+     *
+     * @param d1  one end of the range (<code>null</code> not permitted).
+     * @param d2  the other end of the range (<code>null</code> not
+     *     permitted).
+     * @param interval  which ends are included (<code>null</code> not
+     *     permitted).
+     *
+     * @return The new array.
+     */
+    public DayDateArray filter(DayDate d1, DayDate d2,
+            DateInterval interval) {
+        if (d1 == null) {
+            throw new IllegalArgumentException("Null 'd1' argument.");
+        }
+        if (d2 == null) {
+            throw new IllegalArgumentException("Null 'd2' argument.");
+        }
+        if (interval == null) {
+            throw new IllegalArgumentException("Null 'interval' argument.");
+        }
+        int left = Math.min(d1.getOrdinalDay(), d2.getOrdinalDay());
+        int right = Math.max(d1.getOrdinalDay(), d2.getOrdinalDay());
+        int[] result = new int[this.size];
+        int count = 0;
+        for (int i = 0; i < this.size; i++) {
+            int serial = this.serials[i];
+            if (interval.isIn(serial, left, right)) {
+                result[count++] = serial;
+            }
+        }
+        return new DayDateArray(result, count);
+    }
+
+    /**
+     * Sorts the dates into ascending order.
+     */
+    public void sort() {
+        Arrays.sort(this.serials, 0, this.size);
+    }
+
+    /**
+     * Searches for a date with a binary search.  The array must be sorted
+     * (see {@link #sort()}).
+     *
+     * @param date  the date (<code>null</code> not permitted).
+     *
+     * @return The index of the date, if it is in the array, otherwise
+     *     <code>(-(insertion point) - 1)</code>, as for
+     *     {@link Arrays#binarySearch(int[], int)}.
+     */
+    public int binarySearch(DayDate date) {
+        if (date == null) {
+            throw new IllegalArgumentException("Null 'date' argument.");
+        }
+        return Arrays.binarySearch(this.serials, 0, this.size,
+                date.getOrdinalDay());
+    }
+
+    /**
+     * Returns the serial numbers of the dates.
+     *
+     * @return A new array.
+     */
+    public int[] toOrdinalDays() {
+        int[] result = new int[this.size];
+        System.arraycopy(this.serials, 0, result, 0, this.size);
+        return result;
+    }
+
+    /**
+     * Tests this array for equality with an arbitrary object.
+     *
+     * @param obj  the object (<code>null</code> permitted).
+     *
+     * @return A boolean.
+     */
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof DayDateArray)) {
+            return false;
+        }
+        DayDateArray that = (DayDateArray) obj;
+        if (this.size != that.size) {
+            return false;
+        }
+        for (int i = 0; i < this.size; i++) {
+            if (this.serials[i] != that.serials[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a hash code for this array.
+     *
+     * @return A hash code.
+     */
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < this.size; i++) {
+            result = 31 * result + this.serials[i];
+        }
+        return result;
+    }
+
+}
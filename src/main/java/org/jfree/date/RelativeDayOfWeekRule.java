@@ -38,6 +38,7 @@
  * --------------------------
  * 26-Oct-2001 : Changed package to com.jrefinery.date.*;
  * 03-Oct-2002 : Fixed errors reported by Checkstyle (DG);
+ * 18-Oct-2026 : Fixed getDate(), which started from a null result;
  *
  */
 
@@ -187,13 +188,13 @@ public class RelativeDayOfWeekRule extends AnnualDateRule {
         if (base != null) {
             switch (this.relative) {
                 case PRECEDING:
-                    result = result.getPreviousDayOfWeek(Day.dayFromInt(this.dayOfWeek));
+                    result = base.getPreviousDayOfWeek(Day.dayFromInt(this.dayOfWeek));
                     break;
                 case NEAREST:
-                    result = result.getNearestDayOfWeek(Day.dayFromInt(this.dayOfWeek));
+                    result = base.getNearestDayOfWeek(Day.dayFromInt(this.dayOfWeek));
                     break;
                 case FOLLOWING:
-                    result = result.getFollowingDayOfWeek(Day.dayFromInt(this.dayOfWeek));
+                    result = base.getFollowingDayOfWeek(Day.dayFromInt(this.dayOfWeek));
                     break;
                 default:
                     break;
@@ -50,6 +50,10 @@
  * 05-Sep-2003 : Implemented Comparable (DG);
  * 21-Oct-2003 : Added hashCode() method (DG);
  * 29-Aug-2006 : Removed redundant description attribute (DG);
+ * 18-Oct-2026 : Find the day, month and year for a serial number in
+ *               constant time;
+ * 18-Oct-2026 : Made calcSerial() static, for CachingSpreadSheetDateFactory;
+ * 18-Oct-2026 : Added toYearMonthDay() for DayDateArray;
  *
  */
 
@@ -99,15 +103,18 @@ public class SpreadsheetDate extends DayDate {
 
     private static final int LATEST_ORDINAL_DATE = 2958465; // 31/12/9999
 
+    /** The number of days in 400 years of the Gregorian calendar. */
+    private static final int DAYS_PER_ERA = 146097;
+
+    /** The number of days from 1-Mar-0000 to serial number 0 (30/12/1899). */
+    private static final int DAYS_FROM_0000_03_01_TO_SERIAL_0 = 693899;
+
     static final int MINIMUM_YEAR_SUPPORTED = 1900;
 
     static final int MAXIMUM_YEAR_SUPPORTED = 9999;
 
     private static final int[] AGGREGATE_DAYS_TO_END_OF_PRECEDING_MONTH =
             {0, 0, 31, 59, 90, 120, 151, 181, 212, 243, 273, 304, 334, 365};
-    private static final int[]
-            LEAP_YEAR_AGGREGATE_DAYS_TO_END_OF_PRECEDING_MONTH =
-            {0, 0, 31, 60, 91, 121, 152, 182, 213, 244, 274, 305, 335, 366};
 
     public static String getDescription() {
         return description;
@@ -176,49 +183,10 @@ public class SpreadsheetDate extends DayDate {
         }
 
         // the day-month-year needs to be synchronised with the serial number...
-      // get the year from the serial date
-      final int days = this.serial - EARLIEST_DATE_ORDINAL;
-      // overestimated because we ignored leap days
-      final int overestimatedYYYY = 1900 + (days / 365);
-      final int leaps = leapYearCount(overestimatedYYYY);
-      final int nonleapdays = days - leaps;
-      // underestimated because we overestimated years
-      int underestimatedYYYY = 1900 + (nonleapdays / 365);
-
-      if (underestimatedYYYY == overestimatedYYYY) {
-          this.year = underestimatedYYYY;
-      }
-      else {
-          int ss1 = calcSerial(1, 1, underestimatedYYYY);
-          while (ss1 <= this.serial) {
-              underestimatedYYYY = underestimatedYYYY + 1;
-              ss1 = calcSerial(1, 1, underestimatedYYYY);
-          }
-          this.year = underestimatedYYYY - 1;
-      }
-
-      final int ss2 = calcSerial(1, 1, this.year);
-
-      int[] daysToEndOfPrecedingMonth 
-          = AGGREGATE_DAYS_TO_END_OF_PRECEDING_MONTH;
-
-      if (DateUtil.isLeapYear(this.year)) {
-          daysToEndOfPrecedingMonth 
-              = LEAP_YEAR_AGGREGATE_DAYS_TO_END_OF_PRECEDING_MONTH;
-      }
-
-      // get the month from the serial date
-      int mm = 1;
-      int sss = ss2 + daysToEndOfPrecedingMonth[mm] - 1;
-      while (sss < this.serial) {
-          mm = mm + 1;
-          sss = ss2 + daysToEndOfPrecedingMonth[mm] - 1;
-      }
-      this.month = mm - 1;
-
-      // what's left is d(+1);
-      this.day = this.serial - ss2 
-                 - daysToEndOfPrecedingMonth[this.month] + 1;
+        final int ymd = toYearMonthDay(serial);
+        this.year = ymd / 10000;
+        this.month = ymd / 100 % 100;
+        this.day = ymd % 100;
 
     }
 
@@ -339,7 +307,7 @@ public class SpreadsheetDate extends DayDate {
      *
      * @return the serial number from the day, month and year.
      */
-    private int calcSerial(final int d, final int m, final int y) {
+    static int calcSerial(final int d, final int m, final int y) {
         final int yy = ((y - 1900) * 365) + leapYearCount(y - 1);
         int mm = AGGREGATE_DAYS_TO_END_OF_PRECEDING_MONTH[m];
         if (m > MonthConstants.FEBRUARY) {
@@ -351,6 +319,33 @@ public class SpreadsheetDate extends DayDate {
         return yy + mm + dd + 1;
     }
 
+    /**
+     * Returns the day, month and year for a serial number, packed into one
+     * int as <code>year * 10000 + month * 100 + day</code>.  This uses the
+     * days-to-civil algorithm from Howard Hinnant's "chrono-Compatible
+     * Low-Level Date Algorithms": the year is counted from 1 March, so that
+     * the leap day is the last day of the year, and the date comes from a
+     * fixed sequence of divisions, all of positive numbers.
+     *
+     * @param serial  the serial number (in the range 2 to 2958465).
+     *
+     * @return The packed date.
+     */
+    static int toYearMonthDay(final int serial) {
+        final int z = serial + DAYS_FROM_0000_03_01_TO_SERIAL_0;
+        final int era = z / DAYS_PER_ERA;
+        final int doe = z - era * DAYS_PER_ERA;              // [0, 146096]
+        final int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096)
+                / 365;                                       // [0, 399]
+        final int doy = doe - (365 * yoe + yoe / 4 - yoe / 100); // [0, 365]
+        final int mp = (5 * doy + 2) / 153;                  // [0, 11]
+        final int janOrFeb = mp / 10;                        // [0, 1]
+        final int day = doy - (153 * mp + 2) / 5 + 1;
+        final int month = mp + 3 - 12 * janOrFeb;
+        final int year = era * 400 + yoe + janOrFeb;
+        return year * 10000 + month * 100 + day;
+    }
+
     /**
      * Returns the number of leap years from 1900 to the specified year
      * INCLUSIVE.
@@ -0,0 +1,101 @@
+/* ========================================================================
+ * JCommon : a free general purpose class library for the Java(tm) platform
+ * ========================================================================
+ *
+ * (C) Copyright 2000-2026, by Object Refinery Limited and Contributors.
+ *
+ * Project Info:  http://www.jfree.org/jcommon/index.html
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ * [Java is a trademark or registered trademark of Sun Microsystems, Inc.
+ * in the United States and other countries.]
+ *
+ * -----------------------------
+ * AdvanceTableTextMeasurer.java
+ * -----------------------------
+ * (C) Copyright 2026, by Object Refinery Limited and Contributors.
+ *
+ * Original Author:  -;
+ * Contributor(s):   -;
+ *
+ * Changes
+ * -------
+ * 18-Oct-2026 : Version 1;
+ *
+ */
+
+package org.jfree.text;
+
+/**
+ * A {@link TextMeasurer} that adds up character advances from a
+ * {@link FontAdvanceTable}, so it needs no graphics device and does not use
+ * the font machinery.  For text in the table's font and rendering settings,
+ * the widths are the same as those from a {@link G2TextMeasurer}, except for
+ * text that needs a full layout (complex scripts, combining marks and
+ * kerning), which is measured as the sum of its characters.
+ * <p>
+ * Instances of this class hold no state other than the table, so they can be
+ * shared by any number of threads.
+ */
+public class AdvanceTableTextMeasurer implements TextMeasurer {
+
+    /** The advance table. */
+    private final FontAdvanceTable table;
+
+    /**
+     * Creates a new text measurer.
+     *
+     * @param table  the advance table (<code>null</code> not permitted).
+     */
+    public AdvanceTableTextMeasurer(FontAdvanceTable table) {
+        if (table == null) {
+            throw new IllegalArgumentException("Null 'table' argument.");
+        }
+        this.table = table;
+    }
+
+    /**
+     * Returns the advance table.
+     *
+     * @return The advance table (never <code>null</code>).
+     */
+    public FontAdvanceTable getTable() {
+        return this.table;
+    }
+
+    /**
+     * Returns the string width.
+     *
+     * @param text  the text.
+     * @param start  the index of the first character to measure.
+     * @param end  the index after the last character to measure.
+     *
+     * @return The string width.
+     */
+    public float getStringWidth(String text, int start, int end) {
+        double width = 0.0;
+        for (int i = start; i < end; i++) {
+            width += this.table.getAdvance(text.charAt(i));
+        }
+        if (!TextUtilities.getUseFontMetricsGetStringBounds()) {
+            // FontMetrics.stringWidth() rounds the total advance
+            return (int) (0.5 + width);
+        }
+        return (float) width;
+    }
+
+}
@@ -0,0 +1,352 @@
+/* ========================================================================
+ * JCommon : a free general purpose class library for the Java(tm) platform
+ * ========================================================================
+ *
+ * (C) Copyright 2000-2026, by Object Refinery Limited and Contributors.
+ *
+ * Project Info:  http://www.jfree.org/jcommon/index.html
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ * [Java is a trademark or registered trademark of Sun Microsystems, Inc.
+ * in the United States and other countries.]
+ *
+ * ------------------------
+ * CachingTextMeasurer.java
+ * ------------------------
+ * (C) Copyright 2026, by Object Refinery Limited and Contributors.
+ *
+ * Original Author:  -;
+ * Contributor(s):   -;
+ *
+ * Changes
+ * -------
+ * 18-Oct-2026 : Version 1;
+ *
+ */
+
+package org.jfree.text;
+
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.font.FontRenderContext;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A {@link TextMeasurer} that measures text with the current font of a
+ * {@link Graphics2D}, like {@link G2TextMeasurer}, but adds up character
+ * advances from cached tables instead of asking the font for the bounds of
+ * every substring.
+ * <p>
+ * The advance tables are kept for each (font, font render context) pair and
+ * are shared by all instances of this class.  The widths of the substrings of
+ * the most recently measured string come from a table of running totals, so
+ * the repeated measurements made while breaking a string into lines cost
+ * one subtraction each.
+ * <p>
+ * Text that needs a full layout (characters from complex scripts, combining
+ * marks, surrogate pairs, or fonts with kerning, ligatures or other layout
+ * attributes) is measured by a {@link G2TextMeasurer} instead.
+ * <p>
+ * Like the graphics device it wraps, an instance of this class should only
+ * be used by one thread at a time.
+ */
+public class CachingTextMeasurer implements TextMeasurer {
+
+    /** The maximum number of advance tables kept. */
+    private static final int MAX_TABLES = 64;
+
+    /** The shared advance tables, by (font, font render context). */
+    private static final Map TABLES = new LinkedHashMap(16, 0.75f, true) {
+        protected boolean removeEldestEntry(Map.Entry eldest) {
+            return size() > MAX_TABLES;
+        }
+    };
+
+    /** The graphics device. */
+    private Graphics2D g2;
+
+    /** The measurer used for text that needs a full layout. */
+    private G2TextMeasurer fallback;
+
+    /** The font of the most recently used table. */
+    private Font lastFont;
+
+    /** The font render context of the most recently used table. */
+    private FontRenderContext lastFrc;
+
+    /** The most recently used table. */
+    private AdvanceTable lastTable;
+
+    /** The most recently measured string. */
+    private String lastText;
+
+    /** The table used for the running totals. */
+    private AdvanceTable lastTextTable;
+
+    /**
+     * The running totals of the advances for the most recently measured
+     * string (<code>null</code> if the string needs a full layout).
+     */
+    private double[] totals;
+
+    /**
+     * Creates a new text measurer.
+     *
+     * @param g2  the graphics device (<code>null</code> not permitted).
+     */
+    public CachingTextMeasurer(Graphics2D g2) {
+        if (g2 == null) {
+            throw new IllegalArgumentException("Null 'g2' argument.");
+        }
+        this.g2 = g2;
+        this.fallback = new G2TextMeasurer(g2);
+    }
+
+    /**
+     * Returns the string width.
+     *
+     * @param text  the text.
+     * @param start  the index of the first character to measure.
+     * @param end  the index after the last character to measure.
+     *
+     * @return The string width.
+     */
+    public float getStringWidth(String text, int start, int end) {
+        Font font = this.g2.getFont();
+        if (font.hasLayoutAttributes()) {
+            return this.fallback.getStringWidth(text, start, end);
+        }
+        AdvanceTable table = getTable(font, this.g2.getFontRenderContext());
+        if (text != this.lastText || table != this.lastTextTable) {
+            this.totals = runningTotals(text, table);
+            this.lastText = text;
+            this.lastTextTable = table;
+        }
+        if (this.totals == null) {
+            return this.fallback.getStringWidth(text, start, end);
+        }
+        double width = this.totals[end] - this.totals[start];
+        if (!TextUtilities.getUseFontMetricsGetStringBounds()) {
+            // FontMetrics.stringWidth() rounds the total advance
+            return (int) (0.5 + width);
+        }
+        return (float) width;
+    }
+
+    /**
+     * Returns the advance table for a font, creating it if necessary.
+     *
+     * @param font  the font.
+     * @param frc  the font render context.
+     *
+     * @return The table.
+     */
+    private AdvanceTable getTable(Font font, FontRenderContext frc) {
+        if (this.lastTable != null && font.equals(this.lastFont)
+                && frc.equals(this.lastFrc)) {
+            return this.lastTable;
+        }
+        AdvanceTable table = getSharedTable(font, frc);
+        this.lastFont = font;
+        this.lastFrc = frc;
+        this.lastTable = table;
+        return table;
+    }
+
+    /**
+     * Returns the shared advance table for a font, creating it if necessary.
+     *
+     * @param font  the font.
+     * @param frc  the font render context.
+     *
+     * @return The table.
+     */
+    static AdvanceTable getSharedTable(Font font, FontRenderContext frc) {
+        Object key = new TableKey(font, frc);
+        synchronized (TABLES) {
+            AdvanceTable table = (AdvanceTable) TABLES.get(key);
+            if (table == null) {
+                table = new AdvanceTable(font, frc);
+                TABLES.put(key, table);
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Returns the running totals of the character advances in a string.
+     *
+     * @param text  the string.
+     * @param table  the advance table.
+     *
+     * @return The totals (element i is the width of the first i characters),
+     *     or <code>null</code> if the string needs a full layout.
+     */
+    private static double[] runningTotals(String text, AdvanceTable table) {
+        int length = text.length();
+        double[] result = new double[length + 1];
+        double total = 0.0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (requiresLayout(c)) {
+                return null;
+            }
+            total += table.getAdvance(c);
+            result[i + 1] = total;
+        }
+        return result;
+    }
+
+    /**
+     * Returns <code>true</code> if a character may change the width of the
+     * text around it (because it belongs to a complex script, combines with
+     * another character or is half of a surrogate pair), so that the text
+     * must be measured as a whole.
+     *
+     * @param c  the character.
+     *
+     * @return A boolean.
+     */
+    static boolean requiresLayout(char c) {
+        if (c < 0x0300) {
+            return false;
+        }
+        return (c <= 0x036f)                  // combining diacritical marks
+                || (c >= 0x0590 && c <= 0x1fff) // Hebrew to Mongolian etc.
+                || (c >= 0x200c && c <= 0x200f) // joiners and direction marks
+                || (c >= 0x202a && c <= 0x202e) // bidi embedding
+                || (c >= 0x20d0 && c <= 0x20ff) // combining marks for symbols
+                || (c >= 0xd800 && c <= 0xdfff) // surrogates
+                || (c >= 0xfb1d && c <= 0xfdff) // presentation forms A
+                || (c >= 0xfe00 && c <= 0xfe0f) // variation selectors
+                || (c >= 0xfe20 && c <= 0xfe2f) // combining half marks
+                || (c >= 0xfe70 && c <= 0xfeff); // presentation forms B
+    }
+
+    /**
+     * The key for an advance table.
+     */
+    private static class TableKey {
+
+        /** The font. */
+        private final Font font;
+
+        /** The font render context. */
+        private final FontRenderContext frc;
+
+        /**
+         * Creates a new key.
+         *
+         * @param font  the font.
+         * @param frc  the font render context.
+         */
+        TableKey(Font font, FontRenderContext frc) {
+            this.font = font;
+            this.frc = frc;
+        }
+
+        /**
+         * Tests this key for equality with an arbitrary object.
+         *
+         * @param obj  the object (<code>null</code> permitted).
+         *
+         * @return A boolean.
+         */
+        public boolean equals(Object obj) {
+            if (!(obj instanceof TableKey)) {
+                return false;
+            }
+            TableKey that = (TableKey) obj;
+            return this.font.equals(that.font) && this.frc.equals(that.frc);
+        }
+
+        /**
+         * Returns a hash code for this key.
+         *
+         * @return A hash code.
+         */
+        public int hashCode() {
+            return 37 * this.font.hashCode() + this.frc.hashCode();
+        }
+    }
+
+    /**
+     * The advances of the characters of one font in one font render
+     * context.  The advances are measured a page of 256 characters at a time,
+     * the first time a character in the page is needed.
+     */
+    static class AdvanceTable {
+
+        /** The font. */
+        private final Font font;
+
+        /** The font render context. */
+        private final FontRenderContext frc;
+
+        /** The pages of advances (a page is <code>null</code> until used). */
+        private final AtomicReferenceArray pages;
+
+        /**
+         * Creates a new table.
+         *
+         * @param font  the font.
+         * @param frc  the font render context.
+         */
+        AdvanceTable(Font font, FontRenderContext frc) {
+            this.font = font;
+            this.frc = frc;
+            this.pages = new AtomicReferenceArray(256);
+        }
+
+        /**
+         * Returns the advance of a character.
+         *
+         * @param c  the character.
+         *
+         * @return The advance.
+         */
+        float getAdvance(char c) {
+            return getPage(c >> 8)[c & 0xff];
+        }
+
+        /**
+         * Returns a page of advances, measuring it if necessary.  Two threads
+         * may measure the same page at once, but both get the same values.
+         *
+         * @param index  the page index.
+         *
+         * @return The page.
+         */
+        private float[] getPage(int index) {
+            float[] page = (float[]) this.pages.get(index);
+            if (page == null) {
+                page = new float[256];
+                char[] chars = new char[1];
+                for (int i = 0; i < 256; i++) {
+                    chars[0] = (char) ((index << 8) | i);
+                    page[i] = (float) this.font.getStringBounds(chars, 0, 1,
+                            this.frc).getWidth();
+                }
+                this.pages.set(index, page);
+            }
+            return page;
+        }
+    }
+
+}
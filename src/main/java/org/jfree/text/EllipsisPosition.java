@@ -0,0 +1,140 @@
+/* ========================================================================
+ * JCommon : a free general purpose class library for the Java(tm) platform
+ * ========================================================================
+ *
+ * (C) Copyright 2000-2026, by Object Refinery Limited and Contributors.
+ *
+ * Project Info:  http://www.jfree.org/jcommon/index.html
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ * [Java is a trademark or registered trademark of Sun Microsystems, Inc.
+ * in the United States and other countries.]
+ *
+ * ---------------------
+ * EllipsisPosition.java
+ * ---------------------
+ * (C) Copyright 2026, by Object Refinery Limited and Contributors.
+ *
+ * Original Author:  -;
+ * Contributor(s):   -;
+ *
+ * Changes
+ * -------
+ * 18-Oct-2026 : Version 1;
+ *
+ */
+
+package org.jfree.text;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+
+/**
+ * An enumeration of the places where text can be cut to fit, and replaced by
+ * an ellipsis (<code>START</code>, <code>MIDDLE</code> and
+ * <code>END</code>).
+ *
+ * @see TextUtilities#createTextBlock(String, java.awt.Font, java.awt.Paint,
+ *     float, int, TextMeasurer, EllipsisPosition)
+ */
+public final class EllipsisPosition implements Serializable {
+
+    /** For serialization. */
+    private static final long serialVersionUID = 4281704624513349718L;
+
+    /** The start of the text is cut ("...brown fox"). */
+    public static final EllipsisPosition START
+        = new EllipsisPosition("EllipsisPosition.START");
+
+    /** The middle of the text is cut ("The qu...n fox"). */
+    public static final EllipsisPosition MIDDLE
+        = new EllipsisPosition("EllipsisPosition.MIDDLE");
+
+    /** The end of the text is cut ("The quick..."). */
+    public static final EllipsisPosition END
+        = new EllipsisPosition("EllipsisPosition.END");
+
+    /** The name. */
+    private String name;
+
+    /**
+     * Private constructor.
+     *
+     * @param name  the name.
+     */
+    private EllipsisPosition(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns a string representing the object.
+     *
+     * @return The string.
+     */
+    public String toString() {
+        return this.name;
+    }
+
+    /**
+     * Returns <code>true</code> if this object is equal to the specified
+     * object, and <code>false</code> otherwise.
+     *
+     * @param obj  the object (<code>null</code> permitted).
+     *
+     * @return A boolean.
+     */
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof EllipsisPosition)) {
+            return false;
+        }
+        EllipsisPosition that = (EllipsisPosition) obj;
+        return this.name.equals(that.name);
+    }
+
+    /**
+     * Returns a hash code value for the object.
+     *
+     * @return The hashcode
+     */
+    public int hashCode() {
+        return this.name.hashCode();
+    }
+
+    /**
+     * Ensures that serialization returns the unique instances.
+     *
+     * @return The object.
+     *
+     * @throws ObjectStreamException if there is a problem.
+     */
+    private Object readResolve() throws ObjectStreamException {
+        if (this.equals(EllipsisPosition.START)) {
+            return EllipsisPosition.START;
+        }
+        else if (this.equals(EllipsisPosition.MIDDLE)) {
+            return EllipsisPosition.MIDDLE;
+        }
+        else if (this.equals(EllipsisPosition.END)) {
+            return EllipsisPosition.END;
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,473 @@
+/* ========================================================================
+ * JCommon : a free general purpose class library for the Java(tm) platform
+ * ========================================================================
+ *
+ * (C) Copyright 2000-2026, by Object Refinery Limited and Contributors.
+ *
+ * Project Info:  http://www.jfree.org/jcommon/index.html
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ * [Java is a trademark or registered trademark of Sun Microsystems, Inc.
+ * in the United States and other countries.]
+ *
+ * ---------------------
+ * FontAdvanceTable.java
+ * ---------------------
+ * (C) Copyright 2026, by Object Refinery Limited and Contributors.
+ *
+ * Original Author:  -;
+ * Contributor(s):   -;
+ *
+ * Changes
+ * -------
+ * 18-Oct-2026 : Version 1;
+ *
+ */
+
+package org.jfree.text;
+
+import java.awt.Font;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.AffineTransform;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The character advances of one font, measured ahead of time (with
+ * {@link #create(Font, FontRenderContext, char[][])}) and stored in a compact
+ * binary form, so that text can be measured later without a graphics device
+ * or any font machinery.  See {@link AdvanceTableTextMeasurer}.
+ * <p>
+ * A table covers one or more ranges of characters; characters outside the
+ * ranges get the advance of the font's missing glyph.  Tables are immutable
+ * and can be shared by any number of threads.
+ * <p>
+ * Tables can be generated from the command line:
+ * <pre>
+ * java org.jfree.text.FontAdvanceTable name style size file [antialias]
+ *     [fractionalmetrics]
+ * </pre>
+ * which covers the Basic Latin, Latin-1, Latin Extended-A and General
+ * Punctuation blocks.
+ */
+public final class FontAdvanceTable {
+
+    /** The magic number at the start of a table ("JFAT"). */
+    private static final int MAGIC = 0x4a464154;
+
+    /** The format version. */
+    private static final int VERSION = 1;
+
+    /** The character ranges used by the command line generator. */
+    private static final char[][] DEFAULT_RANGES = new char[][] {
+        {(char) 0x20, (char) 0x7e}, {(char) 0xa0, (char) 0x17f},
+        {(char) 0x2000, (char) 0x206f}};
+
+    /** The font name. */
+    private final String fontName;
+
+    /** The font style. */
+    private final int fontStyle;
+
+    /** The font size. */
+    private final float fontSize;
+
+    /** Whether the advances were measured with anti-aliasing. */
+    private final boolean antiAliased;
+
+    /** Whether the advances were measured with fractional metrics. */
+    private final boolean fractionalMetrics;
+
+    /** The first character of each range, in ascending order. */
+    private final char[] firsts;
+
+    /** The last character of each range. */
+    private final char[] lasts;
+
+    /** The index of the first advance of each range. */
+    private final int[] offsets;
+
+    /** The advance for characters outside the ranges. */
+    private final float defaultAdvance;
+
+    /** The advances (possibly a view of a memory-mapped file). */
+    private final FloatBuffer advances;
+
+    /**
+     * Creates a new table.
+     *
+     * @param fontName  the font name.
+     * @param fontStyle  the font style.
+     * @param fontSize  the font size.
+     * @param antiAliased  anti-aliasing flag.
+     * @param fractionalMetrics  fractional metrics flag.
+     * @param firsts  the first character of each range.
+     * @param lasts  the last character of each range.
+     * @param defaultAdvance  the advance for other characters.
+     * @param advances  the advances.
+     */
+    private FontAdvanceTable(String fontName, int fontStyle, float fontSize,
+            boolean antiAliased, boolean fractionalMetrics, char[] firsts,
+            char[] lasts, float defaultAdvance, FloatBuffer advances) {
+        this.fontName = fontName;
+        this.fontStyle = fontStyle;
+        this.fontSize = fontSize;
+        this.antiAliased = antiAliased;
+        this.fractionalMetrics = fractionalMetrics;
+        this.firsts = firsts;
+        this.lasts = lasts;
+        this.offsets = new int[firsts.length];
+        int offset = 0;
+        for (int i = 0; i < firsts.length; i++) {
+            if (lasts[i] < firsts[i]
+                    || (i > 0 && firsts[i] <= lasts[i - 1])) {
+                throw new IllegalArgumentException(
+                        "Ranges must be ascending and must not overlap.");
+            }
+            this.offsets[i] = offset;
+            offset += lasts[i] - firsts[i] + 1;
+        }
+        if (advances.remaining() != offset) {
+            throw new IllegalArgumentException("Expected " + offset
+                    + " advances but found " + advances.remaining() + ".");
+        }
+        this.defaultAdvance = defaultAdvance;
+        this.advances = advances;
+    }
+
+    /**
+     * Measures the advances of a font.  This is the only method of this class
+     * that uses the font machinery.
+     *
+     * @param font  the font (<code>null</code> not permitted).
+     * @param frc  the font render context (<code>null</code> not permitted).
+     * @param ranges  the character ranges, each an array containing the first
+     *     and last characters, in ascending order (<code>null</code> not
+     *     permitted).
+     *
+     * @return The table.
+     */
+    public static FontAdvanceTable create(Font font, FontRenderContext frc,
+            char[][] ranges) {
+        if (font == null) {
+            throw new IllegalArgumentException("Null 'font' argument.");
+        }
+        if (frc == null) {
+            throw new IllegalArgumentException("Null 'frc' argument.");
+        }
+        if (ranges == null) {
+            throw new IllegalArgumentException("Null 'ranges' argument.");
+        }
+        char[] firsts = new char[ranges.length];
+        char[] lasts = new char[ranges.length];
+        int count = 0;
+        for (int i = 0; i < ranges.length; i++) {
+            firsts[i] = ranges[i][0];
+            lasts[i] = ranges[i][1];
+            count += Math.max(0, lasts[i] - firsts[i] + 1);
+        }
+        float[] values = new float[count];
+        char[] chars = new char[1];
+        int index = 0;
+        for (int i = 0; i < ranges.length; i++) {
+            for (int c = firsts[i]; c <= lasts[i]; c++) {
+                // measured the same way as by CachingTextMeasurer
+                chars[0] = (char) c;
+                values[index++] = (float) font.getStringBounds(chars, 0, 1,
+                        frc).getWidth();
+            }
+        }
+        float missing = font.createGlyphVector(frc,
+                new int[] {font.getMissingGlyphCode()}).getGlyphMetrics(0)
+                .getAdvance();
+        return new FontAdvanceTable(font.getName(), font.getStyle(),
+                font.getSize2D(), frc.isAntiAliased(),
+                frc.usesFractionalMetrics(), firsts, lasts, missing,
+                FloatBuffer.wrap(values));
+    }
+
+    /**
+     * Reads a table from a file, which is memory-mapped rather than read.
+     *
+     * @param file  the file (<code>null</code> not permitted).
+     *
+     * @return The table.
+     *
+     * @throws IOException if there is an I/O problem or the file is not a
+     *     valid table.
+     */
+    public static FontAdvanceTable load(File file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("Null 'file' argument.");
+        }
+        FileInputStream in = new FileInputStream(file);
+        try {
+            FileChannel channel = in.getChannel();
+            // the mapping stays valid after the channel is closed
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size()));
+        }
+        finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Reads a table from a stream (for example, a class path resource).  The
+     * stream is read to the end but not closed.
+     *
+     * @param in  the stream (<code>null</code> not permitted).
+     *
+     * @return The table.
+     *
+     * @throws IOException if there is an I/O problem or the stream does not
+     *     contain a valid table.
+     */
+    public static FontAdvanceTable load(InputStream in) throws IOException {
+        if (in == null) {
+            throw new IllegalArgumentException("Null 'in' argument.");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) >= 0) {
+            bytes.write(buffer, 0, n);
+        }
+        return read(ByteBuffer.wrap(bytes.toByteArray()));
+    }
+
+    /**
+     * Reads a table from a buffer.  The advances are not copied.
+     *
+     * @param buffer  the buffer.
+     *
+     * @return The table.
+     *
+     * @throws IOException if the buffer does not contain a valid table.
+     */
+    private static FontAdvanceTable read(ByteBuffer buffer)
+            throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a font advance table.");
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported table version: "
+                        + version + ".");
+            }
+            char[] name = new char[buffer.getShort() & 0xffff];
+            for (int i = 0; i < name.length; i++) {
+                name[i] = buffer.getChar();
+            }
+            int style = buffer.getInt();
+            float size = buffer.getFloat();
+            int flags = buffer.get();
+            float missing = buffer.getFloat();
+            int rangeCount = buffer.getInt();
+            char[] firsts = new char[rangeCount];
+            char[] lasts = new char[rangeCount];
+            int count = 0;
+            for (int i = 0; i < rangeCount; i++) {
+                firsts[i] = buffer.getChar();
+                lasts[i] = buffer.getChar();
+                count += lasts[i] - firsts[i] + 1;
+            }
+            ByteBuffer data = buffer.slice();
+            data.limit(count * 4);
+            return new FontAdvanceTable(new String(name), style, size,
+                    (flags & 1) != 0, (flags & 2) != 0, firsts, lasts,
+                    missing, data.asFloatBuffer());
+        }
+        catch (RuntimeException e) {
+            // a truncated buffer or inconsistent ranges
+            IOException ioe = new IOException("Invalid font advance table.");
+            ioe.initCause(e);
+            throw ioe;
+        }
+    }
+
+    /**
+     * Writes this table to a stream.  The stream is not closed.
+     *
+     * @param out  the stream (<code>null</code> not permitted).
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    public void write(OutputStream out) throws IOException {
+        if (out == null) {
+            throw new IllegalArgumentException("Null 'out' argument.");
+        }
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeShort(this.fontName.length());
+        data.writeChars(this.fontName);
+        data.writeInt(this.fontStyle);
+        data.writeFloat(this.fontSize);
+        data.writeByte((this.antiAliased ? 1 : 0)
+                | (this.fractionalMetrics ? 2 : 0));
+        data.writeFloat(this.defaultAdvance);
+        data.writeInt(this.firsts.length);
+        for (int i = 0; i < this.firsts.length; i++) {
+            data.writeChar(this.firsts[i]);
+            data.writeChar(this.lasts[i]);
+        }
+        for (int i = 0; i < this.advances.limit(); i++) {
+            data.writeFloat(this.advances.get(i));
+        }
+        data.flush();
+    }
+
+    /**
+     * Returns the name of the font that was measured.
+     *
+     * @return The font name.
+     */
+    public String getFontName() {
+        return this.fontName;
+    }
+
+    /**
+     * Returns the style of the font that was measured.
+     *
+     * @return The font style.
+     */
+    public int getFontStyle() {
+        return this.fontStyle;
+    }
+
+    /**
+     * Returns the size of the font that was measured.
+     *
+     * @return The font size.
+     */
+    public float getFontSize() {
+        return this.fontSize;
+    }
+
+    /**
+     * Returns <code>true</code> if the advances were measured with
+     * anti-aliasing.
+     *
+     * @return A boolean.
+     */
+    public boolean isAntiAliased() {
+        return this.antiAliased;
+    }
+
+    /**
+     * Returns <code>true</code> if the advances were measured with fractional
+     * metrics.
+     *
+     * @return A boolean.
+     */
+    public boolean usesFractionalMetrics() {
+        return this.fractionalMetrics;
+    }
+
+    /**
+     * Returns <code>true</code> if this table has the advances for the given
+     * font and font render context.  The transform of the font render
+     * context is ignored.
+     *
+     * @param font  the font (<code>null</code> not permitted).
+     * @param frc  the font render context (<code>null</code> not permitted).
+     *
+     * @return A boolean.
+     */
+    public boolean matches(Font font, FontRenderContext frc) {
+        return this.fontName.equals(font.getName())
+                && this.fontStyle == font.getStyle()
+                && this.fontSize == font.getSize2D()
+                && this.antiAliased == frc.isAntiAliased()
+                && this.fractionalMetrics == frc.usesFractionalMetrics();
+    }
+
+    /**
+     * Returns the advance of a character.
+     *
+     * @param c  the character.
+     *
+     * @return The advance.
+     */
+    public float getAdvance(char c) {
+        char[] f = this.firsts;
+        int low = 0;
+        int high = f.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (c < f[mid]) {
+                high = mid - 1;
+            }
+            else if (c > this.lasts[mid]) {
+                low = mid + 1;
+            }
+            else {
+                return this.advances.get(this.offsets[mid] + c - f[mid]);
+            }
+        }
+        return this.defaultAdvance;
+    }
+
+    /**
+     * Generates a table from the command line.
+     *
+     * @param args  the font name, style (a number), size and output file,
+     *     optionally followed by "antialias" and/or "fractionalmetrics".
+     *
+     * @throws IOException if the table cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.err.println("Usage: FontAdvanceTable name style size file "
+                    + "[antialias] [fractionalmetrics]");
+            return;
+        }
+        Font font = new Font(args[0], Integer.parseInt(args[1]), 1)
+                .deriveFont(Float.parseFloat(args[2]));
+        boolean aa = false;
+        boolean fm = false;
+        for (int i = 4; i < args.length; i++) {
+            aa = aa || args[i].equals("antialias");
+            fm = fm || args[i].equals("fractionalmetrics");
+        }
+        FontRenderContext frc = new FontRenderContext(new AffineTransform(),
+                aa ? RenderingHints.VALUE_TEXT_ANTIALIAS_ON
+                        : RenderingHints.VALUE_TEXT_ANTIALIAS_OFF,
+                fm ? RenderingHints.VALUE_FRACTIONALMETRICS_ON
+                        : RenderingHints.VALUE_FRACTIONALMETRICS_OFF);
+        OutputStream out = new FileOutputStream(args[3]);
+        try {
+            create(font, frc, DEFAULT_RANGES).write(out);
+        }
+        finally {
+            out.close();
+        }
+    }
+
+}
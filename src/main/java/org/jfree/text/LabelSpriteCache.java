@@ -0,0 +1,488 @@
+/* ========================================================================
+ * JCommon : a free general purpose class library for the Java(tm) platform
+ * ========================================================================
+ *
+ * (C) Copyright 2000-2026, by Object Refinery Limited and Contributors.
+ *
+ * Project Info:  http://www.jfree.org/jcommon/index.html
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ * [Java is a trademark or registered trademark of Sun Microsystems, Inc.
+ * in the United States and other countries.]
+ *
+ * ---------------------
+ * LabelSpriteCache.java
+ * ---------------------
+ * (C) Copyright 2026, by Object Refinery Limited and Contributors.
+ *
+ * Original Author:  -;
+ * Contributor(s):   -;
+ *
+ * Changes
+ * -------
+ * 18-Oct-2026 : Version 1;
+ *
+ */
+
+package org.jfree.text;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Composite;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.GraphicsDevice;
+import java.awt.Paint;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextLayout;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache of pre-rendered strings ("sprites"), for labels that are drawn
+ * many times with the same font, colour, rendering hints and scale.  The
+ * first time a label is drawn it is rendered into a small translucent
+ * image; after that, drawing it is an image copy.
+ * <p>
+ * Only simple cases are handled: the graphics device must draw to an
+ * image or a raster screen (not a printer), the paint must be a
+ * <code>Color</code>, the composite must be <code>AlphaComposite</code>
+ * SRC_OVER, the transform must be a translation and a positive scale,
+ * fractional metrics must be off, and LCD text anti-aliasing (which cannot
+ * be rendered to a translucent image) must not be in use.  The sprite is
+ * drawn with the text origin moved to the nearest device pixel.  Direct
+ * rendering places each glyph image at a rounded position too, so the
+ * result is normally the same, but it is not guaranteed to be identical
+ * for every font and position.  In every other case
+ * {@link #drawString(String, Graphics2D, float, float)} returns
+ * <code>false</code> and the caller should draw the string itself.
+ * <p>
+ * The cache holds images up to a fixed total size in bytes, discarding the
+ * least recently used images first.  To use a cache for all the text drawn
+ * by {@link TextUtilities} (and so by {@link TextBlock} and
+ * {@link TextFragment}), see
+ * {@link TextUtilities#setLabelSpriteCache(LabelSpriteCache)}.
+ * <p>
+ * Instances of this class are safe for use by multiple threads.
+ */
+public class LabelSpriteCache {
+
+    /** Empty space around the glyphs in each sprite, in pixels. */
+    private static final int MARGIN = 1;
+
+    /** The maximum total size of the sprites, in bytes. */
+    private final long maximumBytes;
+
+    /** The sprites, by key. */
+    private final Map sprites;
+
+    /** The total size of the sprites, in bytes. */
+    private long bytes;
+
+    /** The number of strings drawn from a cached sprite. */
+    private long hitCount;
+
+    /** The number of strings that were not found in the cache. */
+    private long missCount;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maximumBytes  the maximum total size of the images, in bytes
+     *     (must be positive).
+     */
+    public LabelSpriteCache(long maximumBytes) {
+        if (maximumBytes <= 0) {
+            throw new IllegalArgumentException("Requires maximumBytes > 0.");
+        }
+        this.maximumBytes = maximumBytes;
+        this.sprites = new LinkedHashMap(16, 0.75f, true);
+    }
+
+    /**
+     * Returns the maximum total size of the cached images, in bytes.
+     *
+     * @return The maximum size.
+     */
+    public long getMaximumBytes() {
+        return this.maximumBytes;
+    }
+
+    /**
+     * Draws a string with the current font and paint of a graphics device,
+     * with the left end of its baseline at (x, y), if this can be done with
+     * a sprite.
+     *
+     * @param text  the text (<code>null</code> not permitted).
+     * @param g2  the graphics device (<code>null</code> not permitted).
+     * @param x  the x-coordinate.
+     * @param y  the y-coordinate.
+     *
+     * @return <code>true</code> if the string was drawn, and
+     *     <code>false</code> if the caller must draw it.
+     */
+    public boolean drawString(String text, Graphics2D g2, float x, float y) {
+        if (text == null) {
+            throw new IllegalArgumentException("Null 'text' argument.");
+        }
+        if (g2 == null) {
+            throw new IllegalArgumentException("Null 'g2' argument.");
+        }
+        Paint paint = g2.getPaint();
+        if (!(paint instanceof Color)) {
+            return false;
+        }
+        Composite composite = g2.getComposite();
+        if (!(composite instanceof AlphaComposite) || ((AlphaComposite)
+                composite).getRule() != AlphaComposite.SRC_OVER) {
+            return false;
+        }
+        int deviceType = g2.getDeviceConfiguration().getDevice().getType();
+        if (deviceType != GraphicsDevice.TYPE_IMAGE_BUFFER
+                && deviceType != GraphicsDevice.TYPE_RASTER_SCREEN) {
+            return false;  // a printer, which may not rasterize text
+        }
+        AffineTransform t = g2.getTransform();
+        if (t.getShearX() != 0.0 || t.getShearY() != 0.0
+                || t.getScaleX() <= 0.0 || t.getScaleY() <= 0.0) {
+            return false;
+        }
+        Object textAntialiasing = g2.getRenderingHint(
+                RenderingHints.KEY_TEXT_ANTIALIASING);
+        if (textAntialiasing != null
+                && textAntialiasing != RenderingHints.VALUE_TEXT_ANTIALIAS_ON
+                && textAntialiasing != RenderingHints.VALUE_TEXT_ANTIALIAS_OFF
+                && textAntialiasing
+                        != RenderingHints.VALUE_TEXT_ANTIALIAS_DEFAULT
+                && textAntialiasing
+                        != RenderingHints.VALUE_TEXT_ANTIALIAS_GASP) {
+            return false;  // LCD text
+        }
+        if (g2.getRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS)
+                == RenderingHints.VALUE_FRACTIONALMETRICS_ON) {
+            // glyphs are placed at sub-pixel positions, which depend on
+            // the origin and would differ from the sprite
+            return false;
+        }
+        if (text.length() == 0) {
+            return true;
+        }
+
+        Key key = new Key(text, g2.getFont(), (Color) paint,
+                textAntialiasing,
+                g2.getRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS),
+                g2.getRenderingHint(RenderingHints.KEY_ANTIALIASING),
+                t.getScaleX(), t.getScaleY());
+        Sprite sprite;
+        synchronized (this.sprites) {
+            sprite = (Sprite) this.sprites.get(key);
+            if (sprite != null) {
+                this.hitCount++;
+            }
+            else {
+                this.missCount++;
+            }
+        }
+        if (sprite == null) {
+            sprite = createSprite(text, g2);
+            if (sprite == null) {
+                return false;
+            }
+            store(key, sprite);
+        }
+        if (sprite.image != null) {
+            Point2D origin = t.transform(new Point2D.Float(x, y), null);
+            int dx = (int) Math.floor(origin.getX() + 0.5) - sprite.originX;
+            int dy = (int) Math.floor(origin.getY() + 0.5) - sprite.originY;
+            g2.setTransform(new AffineTransform());
+            g2.drawImage(sprite.image, dx, dy, null);
+            g2.setTransform(t);
+        }
+        return true;
+    }
+
+    /**
+     * Renders a sprite for a string with the settings of a graphics device.
+     *
+     * @param text  the text.
+     * @param g2  the graphics device.
+     *
+     * @return The sprite, or <code>null</code> if the sprite would be too
+     *     large for the cache.
+     */
+    private Sprite createSprite(String text, Graphics2D g2) {
+        FontRenderContext frc = g2.getFontRenderContext();
+        TextLayout layout = new TextLayout(text, g2.getFont(), frc);
+        Rectangle pixels = layout.getPixelBounds(frc, 0.0f, 0.0f);
+        if (pixels.isEmpty()) {
+            return new Sprite(null, 0, 0);  // nothing visible
+        }
+        int width = pixels.width + 2 * MARGIN;
+        int height = pixels.height + 2 * MARGIN;
+        if (4L * width * height > this.maximumBytes / 4) {
+            return null;
+        }
+        BufferedImage image = new BufferedImage(width, height,
+                BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D sg = image.createGraphics();
+        copyHint(g2, sg, RenderingHints.KEY_TEXT_ANTIALIASING);
+        copyHint(g2, sg, RenderingHints.KEY_FRACTIONALMETRICS);
+        copyHint(g2, sg, RenderingHints.KEY_ANTIALIASING);
+        int originX = MARGIN - pixels.x;
+        int originY = MARGIN - pixels.y;
+        AffineTransform t = g2.getTransform();
+        sg.translate(originX, originY);
+        sg.scale(t.getScaleX(), t.getScaleY());
+        sg.setFont(g2.getFont());
+        sg.setPaint(g2.getPaint());
+        sg.drawString(text, 0.0f, 0.0f);
+        sg.dispose();
+        return new Sprite(image, originX, originY);
+    }
+
+    /**
+     * Copies a rendering hint from one graphics device to another.
+     *
+     * @param from  the source.
+     * @param to  the destination.
+     * @param key  the hint key.
+     */
+    private static void copyHint(Graphics2D from, Graphics2D to,
+            RenderingHints.Key key) {
+        Object value = from.getRenderingHint(key);
+        if (value != null) {
+            to.setRenderingHint(key, value);
+        }
+    }
+
+    /**
+     * Adds a sprite to the cache, discarding the least recently used sprites
+     * if the cache is too large.
+     *
+     * @param key  the key.
+     * @param sprite  the sprite.
+     */
+    private void store(Key key, Sprite sprite) {
+        synchronized (this.sprites) {
+            Sprite old = (Sprite) this.sprites.put(key, sprite);
+            if (old != null) {
+                this.bytes -= old.getBytes();
+            }
+            this.bytes += sprite.getBytes();
+            Iterator iterator = this.sprites.values().iterator();
+            while (this.bytes > this.maximumBytes && iterator.hasNext()) {
+                Sprite eldest = (Sprite) iterator.next();
+                this.bytes -= eldest.getBytes();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of sprites in the cache.
+     *
+     * @return The number of sprites.
+     */
+    public int getSize() {
+        synchronized (this.sprites) {
+            return this.sprites.size();
+        }
+    }
+
+    /**
+     * Returns the total size of the cached images, in bytes.
+     *
+     * @return The size.
+     */
+    public long getBytes() {
+        synchronized (this.sprites) {
+            return this.bytes;
+        }
+    }
+
+    /**
+     * Returns the number of strings that were drawn from a cached sprite.
+     *
+     * @return The hit count.
+     */
+    public long getHitCount() {
+        synchronized (this.sprites) {
+            return this.hitCount;
+        }
+    }
+
+    /**
+     * Returns the number of strings that were not found in the cache.
+     *
+     * @return The miss count.
+     */
+    public long getMissCount() {
+        synchronized (this.sprites) {
+            return this.missCount;
+        }
+    }
+
+    /**
+     * Removes all the sprites from the cache and resets the hit and miss
+     * counts.
+     */
+    public void clear() {
+        synchronized (this.sprites) {
+            this.sprites.clear();
+            this.bytes = 0;
+            this.hitCount = 0;
+            this.missCount = 0;
+        }
+    }
+
+    /**
+     * A pre-rendered string.
+     */
+    private static class Sprite {
+
+        /** The image (<code>null</code> if nothing is visible). */
+        final BufferedImage image;
+
+        /** The x-coordinate of the text origin in the image. */
+        final int originX;
+
+        /** The y-coordinate of the text origin in the image. */
+        final int originY;
+
+        /**
+         * Creates a new sprite.
+         *
+         * @param image  the image (<code>null</code> permitted).
+         * @param originX  the x-coordinate of the text origin.
+         * @param originY  the y-coordinate of the text origin.
+         */
+        Sprite(BufferedImage image, int originX, int originY) {
+            this.image = image;
+            this.originX = originX;
+            this.originY = originY;
+        }
+
+        /**
+         * Returns the size of the image in bytes.
+         *
+         * @return The size.
+         */
+        long getBytes() {
+            return this.image == null ? 0L
+                    : 4L * this.image.getWidth() * this.image.getHeight();
+        }
+    }
+
+    /**
+     * The key for a sprite.
+     */
+    private static class Key {
+
+        /** The text. */
+        private final String text;
+
+        /** The font. */
+        private final Font font;
+
+        /** The colour. */
+        private final Color color;
+
+        /** The text anti-aliasing hint. */
+        private final Object textAntialiasing;
+
+        /** The fractional metrics hint. */
+        private final Object fractionalMetrics;
+
+        /** The anti-aliasing hint. */
+        private final Object antialiasing;
+
+        /** The x scale. */
+        private final double scaleX;
+
+        /** The y scale. */
+        private final double scaleY;
+
+        /**
+         * Creates a new key.
+         *
+         * @param text  the text.
+         * @param font  the font.
+         * @param color  the colour.
+         * @param textAntialiasing  the text anti-aliasing hint.
+         * @param fractionalMetrics  the fractional metrics hint.
+         * @param antialiasing  the anti-aliasing hint.
+         * @param scaleX  the x scale.
+         * @param scaleY  the y scale.
+         */
+        Key(String text, Font font, Color color, Object textAntialiasing,
+                Object fractionalMetrics, Object antialiasing, double scaleX,
+                double scaleY) {
+            this.text = text;
+            this.font = font;
+            this.color = color;
+            this.textAntialiasing = textAntialiasing;
+            this.fractionalMetrics = fractionalMetrics;
+            this.antialiasing = antialiasing;
+            this.scaleX = scaleX;
+            this.scaleY = scaleY;
+        }
+
+        /**
+         * Tests this key for equality with an arbitrary object.
+         *
+         * @param obj  the object (<code>null</code> permitted).
+         *
+         * @return A boolean.
+         */
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) obj;
+            // rendering hint values are singletons
+            return this.text.equals(that.text) && this.font.equals(that.font)
+                    && this.color.equals(that.color)
+                    && this.textAntialiasing == that.textAntialiasing
+                    && this.fractionalMetrics == that.fractionalMetrics
+                    && this.antialiasing == that.antialiasing
+                    && this.scaleX == that.scaleX
+                    && this.scaleY == that.scaleY;
+        }
+
+        /**
+         * Returns a hash code for this key.
+         *
+         * @return A hash code.
+         */
+        public int hashCode() {
+            int result = this.text.hashCode();
+            result = 37 * result + this.font.hashCode();
+            result = 37 * result + this.color.hashCode();
+            long bits = Double.doubleToLongBits(this.scaleX)
+                    ^ Double.doubleToLongBits(this.scaleY);
+            result = 37 * result + (int) (bits ^ (bits >>> 32));
+            return result;
+        }
+    }
+
+}
@@ -0,0 +1,257 @@
+/* ========================================================================
+ * JCommon : a free general purpose class library for the Java(tm) platform
+ * ========================================================================
+ *
+ * (C) Copyright 2000-2026, by Object Refinery Limited and Contributors.
+ *
+ * Project Info:  http://www.jfree.org/jcommon/index.html
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ * [Java is a trademark or registered trademark of Sun Microsystems, Inc.
+ * in the United States and other countries.]
+ *
+ * -----------------------
+ * ParallelTextLayout.java
+ * -----------------------
+ * (C) Copyright 2026, by Object Refinery Limited and Contributors.
+ *
+ * Original Author:  -;
+ * Contributor(s):   -;
+ *
+ * Changes
+ * -------
+ * 18-Oct-2026 : Version 1;
+ *
+ */
+
+package org.jfree.text;
+
+import java.awt.Font;
+import java.awt.Paint;
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Lays out many strings at once, as {@link TextUtilities#createTextBlock(
+ * String, Font, Paint, float, int, TextMeasurer)} would one at a time, with
+ * the work split across the threads of an executor.
+ * <p>
+ * The strings are split into contiguous chunks.  Each chunk is laid out by
+ * one task with its own line break iterator and its own measurer (from a
+ * {@link TextMeasurerFactory}), so that measurers that are not thread-safe,
+ * such as {@link CachingTextMeasurer}, can be used.
+ */
+public final class ParallelTextLayout {
+
+    /** The smallest number of strings given to one task. */
+    private static final int MIN_CHUNK_SIZE = 64;
+
+    /** The number of tasks per processor (for load balancing). */
+    private static final int TASKS_PER_PROCESSOR = 4;
+
+    /** The shared executor, created when first needed. */
+    private static ExecutorService sharedExecutor;
+
+    /**
+     * Private constructor prevents object creation.
+     */
+    private ParallelTextLayout() {
+        // prevent instantiation
+    }
+
+    /**
+     * Creates a text block for each string, using a shared pool of daemon
+     * threads (one per processor).
+     *
+     * @param texts  the texts (<code>null</code> not permitted, and no
+     *     element may be <code>null</code>).
+     * @param maxWidths  the maximum line width for each text
+     *     (<code>null</code> not permitted, same length as
+     *     <code>texts</code>).
+     * @param font  the font (<code>null</code> not permitted).
+     * @param paint  the paint (<code>null</code> not permitted).
+     * @param maxLines  the maximum number of lines in each block.
+     * @param measurers  the source of text measurers (<code>null</code> not
+     *     permitted).
+     *
+     * @return The text blocks, in the same order as the texts.
+     *
+     * @throws InterruptedException if the calling thread is interrupted
+     *     while waiting for the layout to finish.
+     */
+    public static TextBlock[] createTextBlocks(String[] texts,
+            float[] maxWidths, Font font, Paint paint, int maxLines,
+            TextMeasurerFactory measurers) throws InterruptedException {
+        return createTextBlocks(texts, maxWidths, font, paint, maxLines,
+                measurers, getSharedExecutor());
+    }
+
+    /**
+     * Creates a text block for each string, using the threads of the given
+     * executor.
+     *
+     * @param texts  the texts (<code>null</code> not permitted, and no
+     *     element may be <code>null</code>).
+     * @param maxWidths  the maximum line width for each text
+     *     (<code>null</code> not permitted, same length as
+     *     <code>texts</code>).
+     * @param font  the font (<code>null</code> not permitted).
+     * @param paint  the paint (<code>null</code> not permitted).
+     * @param maxLines  the maximum number of lines in each block.
+     * @param measurers  the source of text measurers (<code>null</code> not
+     *     permitted).
+     * @param executor  the executor (<code>null</code> not permitted).
+     *
+     * @return The text blocks, in the same order as the texts.
+     *
+     * @throws InterruptedException if the calling thread is interrupted
+     *     while waiting for the layout to finish.
+     */
+    public static TextBlock[] createTextBlocks(final String[] texts,
+            final float[] maxWidths, final Font font, final Paint paint,
+            final int maxLines, final TextMeasurerFactory measurers,
+            ExecutorService executor) throws InterruptedException {
+
+        if (texts == null) {
+            throw new IllegalArgumentException("Null 'texts' argument.");
+        }
+        if (maxWidths == null) {
+            throw new IllegalArgumentException("Null 'maxWidths' argument.");
+        }
+        if (maxWidths.length != texts.length) {
+            throw new IllegalArgumentException(
+                    "The 'texts' and 'maxWidths' arrays differ in length.");
+        }
+        if (font == null) {
+            throw new IllegalArgumentException("Null 'font' argument.");
+        }
+        if (paint == null) {
+            throw new IllegalArgumentException("Null 'paint' argument.");
+        }
+        if (measurers == null) {
+            throw new IllegalArgumentException("Null 'measurers' argument.");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("Null 'executor' argument.");
+        }
+        for (int i = 0; i < texts.length; i++) {
+            if (texts[i] == null) {
+                throw new IllegalArgumentException("Null text at index "
+                        + i + ".");
+            }
+        }
+
+        final TextBlock[] result = new TextBlock[texts.length];
+        int tasks = Math.min(TASKS_PER_PROCESSOR
+                * Runtime.getRuntime().availableProcessors(),
+                texts.length / MIN_CHUNK_SIZE);
+        if (tasks <= 1) {
+            layout(texts, maxWidths, font, paint, maxLines,
+                    measurers.createTextMeasurer(), result, 0, texts.length);
+            return result;
+        }
+
+        List futures = new ArrayList(tasks);
+        for (int i = 0; i < tasks; i++) {
+            final int start = (int) ((long) texts.length * i / tasks);
+            final int end = (int) ((long) texts.length * (i + 1) / tasks);
+            futures.add(executor.submit(new Callable() {
+                public Object call() {
+                    layout(texts, maxWidths, font, paint, maxLines,
+                            measurers.createTextMeasurer(), result, start,
+                            end);
+                    return null;
+                }
+            }));
+        }
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                ((Future) futures.get(i)).get();
+            }
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+        finally {
+            // on failure, don't leave tasks running for a result that is
+            // thrown away
+            for (int i = 0; i < futures.size(); i++) {
+                ((Future) futures.get(i)).cancel(true);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Lays out a range of the texts.
+     *
+     * @param texts  the texts.
+     * @param maxWidths  the maximum widths.
+     * @param font  the font.
+     * @param paint  the paint.
+     * @param maxLines  the maximum number of lines.
+     * @param measurer  the measurer.
+     * @param result  the array for the text blocks.
+     * @param start  the index of the first text.
+     * @param end  the index after the last text.
+     */
+    private static void layout(String[] texts, float[] maxWidths, Font font,
+            Paint paint, int maxLines, TextMeasurer measurer,
+            TextBlock[] result, int start, int end) {
+        BreakIterator iterator = BreakIterator.getLineInstance();
+        for (int i = start; i < end; i++) {
+            result[i] = TextUtilities.createTextBlock(texts[i], font, paint,
+                    maxWidths[i], maxLines, measurer, iterator);
+        }
+    }
+
+    /**
+     * Returns the shared executor, creating it if necessary.
+     *
+     * @return The executor.
+     */
+    private static synchronized ExecutorService getSharedExecutor() {
+        if (sharedExecutor == null) {
+            sharedExecutor = Executors.newFixedThreadPool(
+                    Runtime.getRuntime().availableProcessors(),
+                    new ThreadFactory() {
+                        public Thread newThread(Runnable r) {
+                            Thread thread = new Thread(r,
+                                    "ParallelTextLayout");
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+        }
+        return sharedExecutor;
+    }
+
+}
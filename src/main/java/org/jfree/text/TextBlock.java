@@ -45,6 +45,11 @@
  * 01-Apr-2004 : Changed java.awt.geom.Dimension2D to org.jfree.ui.Size2D 
  *               because of JDK bug 4976448 which persists on JDK 1.3.1 (DG);
  * 04-Oct-2004 : Renamed ShapeUtils --> ShapeUtilities (DG);
+ * 18-Oct-2026 : Added freeze() method;
+ * 18-Oct-2026 : Frozen blocks keep their measurements for each font render
+ *               context;
+ * 18-Oct-2026 : Made calculateOffsets() package-private for
+ *               TextBlockPlacer;
  *
  */
  
@@ -54,11 +59,14 @@ import java.awt.Font;
 import java.awt.Graphics2D;
 import java.awt.Paint;
 import java.awt.Shape;
+import java.awt.font.FontRenderContext;
 import java.awt.geom.Rectangle2D;
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.jfree.ui.HorizontalAlignment;
 import org.jfree.ui.Size2D;
@@ -76,6 +84,9 @@ public class TextBlock implements Serializable {
 
     /** For serialization. */
     private static final long serialVersionUID = -4333175719424385526L;
+
+    /** The maximum number of layouts kept by a frozen block. */
+    private static final int MAX_LAYOUTS = 4;
     
     /** Storage for the lines of text. */
     private List lines;
@@ -83,6 +94,15 @@ public class TextBlock implements Serializable {
     /** The alignment of the lines. */
     private HorizontalAlignment lineAlignment;
 
+    /** A flag that indicates whether or not the block can be changed. */
+    private boolean frozen;
+
+    /**
+     * The measurements of a frozen block, by font render context
+     * (<code>null</code> until the block is first measured).
+     */
+    private transient Map layouts;
+
     /**
      * Creates a new empty text block.
      */
@@ -109,6 +129,7 @@ public class TextBlock implements Serializable {
         if (alignment == null) {
             throw new IllegalArgumentException("Null 'alignment' argument.");
         }
+        checkNotFrozen();
         this.lineAlignment = alignment;   
     }
     
@@ -129,8 +150,52 @@ public class TextBlock implements Serializable {
      * @param line  the line.
      */
     public void addLine(final TextLine line) {
+        checkNotFrozen();
         this.lines.add(line);    
     }
+
+    /**
+     * Prevents any further changes to this block and to its lines, so that
+     * the block can be shared (for example, by a {@link TextBlockCache}).
+     * After this method is called, the methods that change the block or its
+     * lines throw an <code>IllegalStateException</code>.
+     * <p>
+     * A frozen block measures its lines once for each font render context
+     * (see {@link Graphics2D#getFontRenderContext()}) and keeps the results,
+     * so that drawing the block again does not measure any text.  The
+     * measurements reflect the {@link TextUtilities} settings at the time
+     * they were made.
+     */
+    public void freeze() {
+        if (this.frozen) {
+            return;
+        }
+        final Iterator iterator = this.lines.iterator();
+        while (iterator.hasNext()) {
+            ((TextLine) iterator.next()).freeze();
+        }
+        this.frozen = true;
+    }
+
+    /**
+     * Returns <code>true</code> if this block can no longer be changed.
+     *
+     * @return A boolean.
+     *
+     * @see #freeze()
+     */
+    public boolean isFrozen() {
+        return this.frozen;
+    }
+
+    /**
+     * Throws an exception if this block has been frozen.
+     */
+    private void checkNotFrozen() {
+        if (this.frozen) {
+            throw new IllegalStateException("The block is frozen.");
+        }
+    }
     
     /**
      * Returns the last line in the block.
@@ -163,6 +228,10 @@ public class TextBlock implements Serializable {
      * @return The width and height.
      */
     public Size2D calculateDimensions(final Graphics2D g2) {
+        if (this.frozen) {
+            final Layout layout = getLayout(g2);
+            return new Size2D(layout.width, layout.height);
+        }
         double width = 0.0;
         double height = 0.0;
         final Iterator iterator = this.lines.iterator();
@@ -241,6 +310,10 @@ public class TextBlock implements Serializable {
                      final float rotateX, final float rotateY, 
                      final double angle) {
     
+        if (this.frozen) {
+            drawFrozen(g2, anchorX, anchorY, anchor, rotateX, rotateY, angle);
+            return;
+        }
         final Size2D d = calculateDimensions(g2);
         final float[] offsets = calculateOffsets(anchor, d.getWidth(), 
                 d.getHeight());
@@ -266,6 +339,78 @@ public class TextBlock implements Serializable {
         
     }
  
+    /**
+     * Draws a frozen text block using its stored measurements.
+     *
+     * @param g2  the graphics device.
+     * @param anchorX  the x-coordinate for the anchor point.
+     * @param anchorY  the y-coordinate for the anchor point.
+     * @param anchor  the point on the text block that is aligned to the
+     *                anchor point.
+     * @param rotateX  the x-coordinate for the rotation point.
+     * @param rotateY  the x-coordinate for the rotation point.
+     * @param angle  the rotation (in radians).
+     */
+    private void drawFrozen(final Graphics2D g2,
+                            final float anchorX, final float anchorY,
+                            final TextBlockAnchor anchor,
+                            final float rotateX, final float rotateY,
+                            final double angle) {
+
+        final Layout layout = getLayout(g2);
+        final float[] offsets = calculateOffsets(anchor, layout.width,
+                layout.height);
+        float yCursor = 0.0f;
+        for (int i = 0; i < layout.lineWidths.length; i++) {
+            float lineOffset = 0.0f;
+            if (this.lineAlignment == HorizontalAlignment.CENTER) {
+                lineOffset = (float) (layout.width - layout.lineWidths[i])
+                    / 2.0f;
+            }
+            else if (this.lineAlignment == HorizontalAlignment.RIGHT) {
+                lineOffset = (float) (layout.width - layout.lineWidths[i]);
+            }
+            float x = anchorX + offsets[0] + lineOffset;
+            final float y = anchorY + offsets[1] + yCursor
+                    + layout.baselines[i];
+            final List fragments = ((TextLine) this.lines.get(i))
+                    .getFragments();
+            final double[] fragmentWidths = layout.fragmentWidths[i];
+            for (int j = 0; j < fragmentWidths.length; j++) {
+                final TextFragment fragment = (TextFragment) fragments.get(j);
+                fragment.drawAtBaseline(g2, x, y, rotateX, rotateY, angle);
+                x = x + (float) fragmentWidths[j];
+            }
+            yCursor = yCursor + (float) layout.lineHeights[i];
+        }
+
+    }
+
+    /**
+     * Returns the measurements of this (frozen) block for the font render
+     * context of a graphics device, measuring the block if necessary.
+     *
+     * @param g2  the graphics device.
+     *
+     * @return The measurements.
+     */
+    private synchronized Layout getLayout(final Graphics2D g2) {
+        final FontRenderContext frc = g2.getFontRenderContext();
+        if (this.layouts == null) {
+            this.layouts = new LinkedHashMap(MAX_LAYOUTS, 0.75f, true) {
+                protected boolean removeEldestEntry(Map.Entry eldest) {
+                    return size() > MAX_LAYOUTS;
+                }
+            };
+        }
+        Layout layout = (Layout) this.layouts.get(frc);
+        if (layout == null) {
+            layout = new Layout(this.lines, g2);
+            this.layouts.put(frc, layout);
+        }
+        return layout;
+    }
+
     /**
      * Calculates the x and y offsets required to align the text block with the
      * specified anchor point.  This assumes that the top left of the text 
@@ -277,8 +422,8 @@ public class TextBlock implements Serializable {
      * 
      * @return The offsets (float[0] = x offset, float[1] = y offset).
      */
-    private float[] calculateOffsets(final TextBlockAnchor anchor, 
-                                     final double width, final double height) {
+    float[] calculateOffsets(final TextBlockAnchor anchor, 
+                             final double width, final double height) {
         final float[] result = new float[2];
         float xAdj = 0.0f;
         float yAdj = 0.0f;
@@ -350,4 +495,74 @@ public class TextBlock implements Serializable {
     public int hashCode() {
         return (this.lines != null ? this.lines.hashCode() : 0);
     }
+
+    /**
+     * The measurements of a frozen block for one font render context.  These
+     * are the same values that {@link TextLine} and {@link TextFragment}
+     * calculate each time a block that is not frozen is drawn.
+     */
+    private static class Layout {
+
+        /** The width of the block. */
+        final double width;
+
+        /** The height of the block. */
+        final double height;
+
+        /** The width of each line. */
+        final double[] lineWidths;
+
+        /** The height of each line. */
+        final double[] lineHeights;
+
+        /** The offset from the top of each line to its baseline. */
+        final float[] baselines;
+
+        /** The width of each fragment, by line. */
+        final double[][] fragmentWidths;
+
+        /**
+         * Measures the lines of a block.
+         *
+         * @param lines  the lines.
+         * @param g2  the graphics device.
+         */
+        Layout(final List lines, final Graphics2D g2) {
+            final int count = lines.size();
+            this.lineWidths = new double[count];
+            this.lineHeights = new double[count];
+            this.baselines = new float[count];
+            this.fragmentWidths = new double[count][];
+            double blockWidth = 0.0;
+            double blockHeight = 0.0;
+            for (int i = 0; i < count; i++) {
+                final List fragments = ((TextLine) lines.get(i))
+                        .getFragments();
+                final double[] widths = new double[fragments.size()];
+                double lineWidth = 0.0;
+                double lineHeight = 0.0;
+                float baseline = 0.0f;
+                for (int j = 0; j < widths.length; j++) {
+                    final TextFragment fragment
+                            = (TextFragment) fragments.get(j);
+                    final Size2D d = fragment.calculateDimensions(g2);
+                    widths[j] = d.getWidth();
+                    lineWidth = lineWidth + d.getWidth();
+                    lineHeight = Math.max(lineHeight, d.getHeight());
+                    baseline = Math.max(baseline,
+                            fragment.calculateBaselineOffset(g2,
+                            TextAnchor.TOP_LEFT));
+                }
+                this.fragmentWidths[i] = widths;
+                this.lineWidths[i] = lineWidth;
+                this.lineHeights[i] = lineHeight;
+                this.baselines[i] = baseline;
+                blockWidth = Math.max(blockWidth, lineWidth);
+                blockHeight = blockHeight + lineHeight;
+            }
+            this.width = blockWidth;
+            this.height = blockHeight;
+        }
+    }
+
 }
@@ -0,0 +1,309 @@
+/* ========================================================================
+ * JCommon : a free general purpose class library for the Java(tm) platform
+ * ========================================================================
+ *
+ * (C) Copyright 2000-2026, by Object Refinery Limited and Contributors.
+ *
+ * Project Info:  http://www.jfree.org/jcommon/index.html
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ * [Java is a trademark or registered trademark of Sun Microsystems, Inc.
+ * in the United States and other countries.]
+ *
+ * -------------------
+ * TextBlockCache.java
+ * -------------------
+ * (C) Copyright 2026, by Object Refinery Limited and Contributors.
+ *
+ * Original Author:  -;
+ * Contributor(s):   -;
+ *
+ * Changes
+ * -------
+ * 18-Oct-2026 : Version 1;
+ *
+ */
+
+package org.jfree.text;
+
+import java.awt.Font;
+import java.awt.Paint;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache of the text blocks created by
+ * {@link TextUtilities#createTextBlock(String, Font, Paint, float, int,
+ * TextMeasurer)}, for text (such as axis labels and legend items) that is
+ * laid out again every time a chart is drawn.
+ * <p>
+ * The blocks are frozen (see {@link TextBlock#freeze()}) so that they can be
+ * shared.  The cache holds at most a fixed number of blocks and discards the
+ * least recently used block when it is full.  Blocks are cached by text,
+ * font, paint, maximum width, maximum number of lines and text measurer;
+ * measurers are compared by identity, so a measurer should be reused (and
+ * should measure the same way) for as long as its blocks are wanted.
+ * <p>
+ * Instances of this class are safe for use by multiple threads.
+ */
+public class TextBlockCache {
+
+    /** The maximum number of blocks. */
+    private final int maximumSize;
+
+    /** The blocks, by key. */
+    private final Map blocks;
+
+    /** The number of requests answered from the cache. */
+    private long hitCount;
+
+    /** The number of requests that needed a new layout. */
+    private long missCount;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maximumSize  the maximum number of blocks (must be positive).
+     */
+    public TextBlockCache(final int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException(
+                    "Requires maximumSize > 0.");
+        }
+        this.maximumSize = maximumSize;
+        this.blocks = new LinkedHashMap(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry eldest) {
+                return size() > TextBlockCache.this.maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the maximum number of blocks held by the cache.
+     *
+     * @return The maximum number of blocks.
+     */
+    public int getMaximumSize() {
+        return this.maximumSize;
+    }
+
+    /**
+     * Returns a text block for the given string, from the cache if possible,
+     * otherwise by calling {@link TextUtilities#createTextBlock(String, Font,
+     * Paint, float, int, TextMeasurer)}.  The block is frozen, so it cannot be
+     * changed.
+     *
+     * @param text  the text (<code>null</code> not permitted).
+     * @param font  the font (<code>null</code> not permitted).
+     * @param paint  the paint (<code>null</code> not permitted).
+     * @param maxWidth  the maximum width for each line.
+     * @param maxLines  the maximum number of lines.
+     * @param measurer  the text measurer (<code>null</code> not permitted).
+     *
+     * @return A frozen text block.
+     */
+    public TextBlock createTextBlock(String text, Font font, Paint paint,
+            float maxWidth, int maxLines, TextMeasurer measurer) {
+        if (text == null) {
+            throw new IllegalArgumentException("Null 'text' argument.");
+        }
+        if (font == null) {
+            throw new IllegalArgumentException("Null 'font' argument.");
+        }
+        if (paint == null) {
+            throw new IllegalArgumentException("Null 'paint' argument.");
+        }
+        if (measurer == null) {
+            throw new IllegalArgumentException("Null 'measurer' argument.");
+        }
+        Key key = new Key(text, font, paint, maxWidth, maxLines, measurer);
+        synchronized (this.blocks) {
+            TextBlock block = (TextBlock) this.blocks.get(key);
+            if (block != null) {
+                this.hitCount++;
+                return block;
+            }
+            this.missCount++;
+        }
+        // lay out without holding the lock, so that other threads are not
+        // held up; if two threads miss on the same key, the first block
+        // stored wins
+        TextBlock block = TextUtilities.createTextBlock(text, font, paint,
+                maxWidth, maxLines, measurer);
+        block.freeze();
+        synchronized (this.blocks) {
+            TextBlock existing = (TextBlock) this.blocks.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            this.blocks.put(key, block);
+        }
+        return block;
+    }
+
+    /**
+     * Returns a text block for the given string, with no limit on the number
+     * of lines.
+     *
+     * @param text  the text (<code>null</code> not permitted).
+     * @param font  the font (<code>null</code> not permitted).
+     * @param paint  the paint (<code>null</code> not permitted).
+     * @param maxWidth  the maximum width for each line.
+     * @param measurer  the text measurer (<code>null</code> not permitted).
+     *
+     * @return A frozen text block.
+     */
+    public TextBlock createTextBlock(String text, Font font, Paint paint,
+            float maxWidth, TextMeasurer measurer) {
+        return createTextBlock(text, font, paint, maxWidth, Integer.MAX_VALUE,
+                measurer);
+    }
+
+    /**
+     * Returns the number of blocks in the cache.
+     *
+     * @return The number of blocks.
+     */
+    public int getSize() {
+        synchronized (this.blocks) {
+            return this.blocks.size();
+        }
+    }
+
+    /**
+     * Returns the number of requests that were answered from the cache.
+     *
+     * @return The hit count.
+     */
+    public long getHitCount() {
+        synchronized (this.blocks) {
+            return this.hitCount;
+        }
+    }
+
+    /**
+     * Returns the number of requests that needed a new layout.
+     *
+     * @return The miss count.
+     */
+    public long getMissCount() {
+        synchronized (this.blocks) {
+            return this.missCount;
+        }
+    }
+
+    /**
+     * Removes all the blocks from the cache and resets the hit and miss
+     * counts.
+     */
+    public void clear() {
+        synchronized (this.blocks) {
+            this.blocks.clear();
+            this.hitCount = 0;
+            this.missCount = 0;
+        }
+    }
+
+    /**
+     * The key for a cached block.
+     */
+    private static class Key {
+
+        /** The text. */
+        private final String text;
+
+        /** The font. */
+        private final Font font;
+
+        /** The paint. */
+        private final Paint paint;
+
+        /** The maximum width. */
+        private final float maxWidth;
+
+        /** The maximum number of lines. */
+        private final int maxLines;
+
+        /** The measurer (compared by identity). */
+        private final TextMeasurer measurer;
+
+        /** The hash code. */
+        private final int hash;
+
+        /**
+         * Creates a new key.
+         *
+         * @param text  the text.
+         * @param font  the font.
+         * @param paint  the paint.
+         * @param maxWidth  the maximum width.
+         * @param maxLines  the maximum number of lines.
+         * @param measurer  the measurer.
+         */
+        Key(String text, Font font, Paint paint, float maxWidth,
+                int maxLines, TextMeasurer measurer) {
+            this.text = text;
+            this.font = font;
+            this.paint = paint;
+            this.maxWidth = maxWidth;
+            this.maxLines = maxLines;
+            this.measurer = measurer;
+            int h = text.hashCode();
+            h = 37 * h + font.hashCode();
+            h = 37 * h + paint.hashCode();
+            h = 37 * h + Float.floatToIntBits(maxWidth);
+            h = 37 * h + maxLines;
+            h = 37 * h + System.identityHashCode(measurer);
+            this.hash = h;
+        }
+
+        /**
+         * Tests this key for equality with an arbitrary object.
+         *
+         * @param obj  the object (<code>null</code> permitted).
+         *
+         * @return A boolean.
+         */
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) obj;
+            return this.hash == that.hash
+                    && this.measurer == that.measurer
+                    && this.maxLines == that.maxLines
+                    && Float.floatToIntBits(this.maxWidth)
+                            == Float.floatToIntBits(that.maxWidth)
+                    && this.text.equals(that.text)
+                    && this.font.equals(that.font)
+                    && this.paint.equals(that.paint);
+        }
+
+        /**
+         * Returns a hash code for this key.
+         *
+         * @return A hash code.
+         */
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+
+}
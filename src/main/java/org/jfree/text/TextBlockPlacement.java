@@ -0,0 +1,149 @@
+/* ========================================================================
+ * JCommon : a free general purpose class library for the Java(tm) platform
+ * ========================================================================
+ *
+ * (C) Copyright 2000-2026, by Object Refinery Limited and Contributors.
+ *
+ * Project Info:  http://www.jfree.org/jcommon/index.html
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ * [Java is a trademark or registered trademark of Sun Microsystems, Inc.
+ * in the United States and other countries.]
+ *
+ * -----------------------
+ * TextBlockPlacement.java
+ * -----------------------
+ * (C) Copyright 2026, by Object Refinery Limited and Contributors.
+ *
+ * Original Author:  -;
+ * Contributor(s):   -;
+ *
+ * Changes
+ * -------
+ * 18-Oct-2026 : Version 1;
+ *
+ */
+
+package org.jfree.text;
+
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * The position chosen for a {@link TextBlock} by a {@link TextBlockPlacer}.
+ * Instances of this class are immutable.
+ */
+public class TextBlockPlacement {
+
+    /** The text block. */
+    private TextBlock block;
+
+    /** The x-coordinate of the anchor point. */
+    private float anchorX;
+
+    /** The y-coordinate of the anchor point. */
+    private float anchorY;
+
+    /** The text block anchor. */
+    private TextBlockAnchor anchor;
+
+    /** The bounds of the block. */
+    private Rectangle2D bounds;
+
+    /**
+     * Creates a new placement.
+     *
+     * @param block  the text block (<code>null</code> not permitted).
+     * @param anchorX  the x-coordinate of the anchor point.
+     * @param anchorY  the y-coordinate of the anchor point.
+     * @param anchor  the text block anchor (<code>null</code> not permitted).
+     * @param bounds  the bounds of the block (<code>null</code> not
+     *     permitted).
+     */
+    public TextBlockPlacement(TextBlock block, float anchorX, float anchorY,
+            TextBlockAnchor anchor, Rectangle2D bounds) {
+        if (block == null) {
+            throw new IllegalArgumentException("Null 'block' argument.");
+        }
+        if (anchor == null) {
+            throw new IllegalArgumentException("Null 'anchor' argument.");
+        }
+        if (bounds == null) {
+            throw new IllegalArgumentException("Null 'bounds' argument.");
+        }
+        this.block = block;
+        this.anchorX = anchorX;
+        this.anchorY = anchorY;
+        this.anchor = anchor;
+        this.bounds = (Rectangle2D) bounds.clone();
+    }
+
+    /**
+     * Returns the text block.
+     *
+     * @return The text block (never <code>null</code>).
+     */
+    public TextBlock getBlock() {
+        return this.block;
+    }
+
+    /**
+     * Returns the x-coordinate of the anchor point.
+     *
+     * @return The x-coordinate.
+     */
+    public float getAnchorX() {
+        return this.anchorX;
+    }
+
+    /**
+     * Returns the y-coordinate of the anchor point.
+     *
+     * @return The y-coordinate.
+     */
+    public float getAnchorY() {
+        return this.anchorY;
+    }
+
+    /**
+     * Returns the text block anchor.
+     *
+     * @return The anchor (never <code>null</code>).
+     */
+    public TextBlockAnchor getAnchor() {
+        return this.anchor;
+    }
+
+    /**
+     * Returns the bounds of the block.
+     *
+     * @return The bounds (a copy, never <code>null</code>).
+     */
+    public Rectangle2D getBounds() {
+        return (Rectangle2D) this.bounds.clone();
+    }
+
+    /**
+     * Draws the block at its chosen position.
+     *
+     * @param g2  the graphics device.
+     */
+    public void draw(Graphics2D g2) {
+        this.block.draw(g2, this.anchorX, this.anchorY, this.anchor);
+    }
+
+}
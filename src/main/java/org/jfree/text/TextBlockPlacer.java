@@ -0,0 +1,475 @@
+/* ========================================================================
+ * JCommon : a free general purpose class library for the Java(tm) platform
+ * ========================================================================
+ *
+ * (C) Copyright 2000-2026, by Object Refinery Limited and Contributors.
+ *
+ * Project Info:  http://www.jfree.org/jcommon/index.html
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ * [Java is a trademark or registered trademark of Sun Microsystems, Inc.
+ * in the United States and other countries.]
+ *
+ * --------------------
+ * TextBlockPlacer.java
+ * --------------------
+ * (C) Copyright 2026, by Object Refinery Limited and Contributors.
+ *
+ * Original Author:  -;
+ * Contributor(s):   -;
+ *
+ * Changes
+ * -------
+ * 18-Oct-2026 : Version 1;
+ *
+ */
+
+package org.jfree.text;
+
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.jfree.ui.Size2D;
+
+/**
+ * Chooses positions for many {@link TextBlock} labels so that no two of
+ * them overlap.  Each label is added with a priority and a list of candidate
+ * positions (an anchor point and a {@link TextBlockAnchor}) in order of
+ * preference.  The labels are then placed greedily, highest priority first,
+ * each at the first candidate position whose bounds (see
+ * {@link TextBlock#calculateBounds(Graphics2D, float, float,
+ * TextBlockAnchor, float, float, double)}) do not overlap a label placed
+ * before it.  Labels with no free position are dropped.
+ * <p>
+ * The labels already placed are kept in a uniform grid with cells about
+ * the size of an average label, so each test looks at the few labels
+ * nearby and placing n labels takes close to linear time, rather than
+ * the O(n&sup2;) time of testing every pair.
+ * <p>
+ * The blocks are placed without rotation.  Bounds that just touch do not
+ * overlap.
+ */
+public class TextBlockPlacer {
+
+    /** The labels, in the order they were added. */
+    private List labels;
+
+    /**
+     * Creates a new placer with no labels.
+     */
+    public TextBlockPlacer() {
+        this.labels = new ArrayList();
+    }
+
+    /**
+     * Adds a label that can be drawn at one anchor point with any of several
+     * text block anchors.
+     *
+     * @param block  the text block (<code>null</code> not permitted).
+     * @param priority  the priority (labels with higher values are placed
+     *     first).
+     * @param x  the x-coordinate of the anchor point.
+     * @param y  the y-coordinate of the anchor point.
+     * @param anchors  the text block anchors, in order of preference
+     *     (<code>null</code> not permitted).
+     */
+    public void addLabel(TextBlock block, int priority, float x, float y,
+            TextBlockAnchor[] anchors) {
+        if (anchors == null) {
+            throw new IllegalArgumentException("Null 'anchors' argument.");
+        }
+        float[] anchorX = new float[anchors.length];
+        float[] anchorY = new float[anchors.length];
+        Arrays.fill(anchorX, x);
+        Arrays.fill(anchorY, y);
+        addLabel(block, priority, anchorX, anchorY, anchors);
+    }
+
+    /**
+     * Adds a label with a list of candidate positions.  Candidate
+     * <code>i</code> aligns the block's <code>anchors[i]</code> point with
+     * (<code>anchorX[i]</code>, <code>anchorY[i]</code>).
+     *
+     * @param block  the text block (<code>null</code> not permitted).
+     * @param priority  the priority (labels with higher values are placed
+     *     first).
+     * @param anchorX  the x-coordinates of the anchor points
+     *     (<code>null</code> not permitted).
+     * @param anchorY  the y-coordinates of the anchor points
+     *     (<code>null</code> not permitted).
+     * @param anchors  the text block anchors (<code>null</code> not
+     *     permitted).
+     */
+    public void addLabel(TextBlock block, int priority, float[] anchorX,
+            float[] anchorY, TextBlockAnchor[] anchors) {
+        if (block == null) {
+            throw new IllegalArgumentException("Null 'block' argument.");
+        }
+        if (anchorX == null) {
+            throw new IllegalArgumentException("Null 'anchorX' argument.");
+        }
+        if (anchorY == null) {
+            throw new IllegalArgumentException("Null 'anchorY' argument.");
+        }
+        if (anchors == null) {
+            throw new IllegalArgumentException("Null 'anchors' argument.");
+        }
+        if (anchorX.length != anchors.length
+                || anchorY.length != anchors.length) {
+            throw new IllegalArgumentException(
+                    "Requires arrays of the same length.");
+        }
+        for (int i = 0; i < anchors.length; i++) {
+            if (anchors[i] == null) {
+                throw new IllegalArgumentException("Null anchor at index "
+                        + i + ".");
+            }
+        }
+        this.labels.add(new Label(block, priority,
+                anchorX.clone(), anchorY.clone(),
+                anchors.clone()));
+    }
+
+    /**
+     * Returns the number of labels added.
+     *
+     * @return The label count.
+     */
+    public int getLabelCount() {
+        return this.labels.size();
+    }
+
+    /**
+     * Removes all the labels.
+     */
+    public void clear() {
+        this.labels.clear();
+    }
+
+    /**
+     * Chooses the positions of the labels.
+     *
+     * @param g2  the graphics device used to measure the blocks.
+     *
+     * @return The placements, indexed in the order the labels were added
+     *     (<code>null</code> for a label that was dropped).
+     */
+    public TextBlockPlacement[] place(Graphics2D g2) {
+        if (g2 == null) {
+            throw new IllegalArgumentException("Null 'g2' argument.");
+        }
+        int count = this.labels.size();
+        int candidates = 0;
+        for (int i = 0; i < count; i++) {
+            candidates += ((Label) this.labels.get(i)).anchors.length;
+        }
+
+        // the bounds of every candidate, label by label
+        double[] bx = new double[candidates];
+        double[] by = new double[candidates];
+        double[] bw = new double[candidates];
+        double[] bh = new double[candidates];
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        double totalWidth = 0.0;
+        double totalHeight = 0.0;
+        int c = 0;
+        for (int i = 0; i < count; i++) {
+            Label label = (Label) this.labels.get(i);
+            Size2D d = label.block.calculateDimensions(g2);
+            for (int j = 0; j < label.anchors.length; j++) {
+                float[] offsets = label.block.calculateOffsets(
+                        label.anchors[j], d.getWidth(), d.getHeight());
+                bx[c] = label.anchorX[j] + offsets[0];
+                by[c] = label.anchorY[j] + offsets[1];
+                bw[c] = d.getWidth();
+                bh[c] = d.getHeight();
+                minX = Math.min(minX, bx[c]);
+                minY = Math.min(minY, by[c]);
+                maxX = Math.max(maxX, bx[c] + bw[c]);
+                maxY = Math.max(maxY, by[c] + bh[c]);
+                totalWidth += bw[c];
+                totalHeight += bh[c];
+                c++;
+            }
+        }
+        TextBlockPlacement[] result = new TextBlockPlacement[count];
+        if (candidates == 0) {
+            return result;
+        }
+
+        Grid grid = new Grid(minX, minY, maxX, maxY,
+                totalWidth / candidates, totalHeight / candidates,
+                4 * count + 16);
+        int[] first = new int[count];
+        c = 0;
+        for (int i = 0; i < count; i++) {
+            first[i] = c;
+            c += ((Label) this.labels.get(i)).anchors.length;
+        }
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = new Integer(i);
+        }
+        // a stable sort, so labels of equal priority keep their order
+        Arrays.sort(order, new Comparator() {
+            public int compare(Object o1, Object o2) {
+                int p1 = ((Label) labels.get(((Integer) o1).intValue()))
+                        .priority;
+                int p2 = ((Label) labels.get(((Integer) o2).intValue()))
+                        .priority;
+                return p1 > p2 ? -1 : (p1 == p2 ? 0 : 1);
+            }
+        });
+        for (int k = 0; k < count; k++) {
+            int i = order[k].intValue();
+            Label label = (Label) this.labels.get(i);
+            for (int j = 0; j < label.anchors.length; j++) {
+                c = first[i] + j;
+                if (!grid.overlaps(bx[c], by[c], bw[c], bh[c])) {
+                    grid.add(bx[c], by[c], bw[c], bh[c]);
+                    result[i] = new TextBlockPlacement(label.block,
+                            label.anchorX[j], label.anchorY[j],
+                            label.anchors[j], new Rectangle2D.Double(bx[c],
+                            by[c], bw[c], bh[c]));
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A label and its candidate positions.
+     */
+    private static class Label {
+
+        /** The text block. */
+        final TextBlock block;
+
+        /** The priority. */
+        final int priority;
+
+        /** The x-coordinates of the anchor points. */
+        final float[] anchorX;
+
+        /** The y-coordinates of the anchor points. */
+        final float[] anchorY;
+
+        /** The text block anchors. */
+        final TextBlockAnchor[] anchors;
+
+        /**
+         * Creates a new label.
+         *
+         * @param block  the text block.
+         * @param priority  the priority.
+         * @param anchorX  the x-coordinates of the anchor points.
+         * @param anchorY  the y-coordinates of the anchor points.
+         * @param anchors  the text block anchors.
+         */
+        Label(TextBlock block, int priority, float[] anchorX, float[] anchorY,
+                TextBlockAnchor[] anchors) {
+            this.block = block;
+            this.priority = priority;
+            this.anchorX = anchorX;
+            this.anchorY = anchorY;
+            this.anchors = anchors;
+        }
+    }
+
+    /**
+     * A uniform grid of rectangles.  Each cell lists the rectangles that
+     * cover part of it.
+     */
+    private static class Grid {
+
+        /** The x-coordinate of the left edge of the grid. */
+        private final double originX;
+
+        /** The y-coordinate of the top edge of the grid. */
+        private final double originY;
+
+        /** The cell width. */
+        private final double cellWidth;
+
+        /** The cell height. */
+        private final double cellHeight;
+
+        /** The number of columns. */
+        private final int columns;
+
+        /** The number of rows. */
+        private final int rows;
+
+        /**
+         * The indices of the rectangles in each cell, row by row
+         * (<code>null</code> for an empty cell).
+         */
+        private final int[][] cells;
+
+        /** The number of indices in each cell. */
+        private final int[] cellCounts;
+
+        /** The rectangles, as x, y, width and height. */
+        private double[] rects;
+
+        /** The number of rectangles. */
+        private int count;
+
+        /**
+         * Creates a grid covering an area.
+         *
+         * @param minX  the smallest x-coordinate.
+         * @param minY  the smallest y-coordinate.
+         * @param maxX  the largest x-coordinate.
+         * @param maxY  the largest y-coordinate.
+         * @param cellWidth  the preferred cell width.
+         * @param cellHeight  the preferred cell height.
+         * @param maxCells  the maximum number of cells (the cells are made
+         *     larger if necessary).
+         */
+        Grid(double minX, double minY, double maxX, double maxY,
+                double cellWidth, double cellHeight, int maxCells) {
+            double w = Math.max(maxX - minX, 1.0);
+            double h = Math.max(maxY - minY, 1.0);
+            cellWidth = Math.min(Math.max(cellWidth, 1.0), w);
+            cellHeight = Math.min(Math.max(cellHeight, 1.0), h);
+            double cellCount = Math.ceil(w / cellWidth)
+                    * Math.ceil(h / cellHeight);
+            if (cellCount > maxCells) {
+                double scale = Math.sqrt(cellCount / maxCells);
+                cellWidth = Math.min(cellWidth * scale, w);
+                cellHeight = Math.min(cellHeight * scale, h);
+            }
+            this.originX = minX;
+            this.originY = minY;
+            this.cellWidth = cellWidth;
+            this.cellHeight = cellHeight;
+            this.columns = (int) Math.min(Math.ceil(w / cellWidth), maxCells);
+            this.rows = (int) Math.max(1, Math.min(Math.ceil(h / cellHeight),
+                    maxCells / this.columns));
+            this.cells = new int[this.columns * this.rows][];
+            this.cellCounts = new int[this.cells.length];
+            this.rects = new double[64];
+        }
+
+        /**
+         * Returns the column containing an x-coordinate.
+         *
+         * @param x  the x-coordinate.
+         *
+         * @return The column.
+         */
+        private int column(double x) {
+            int result = (int) ((x - this.originX) / this.cellWidth);
+            return Math.max(0, Math.min(result, this.columns - 1));
+        }
+
+        /**
+         * Returns the row containing a y-coordinate.
+         *
+         * @param y  the y-coordinate.
+         *
+         * @return The row.
+         */
+        private int row(double y) {
+            int result = (int) ((y - this.originY) / this.cellHeight);
+            return Math.max(0, Math.min(result, this.rows - 1));
+        }
+
+        /**
+         * Returns <code>true</code> if a rectangle overlaps one in the grid.
+         *
+         * @param x  the x-coordinate.
+         * @param y  the y-coordinate.
+         * @param w  the width.
+         * @param h  the height.
+         *
+         * @return A boolean.
+         */
+        boolean overlaps(double x, double y, double w, double h) {
+            int c1 = column(x + w);
+            int r1 = row(y + h);
+            for (int r = row(y); r <= r1; r++) {
+                for (int c = column(x); c <= c1; c++) {
+                    int cell = r * this.columns + c;
+                    int[] indices = this.cells[cell];
+                    for (int i = this.cellCounts[cell] - 1; i >= 0; i--) {
+                        int k = 4 * indices[i];
+                        if (this.rects[k] < x + w
+                                && x < this.rects[k] + this.rects[k + 2]
+                                && this.rects[k + 1] < y + h
+                                && y < this.rects[k + 1] + this.rects[k + 3]) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Adds a rectangle to the grid.
+         *
+         * @param x  the x-coordinate.
+         * @param y  the y-coordinate.
+         * @param w  the width.
+         * @param h  the height.
+         */
+        void add(double x, double y, double w, double h) {
+            if (4 * this.count + 4 > this.rects.length) {
+                double[] larger = new double[2 * this.rects.length];
+                System.arraycopy(this.rects, 0, larger, 0, this.rects.length);
+                this.rects = larger;
+            }
+            int index = this.count++;
+            this.rects[4 * index] = x;
+            this.rects[4 * index + 1] = y;
+            this.rects[4 * index + 2] = w;
+            this.rects[4 * index + 3] = h;
+            int c1 = column(x + w);
+            int r1 = row(y + h);
+            for (int r = row(y); r <= r1; r++) {
+                for (int c = column(x); c <= c1; c++) {
+                    int cell = r * this.columns + c;
+                    int[] indices = this.cells[cell];
+                    int n = this.cellCounts[cell];
+                    if (indices == null) {
+                        indices = new int[4];
+                        this.cells[cell] = indices;
+                    }
+                    else if (n == indices.length) {
+                        int[] larger = new int[2 * n];
+                        System.arraycopy(indices, 0, larger, 0, n);
+                        indices = larger;
+                        this.cells[cell] = indices;
+                    }
+                    indices[n] = index;
+                    this.cellCounts[cell] = n + 1;
+                }
+            }
+        }
+    }
+
+}
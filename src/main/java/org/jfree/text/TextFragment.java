@@ -47,6 +47,7 @@
  *               --> TextUtilities (DG);
  * 16-Mar-2007 : Fixed serialization for GradientPaint (DG);
  * 01-Sep-2013 : Take into account all TextAnchor offsets (DG);
+ * 18-Oct-2026 : Added drawAtBaseline() method;
  * 
  */
  
@@ -219,6 +220,31 @@ public class TextFragment implements Serializable {
     
     }
     
+    /**
+     * Draws the text fragment with the left end of its baseline at the given
+     * point.  Unlike the {@link #draw(Graphics2D, float, float, TextAnchor,
+     * float, float, double)} method, this does not measure the text.
+     *
+     * @param g2  the graphics device.
+     * @param x  the x-coordinate of the left end of the baseline.
+     * @param y  the y-coordinate of the baseline.
+     * @param rotateX  the x-coordinate of the rotation point.
+     * @param rotateY  the y-coordinate of the rotation point.
+     * @param angle  the angle.
+     */
+    void drawAtBaseline(Graphics2D g2, float x, float y, float rotateX,
+            float rotateY, double angle) {
+        g2.setFont(this.font);
+        g2.setPaint(this.paint);
+        if (angle == 0.0) {
+            TextUtilities.drawString(this.text, g2, x, y + this.baselineOffset);
+        }
+        else {
+            TextUtilities.drawRotatedString(this.text, g2, x,
+                    y + this.baselineOffset, angle, rotateX, rotateY);
+        }
+    }
+
     /**
      * Calculates the dimensions of the text fragment.
      * 
@@ -45,6 +45,8 @@
  * 03-Sep-2004 : Added a method to remove a fragment (DG);
  * 08-Jul-2005 : Fixed bug in calculateBaselineOffset() (DG);
  * 01-Sep-2013 : Updated draw() method to take into account the textAnchor (DG);
+ * 18-Oct-2026 : Added freeze() method;
+ * 18-Oct-2026 : Added getFragments() method for frozen text blocks;
  *
  */
 
@@ -74,6 +76,9 @@ public class TextLine implements Serializable {
     /** Storage for the text fragments that make up the line. */
     private List fragments;
 
+    /** A flag that indicates whether or not the fragments can be changed. */
+    private boolean frozen;
+
     /**
      * Creates a new empty line.
      */
@@ -130,6 +135,7 @@ public class TextLine implements Serializable {
      * @param fragment  the text fragment (<code>null</code> not permitted).
      */
     public void addFragment(final TextFragment fragment) {
+        checkNotFrozen();
         this.fragments.add(fragment);        
     }
     
@@ -139,8 +145,47 @@ public class TextLine implements Serializable {
      * @param fragment  the fragment to remove.
      */
     public void removeFragment(final TextFragment fragment) {
+        checkNotFrozen();
         this.fragments.remove(fragment);
     }
+
+    /**
+     * Returns the fragments in this line.  The list is not copied, so the
+     * caller must not change it.
+     *
+     * @return A list of {@link TextFragment} objects.
+     */
+    List getFragments() {
+        return this.fragments;
+    }
+
+    /**
+     * Prevents any further changes to the fragments in this line.  After
+     * this method is called, {@link #addFragment(TextFragment)} and
+     * {@link #removeFragment(TextFragment)} throw an
+     * <code>IllegalStateException</code>.
+     */
+    void freeze() {
+        this.frozen = true;
+    }
+
+    /**
+     * Returns <code>true</code> if this line can no longer be changed.
+     *
+     * @return A boolean.
+     */
+    public boolean isFrozen() {
+        return this.frozen;
+    }
+
+    /**
+     * Throws an exception if this line has been frozen.
+     */
+    private void checkNotFrozen() {
+        if (this.frozen) {
+            throw new IllegalStateException("The line is frozen.");
+        }
+    }
     
     /**
      * Draws the text line.
@@ -59,6 +59,15 @@
  *               the rotation angle is 0.0 (DG);
  * 25-Oct-2013 : Added drawStringsWithFontAttributes flag (DG);
  * 28-Feb-2014 : Fix endless loop in createTextBlock() (DG);
+ * 18-Oct-2026 : Find the break in an overlong first word with a galloping
+ *               binary search, and look up newlines once per text block;
+ * 18-Oct-2026 : Added drawString() method for use by frozen text blocks;
+ * 18-Oct-2026 : Cache the text bounds and line metrics used to align and
+ *               rotate strings;
+ * 18-Oct-2026 : Added createTextBlock() method that reuses a BreakIterator;
+ * 18-Oct-2026 : Added labelSpriteCache setting;
+ * 18-Oct-2026 : Added createTextBlock() method that cuts the last line to
+ *               fit, with the ellipsis at the start, middle or end;
  *
  */
 
@@ -76,6 +85,8 @@ import java.awt.geom.AffineTransform;
 import java.awt.geom.Rectangle2D;
 import java.text.AttributedString;
 import java.text.BreakIterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.jfree.base.BaseBoot;
 import org.jfree.ui.TextAnchor;
@@ -114,6 +125,22 @@ public class TextUtilities {
      */
     private static boolean useFontMetricsGetStringBounds;
 
+    /**
+     * The cache used to draw strings from pre-rendered images
+     * (<code>null</code> to draw every string with the graphics device).
+     */
+    private static LabelSpriteCache labelSpriteCache;
+
+    /** The maximum number of entries in the text metrics cache. */
+    private static final int MAX_TEXT_METRICS = 256;
+
+    /**
+     * The bounds and line metrics of recently aligned strings, by text, font
+     * and font render context.  Lookups do not lock, and the whole cache is
+     * cleared when it is full.
+     */
+    private static final Map textMetrics = new ConcurrentHashMap();
+
     static {
         try {
             boolean isJava14 = ObjectUtilities.isJDK14();
@@ -236,16 +263,102 @@ public class TextUtilities {
      */
     public static TextBlock createTextBlock(String text, Font font,
             Paint paint, float maxWidth, int maxLines, TextMeasurer measurer) {
+        return createTextBlock(text, font, paint, maxWidth, maxLines,
+                measurer, BreakIterator.getLineInstance());
+    }
+
+    /**
+     * Creates a new text block from the given string, breaking the
+     * text into lines so that the <code>maxWidth</code> value is
+     * respected.  If the text needs more than <code>maxLines</code> lines,
+     * the last line is replaced by as much of the remaining text as fits
+     * in <code>maxWidth</code> together with an ellipsis ("..."), which is
+     * placed at the start, in the middle or at the end of the line.  The
+     * widths are found with a binary search, so only O(log n) strings are
+     * measured.
+     *
+     * @param text  the text.
+     * @param font  the font.
+     * @param paint  the paint.
+     * @param maxWidth  the maximum width for each line.
+     * @param maxLines  the maximum number of lines.
+     * @param measurer  the text measurer.
+     * @param ellipsis  the position of the ellipsis (<code>null</code> not
+     *     permitted).
+     *
+     * @return A text block.
+     */
+    public static TextBlock createTextBlock(String text, Font font,
+            Paint paint, float maxWidth, int maxLines, TextMeasurer measurer,
+            EllipsisPosition ellipsis) {
+        if (ellipsis == null) {
+            throw new IllegalArgumentException("Null 'ellipsis' argument.");
+        }
+        return createTextBlock(text, font, paint, maxWidth, maxLines,
+                measurer, BreakIterator.getLineInstance(), ellipsis);
+    }
+
+    /**
+     * Creates a new text block from the given string, breaking the
+     * text into lines so that the <code>maxWidth</code> value is
+     * respected.  Callers that create many blocks on one thread can reuse
+     * the (line instance) break iterator.
+     *
+     * @param text  the text.
+     * @param font  the font.
+     * @param paint  the paint.
+     * @param maxWidth  the maximum width for each line.
+     * @param maxLines  the maximum number of lines.
+     * @param measurer  the text measurer.
+     * @param iterator  a line break iterator (its text is replaced).
+     *
+     * @return A text block.
+     */
+    static TextBlock createTextBlock(String text, Font font, Paint paint,
+            float maxWidth, int maxLines, TextMeasurer measurer,
+            BreakIterator iterator) {
+        return createTextBlock(text, font, paint, maxWidth, maxLines,
+                measurer, iterator, null);
+    }
+
+    /**
+     * Creates a new text block from the given string, breaking the
+     * text into lines so that the <code>maxWidth</code> value is
+     * respected.
+     *
+     * @param text  the text.
+     * @param font  the font.
+     * @param paint  the paint.
+     * @param maxWidth  the maximum width for each line.
+     * @param maxLines  the maximum number of lines.
+     * @param measurer  the text measurer.
+     * @param iterator  a line break iterator (its text is replaced).
+     * @param ellipsis  the position of the ellipsis on a cut last line
+     *     (<code>null</code> to replace the last three characters of the
+     *     line with "...", without measuring).
+     *
+     * @return A text block.
+     */
+    private static TextBlock createTextBlock(String text, Font font,
+            Paint paint, float maxWidth, int maxLines, TextMeasurer measurer,
+            BreakIterator iterator, EllipsisPosition ellipsis) {
 
         TextBlock result = new TextBlock();
-        BreakIterator iterator = BreakIterator.getLineInstance();
         iterator.setText(text);
         int current = 0;
         int lines = 0;
         int length = text.length();
+        int newline = -1;
+        int lastLineStart = 0;
         while (current < length && lines < maxLines) {
-            int next = nextLineBreak(text, current, maxWidth, iterator,
-                    measurer);
+            if (newline < current) {
+                newline = text.indexOf('\n', current);
+                if (newline < 0) {
+                    newline = Integer.MAX_VALUE;
+                }
+            }
+            int next = nextLineBreak(text, current, maxWidth, newline,
+                    iterator, measurer);
             if (next == BreakIterator.DONE) {
                 result.addLine(text.substring(current), font, paint);
                 return result;
@@ -253,6 +366,7 @@ public class TextUtilities {
                 next++; // we must take one more character or we'll loop forever
             }
             result.addLine(text.substring(current, next), font, paint);
+            lastLineStart = current;
             lines++;
             current = next;
             while (current < text.length()&& text.charAt(current) == '\n') {
@@ -264,7 +378,12 @@ public class TextUtilities {
             TextFragment lastFragment = lastLine.getLastTextFragment();
             String oldStr = lastFragment.getText();
             String newStr = "...";
-            if (oldStr.length() > 3) {
+            if (ellipsis != null) {
+                String rest = text.substring(lastLineStart).replace('\n',
+                        ' ');
+                newStr = truncate(rest, maxWidth, measurer, ellipsis);
+            }
+            else if (oldStr.length() > 3) {
                 newStr = oldStr.substring(0, oldStr.length() - 3) + "...";
             }
 
@@ -276,6 +395,102 @@ public class TextUtilities {
         return result;
     }
 
+    /**
+     * Returns the longest cut of some text, with an ellipsis in the given
+     * position, that is no wider than <code>width</code>.  As in
+     * {@link #fittingEnd(String, int, int, float, TextMeasurer, float[])},
+     * the number
+     * of characters kept is found with a galloping binary search.
+     *
+     * @param text  the text (<code>null</code> not permitted).
+     * @param width  the target display width.
+     * @param measurer  the text measurer.
+     * @param ellipsis  the position of the ellipsis.
+     *
+     * @return The cut text (just the ellipsis if nothing else fits, even if
+     *     the ellipsis is wider than <code>width</code>).
+     */
+    private static String truncate(String text, float width,
+            TextMeasurer measurer, EllipsisPosition ellipsis) {
+        int length = text.length();
+        int low = 0;  // always accepted
+        int high = length + 1;  // never fits
+        int step = 16;
+        while (low < length) {
+            int probe = Math.min(length, step);
+            if (!fits(cut(text, probe, ellipsis), width, measurer)) {
+                high = probe;
+                break;
+            }
+            low = probe;
+            step *= 2;
+        }
+        while (high - low > 1) {
+            int mid = (low + high) >>> 1;
+            if (fits(cut(text, mid, ellipsis), width, measurer)) {
+                low = mid;
+            }
+            else {
+                high = mid;
+            }
+        }
+        return cut(text, low, ellipsis);
+    }
+
+    /**
+     * Returns <code>true</code> if a string is no wider than
+     * <code>width</code>.
+     *
+     * @param s  the string.
+     * @param width  the width.
+     * @param measurer  the text measurer.
+     *
+     * @return A boolean.
+     */
+    private static boolean fits(String s, float width,
+            TextMeasurer measurer) {
+        return measurer.getStringWidth(s, 0, s.length()) <= width;
+    }
+
+    /**
+     * Returns some text cut to <code>count</code> characters (fewer if there
+     * is white space next to the cut) with an ellipsis in the given
+     * position.
+     *
+     * @param text  the text.
+     * @param count  the number of characters to keep.
+     * @param ellipsis  the position of the ellipsis.
+     *
+     * @return The cut text.
+     */
+    private static String cut(String text, int count,
+            EllipsisPosition ellipsis) {
+        int length = text.length();
+        int head;
+        int tail;
+        if (ellipsis == EllipsisPosition.START) {
+            head = 0;
+            tail = count;
+        }
+        else if (ellipsis == EllipsisPosition.MIDDLE) {
+            head = (count + 1) / 2;
+            tail = count / 2;
+        }
+        else {
+            head = count;
+            tail = 0;
+        }
+        while (head > 0 && Character.isWhitespace(text.charAt(head - 1))) {
+            head--;
+        }
+        int tailStart = length - tail;
+        while (tailStart < length
+                && Character.isWhitespace(text.charAt(tailStart))) {
+            tailStart++;
+        }
+        return text.substring(0, head) + "..." + text.substring(tailStart);
+    }
+
     /**
      * Returns the character index of the next line break.  If the next
      * character is wider than <code>width</code> this method will return
@@ -284,13 +499,16 @@ public class TextUtilities {
      * @param text  the text (<code>null</code> not permitted).
      * @param start  the start index.
      * @param width  the target display width.
+     * @param newline  the index of the first '\n' at or after
+     *     <code>start</code> (<code>Integer.MAX_VALUE</code> if there is
+     *     none).
      * @param iterator  the word break iterator.
      * @param measurer  the text measurer.
      *
      * @return The index of the next line break.
      */
-    private static int nextLineBreak(String text, int start, float width, 
-            BreakIterator iterator, TextMeasurer measurer) {
+    private static int nextLineBreak(String text, int start, float width,
+            int newline, BreakIterator iterator, TextMeasurer measurer) {
 
         // this method is (loosely) based on code in JFreeReport's
         // TextParagraph class
@@ -298,26 +516,26 @@ public class TextUtilities {
         int end;
         float x = 0.0f;
         boolean firstWord = true;
-        int newline = text.indexOf('\n', start);
-        if (newline < 0) {
-            newline = Integer.MAX_VALUE;
-        }
         while (((end = iterator.following(current)) != BreakIterator.DONE)) {
-            x += measurer.getStringWidth(text, current, end);
-            if (x > width) {
-                if (firstWord) {
-                    while (measurer.getStringWidth(text, start, end) > width) {
-                        end--;
-                        if (end <= start) {
-                            return end;
-                        }
-                    }
-                    return end;
-                }
-                else {
-                    end = iterator.previous();
-                    return end;
+            if (firstWord) {
+                // a long first word (a URL, say) is searched rather than
+                // measured in full, so that it costs about as much as the
+                // part of it that fits on the line
+                float[] fitWidth = new float[1];
+                int fit = fittingEnd(text, start, end, width, measurer,
+                        fitWidth);
+                if (fit < end) {
+                    return fit;
                 }
+                // the search has measured the whole word
+                x = fitWidth[0];
+            }
+            else {
+                x += measurer.getStringWidth(text, current, end);
+            }
+            if (x > width) {
+                end = iterator.previous();
+                return end;
             }
             else {
                 if (end > newline) {
@@ -331,6 +549,57 @@ public class TextUtilities {
         return BreakIterator.DONE;
     }
 
+    /**
+     * Returns the largest index <code>end</code> between <code>start</code>
+     * and <code>limit</code> for which the text from <code>start</code> to
+     * <code>end</code> is no wider than <code>width</code>.  The search
+     * starts with a step long enough for most words and doubles it until it
+     * overshoots, then bisects, so it needs O(log n) measurements, none of
+     * them much longer than the result.
+     *
+     * @param text  the text (<code>null</code> not permitted).
+     * @param start  the start index.
+     * @param limit  the highest index to return.
+     * @param width  the target display width.
+     * @param measurer  the text measurer.
+     * @param widthOut  an array whose first element is set to the width of
+     *     the text from <code>start</code> to the returned index.
+     *
+     * @return The index (<code>start</code> if the first character does not
+     *     fit).
+     */
+    private static int fittingEnd(String text, int start, int limit,
+            float width, TextMeasurer measurer, float[] widthOut) {
+        int low = start;  // always fits
+        float lowWidth = 0.0f;
+        int high = limit + 1;  // never fits
+        int step = 16;
+        while (low < limit) {
+            int probe = Math.min(limit, start + step);
+            float w = measurer.getStringWidth(text, start, probe);
+            if (w > width) {
+                high = probe;
+                break;
+            }
+            low = probe;
+            lowWidth = w;
+            step *= 2;
+        }
+        while (high - low > 1) {
+            int mid = (low + high) >>> 1;
+            float w = measurer.getStringWidth(text, start, mid);
+            if (w > width) {
+                high = mid;
+            }
+            else {
+                low = mid;
+                lowWidth = w;
+            }
+        }
+        widthOut[0] = lowWidth;
+        return low;
+    }
+
     /**
      * Returns the bounds for the specified text.
      *
@@ -388,14 +657,32 @@ public class TextUtilities {
         // adjust text bounds to match string position
         textBounds.setRect(x + adjust[0], y + adjust[1] + adjust[2],
             textBounds.getWidth(), textBounds.getHeight());
+        drawString(text, g2, x + adjust[0], y + adjust[1]);
+        return textBounds;
+    }
+
+    /**
+     * Draws a string with the left end of its baseline at (x, y), taking
+     * account of the drawStringsWithFontAttributes flag.
+     *
+     * @param text  the text.
+     * @param g2  the graphics device.
+     * @param x  the x coordinate (Java 2D).
+     * @param y  the y coordinate (Java 2D).
+     */
+    static void drawString(String text, Graphics2D g2, float x, float y) {
+        LabelSpriteCache cache = labelSpriteCache;
+        if (cache != null && !drawStringsWithFontAttributes
+                && cache.drawString(text, g2, x, y)) {
+            return;
+        }
         if (!drawStringsWithFontAttributes) {
-            g2.drawString(text, x + adjust[0], y + adjust[1]);
+            g2.drawString(text, x, y);
         } else {
             AttributedString as = new AttributedString(text, 
                     g2.getFont().getAttributes());
-            g2.drawString(as.getIterator(), x + adjust[0], y + adjust[1]);
+            g2.drawString(as.getIterator(), x, y);
         }
-        return textBounds;
     }
 
     /**
@@ -418,16 +705,13 @@ public class TextUtilities {
             String text, TextAnchor anchor, Rectangle2D textBounds) {
 
         float[] result = new float[3];
-        FontRenderContext frc = g2.getFontRenderContext();
-        Font f = g2.getFont();
-        FontMetrics fm = g2.getFontMetrics(f);
-        Rectangle2D bounds = TextUtilities.getTextBounds(text, g2, fm);
-        LineMetrics metrics = f.getLineMetrics(text, frc);
-        float ascent = metrics.getAscent();
+        TextMetrics metrics = getTextMetrics(g2, text);
+        Rectangle2D bounds = metrics.bounds;
+        float ascent = metrics.ascent;
         result[2] = -ascent;
         float halfAscent = ascent / 2.0f;
-        float descent = metrics.getDescent();
-        float leading = metrics.getLeading();
+        float descent = metrics.descent;
+        float leading = metrics.leading;
         float xAdj = 0.0f;
         float yAdj = 0.0f;
 
@@ -451,7 +735,7 @@ public class TextUtilities {
             yAdj = 0.0f;
         }
         else if (anchor.isBottom()) {
-            yAdj = -metrics.getDescent() - metrics.getLeading();
+            yAdj = -descent - leading;
         }
         if (textBounds != null) {
             textBounds.setRect(bounds);
@@ -617,15 +901,13 @@ public class TextUtilities {
             logger.debug("TextBoundsAnchorOffsets = " + textAdj[0] + ", "
                     + textAdj[1]);
         }
-        float[] rotateAdj = deriveRotationAnchorOffsets(g2, text, 
-                rotationAnchor);
-        if (logger.isDebugEnabled()) {
-            logger.debug("RotationAnchorOffsets = " + rotateAdj[0] + ", "
-                    + rotateAdj[1]);
-        }
-        Shape result = calculateRotatedStringBounds(text, g2,
-                x + textAdj[0], y + textAdj[1], angle,
-                x + textAdj[0] + rotateAdj[0], y + textAdj[1] + rotateAdj[1]);
+        // the bounds rotated about the rotation anchor, for text drawn at
+        // the origin, only need to be moved into place
+        Shape rotated = getTextMetrics(g2, text).getRotatedBounds(g2, text,
+                angle, rotationAnchor);
+        AffineTransform translate = AffineTransform.getTranslateInstance(
+                x + textAdj[0], y + textAdj[1]);
+        Shape result = translate.createTransformedShape(rotated);
         return result;
         
     }
@@ -647,15 +929,12 @@ public class TextUtilities {
             String text, TextAnchor anchor) {
 
         float[] result = new float[2];
-        FontRenderContext frc = g2.getFontRenderContext();
-        Font f = g2.getFont();
-        FontMetrics fm = g2.getFontMetrics(f);
-        Rectangle2D bounds = TextUtilities.getTextBounds(text, g2, fm);
-        LineMetrics metrics = f.getLineMetrics(text, frc);
-        float ascent = metrics.getAscent();
+        TextMetrics metrics = getTextMetrics(g2, text);
+        Rectangle2D bounds = metrics.bounds;
+        float ascent = metrics.ascent;
         float halfAscent = ascent / 2.0f;
-        float descent = metrics.getDescent();
-        float leading = metrics.getLeading();
+        float descent = metrics.descent;
+        float leading = metrics.leading;
         float xAdj = 0.0f;
         float yAdj = 0.0f;
 
@@ -679,7 +958,7 @@ public class TextUtilities {
             yAdj = 0.0f;
         }
         else if (anchor.isBottom()) {
-            yAdj = -metrics.getDescent() - metrics.getLeading();
+            yAdj = -descent - leading;
         }
         result[0] = xAdj;
         result[1] = yAdj;
@@ -702,14 +981,12 @@ public class TextUtilities {
             String text, TextAnchor anchor) {
 
         float[] result = new float[2];
-        FontRenderContext frc = g2.getFontRenderContext();
-        LineMetrics metrics = g2.getFont().getLineMetrics(text, frc);
-        FontMetrics fm = g2.getFontMetrics();
-        Rectangle2D bounds = TextUtilities.getTextBounds(text, g2, fm);
-        float ascent = metrics.getAscent();
+        TextMetrics metrics = getTextMetrics(g2, text);
+        Rectangle2D bounds = metrics.bounds;
+        float ascent = metrics.ascent;
         float halfAscent = ascent / 2.0f;
-        float descent = metrics.getDescent();
-        float leading = metrics.getLeading();
+        float descent = metrics.descent;
+        float leading = metrics.leading;
         float xAdj = 0.0f;
         float yAdj = 0.0f;
 
@@ -736,7 +1013,7 @@ public class TextUtilities {
             yAdj = 0.0f;
         }
         else if (anchor.isBottom()) {
-            yAdj = metrics.getDescent() + metrics.getLeading();
+            yAdj = descent + leading;
         }
         result[0] = xAdj;
         result[1] = yAdj;
@@ -766,8 +1043,7 @@ public class TextUtilities {
         if ((text == null) || (text.equals(""))) {
             return null;
         }
-        FontMetrics fm = g2.getFontMetrics();
-        Rectangle2D bounds = TextUtilities.getTextBounds(text, g2, fm);
+        Rectangle2D bounds = getTextMetrics(g2, text).bounds;
         AffineTransform translate = AffineTransform.getTranslateInstance(
                 textX, textY);
         Shape translatedBounds = translate.createTransformedShape(bounds);
@@ -798,6 +1074,58 @@ public class TextUtilities {
      */
     public static void setUseFontMetricsGetStringBounds(boolean use) {
         useFontMetricsGetStringBounds = use;
+        // the cached bounds depend on this flag
+        textMetrics.clear();
+    }
+
+    /**
+     * Returns the cache used to draw strings from pre-rendered images.
+     *
+     * @return The cache (possibly <code>null</code>).
+     *
+     * @see #setLabelSpriteCache(LabelSpriteCache)
+     */
+    public static LabelSpriteCache getLabelSpriteCache() {
+        return labelSpriteCache;
+    }
+
+    /**
+     * Sets the cache used to draw strings from pre-rendered images.  When a
+     * cache is set, the strings drawn by this class (including those in
+     * text blocks and text fragments) are copied from the cache where
+     * possible.  The default is <code>null</code> (no cache).
+     *
+     * @param cache  the cache (<code>null</code> permitted).
+     */
+    public static void setLabelSpriteCache(LabelSpriteCache cache) {
+        labelSpriteCache = cache;
+    }
+
+    /**
+     * Returns the bounds and line metrics for a string in the current font
+     * of a graphics device, from the cache if possible.
+     *
+     * @param g2  the graphics device.
+     * @param text  the text.
+     *
+     * @return The metrics.
+     */
+    private static TextMetrics getTextMetrics(Graphics2D g2, String text) {
+        Font font = g2.getFont();
+        FontRenderContext frc = g2.getFontRenderContext();
+        TextMetricsKey key = new TextMetricsKey(text, font, frc);
+        TextMetrics result = (TextMetrics) textMetrics.get(key);
+        if (result == null) {
+            FontMetrics fm = g2.getFontMetrics(font);
+            Rectangle2D bounds = getTextBounds(text, g2, fm);
+            LineMetrics metrics = font.getLineMetrics(text, frc);
+            result = new TextMetrics(bounds, metrics);
+            if (textMetrics.size() >= MAX_TEXT_METRICS) {
+                textMetrics.clear();
+            }
+            textMetrics.put(key, result);
+        }
+        return result;
     }
 
     /**
@@ -850,4 +1178,150 @@ public class TextUtilities {
         TextUtilities.drawStringsWithFontAttributes = b;
     }
 
+    /**
+     * The key for the text metrics cache.
+     */
+    private static class TextMetricsKey {
+
+        /** The text. */
+        private final String text;
+
+        /** The font. */
+        private final Font font;
+
+        /** The font render context. */
+        private final FontRenderContext frc;
+
+        /**
+         * Creates a new key.
+         *
+         * @param text  the text.
+         * @param font  the font.
+         * @param frc  the font render context.
+         */
+        TextMetricsKey(String text, Font font, FontRenderContext frc) {
+            this.text = text;
+            this.font = font;
+            this.frc = frc;
+        }
+
+        /**
+         * Tests this key for equality with an arbitrary object.
+         *
+         * @param obj  the object (<code>null</code> permitted).
+         *
+         * @return A boolean.
+         */
+        public boolean equals(Object obj) {
+            if (!(obj instanceof TextMetricsKey)) {
+                return false;
+            }
+            TextMetricsKey that = (TextMetricsKey) obj;
+            return this.text.equals(that.text) && this.font.equals(that.font)
+                    && this.frc.equals(that.frc);
+        }
+
+        /**
+         * Returns a hash code for this key.
+         *
+         * @return A hash code.
+         */
+        public int hashCode() {
+            int result = this.text.hashCode();
+            result = 37 * result + this.font.hashCode();
+            result = 37 * result + this.frc.hashCode();
+            return result;
+        }
+    }
+
+    /**
+     * The bounds and line metrics of a string, and its bounds after the most
+     * recently requested rotation.
+     */
+    private static class TextMetrics {
+
+        /** The text bounds (never changed after construction). */
+        final Rectangle2D bounds;
+
+        /** The ascent. */
+        final float ascent;
+
+        /** The descent. */
+        final float descent;
+
+        /** The leading. */
+        final float leading;
+
+        /** The most recently requested rotated bounds. */
+        private volatile RotatedBounds rotated;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param bounds  the text bounds.
+         * @param metrics  the line metrics.
+         */
+        TextMetrics(Rectangle2D bounds, LineMetrics metrics) {
+            this.bounds = bounds;
+            this.ascent = metrics.getAscent();
+            this.descent = metrics.getDescent();
+            this.leading = metrics.getLeading();
+        }
+
+        /**
+         * Returns the bounds of the text, drawn at the origin and rotated
+         * about the given anchor.
+         *
+         * @param g2  the graphics device.
+         * @param text  the text.
+         * @param angle  the rotation angle.
+         * @param rotationAnchor  the rotation anchor.
+         *
+         * @return The rotated bounds.
+         */
+        Shape getRotatedBounds(Graphics2D g2, String text, double angle,
+                TextAnchor rotationAnchor) {
+            RotatedBounds r = this.rotated;
+            if (r == null || r.angle != angle
+                    || r.rotationAnchor != rotationAnchor) {
+                float[] rotateAdj = deriveRotationAnchorOffsets(g2, text,
+                        rotationAnchor);
+                AffineTransform rotate = AffineTransform.getRotateInstance(
+                        angle, rotateAdj[0], rotateAdj[1]);
+                r = new RotatedBounds(angle, rotationAnchor,
+                        rotate.createTransformedShape(this.bounds));
+                this.rotated = r;
+            }
+            return r.shape;
+        }
+    }
+
+    /**
+     * Text bounds after a rotation.
+     */
+    private static class RotatedBounds {
+
+        /** The rotation angle. */
+        final double angle;
+
+        /** The rotation anchor. */
+        final TextAnchor rotationAnchor;
+
+        /** The rotated bounds (never changed after construction). */
+        final Shape shape;
+
+        /**
+         * Creates a new instance.
+         *
+         * @param angle  the rotation angle.
+         * @param rotationAnchor  the rotation anchor.
+         * @param shape  the rotated bounds.
+         */
+        RotatedBounds(double angle, TextAnchor rotationAnchor, Shape shape) {
+            this.angle = angle;
+            this.rotationAnchor = rotationAnchor;
+            this.shape = shape;
+        }
+    }
+
 }
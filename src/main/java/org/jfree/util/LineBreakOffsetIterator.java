@@ -0,0 +1,301 @@
+/* ========================================================================
+ * JCommon : a free general purpose class library for the Java(tm) platform
+ * ========================================================================
+ *
+ * (C) Copyright 2000-2026, by Object Refinery Limited and Contributors.
+ *
+ * Project Info:  http://www.jfree.org/jcommon/index.html
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ * [Java is a trademark or registered trademark of Sun Microsystems, Inc.
+ * in the United States and other countries.]
+ *
+ * ----------------------------
+ * LineBreakOffsetIterator.java
+ * ----------------------------
+ * (C) Copyright 2026, by Object Refinery Limited and Contributors.
+ *
+ * Original Author:  -;
+ * Contributor(s):   -;
+ *
+ * Changes
+ * -------
+ * 18-Oct-2026 : Version 1;
+ *
+ */
+
+package org.jfree.util;
+
+/**
+ * Finds the line breaks in text, in the same way as
+ * {@link LineBreakIterator} ('\n', '\r' and "\r\n" each end a line), but
+ * works on any <code>CharSequence</code> or a range of a
+ * <code>char[]</code>, reports only the offsets of the breaks and allocates
+ * nothing while it runs.
+ * <p>
+ * Instances of this class are not synchronized.  The static
+ * {@link #breaks(CharSequence)} methods find all the breaks in a text at
+ * once, and can be called by any number of threads.
+ */
+public class LineBreakOffsetIterator {
+
+    /** A useful constant. */
+    public static final int DONE = -1;
+
+    /** The text, if it is a sequence (otherwise <code>null</code>). */
+    private CharSequence sequence;
+
+    /** The text, if it is an array (otherwise <code>null</code>). */
+    private char[] array;
+
+    /** The index after the last character of the text. */
+    private int end;
+
+    /** The current position (or {@link #DONE}). */
+    private int position;
+
+    /**
+     * Creates a new iterator with no text.
+     */
+    public LineBreakOffsetIterator() {
+        setText("");
+    }
+
+    /**
+     * Creates a new iterator.
+     *
+     * @param text  the text (<code>null</code> not permitted).
+     */
+    public LineBreakOffsetIterator(CharSequence text) {
+        setText(text);
+    }
+
+    /**
+     * Creates a new iterator for a range of an array.  The array is not
+     * copied.
+     *
+     * @param text  the array (<code>null</code> not permitted).
+     * @param start  the index of the first character.
+     * @param end  the index after the last character.
+     */
+    public LineBreakOffsetIterator(char[] text, int start, int end) {
+        setText(text, start, end);
+    }
+
+    /**
+     * Sets the text and moves to its start.
+     *
+     * @param text  the text (<code>null</code> not permitted).
+     */
+    public void setText(CharSequence text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Null 'text' argument.");
+        }
+        this.sequence = text;
+        this.array = null;
+        this.position = 0;
+        this.end = text.length();
+    }
+
+    /**
+     * Sets the text to a range of an array (which is not copied) and moves
+     * to the start of the range.  The offsets returned by this iterator are
+     * indices into the array.
+     *
+     * @param text  the array (<code>null</code> not permitted).
+     * @param start  the index of the first character.
+     * @param end  the index after the last character.
+     */
+    public void setText(char[] text, int start, int end) {
+        if (text == null) {
+            throw new IllegalArgumentException("Null 'text' argument.");
+        }
+        if (start < 0 || start > end || end > text.length) {
+            throw new IndexOutOfBoundsException("Invalid range [" + start
+                    + ", " + end + ") for an array of length "
+                    + text.length + ".");
+        }
+        this.sequence = null;
+        this.array = text;
+        this.position = start;
+        this.end = end;
+    }
+
+    /**
+     * Returns <code>true</code> if {@link #nextWithEnd()} would return a
+     * position rather than {@link #DONE}.
+     *
+     * @return A boolean.
+     */
+    public boolean hasNext() {
+        return this.position != DONE && this.position < this.end;
+    }
+
+    /**
+     * Returns the position after the next line break (so a "\r\n" pair
+     * counts as one break), or {@link #DONE} if there are no more breaks.
+     *
+     * @return A position.
+     */
+    public int nextPosition() {
+        if (this.position == DONE) {
+            return DONE;
+        }
+        this.position = this.array != null
+                ? next(this.array, this.position, this.end)
+                : next(this.sequence, this.position, this.end);
+        return this.position;
+    }
+
+    /**
+     * Same as {@link #nextPosition()}, but treats the end of the text as a
+     * final break if the text does not end with one (like
+     * <code>BufferedReader.readLine()</code>).
+     *
+     * @return A position.
+     */
+    public int nextWithEnd() {
+        if (this.position == DONE) {
+            return DONE;
+        }
+        if (this.position == this.end) {
+            this.position = DONE;
+            return DONE;
+        }
+        final int result = nextPosition();
+        if (result == DONE) {
+            return this.end;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the positions of all the line breaks in a text, as
+     * {@link #nextPosition()} would return them.  The text is scanned twice
+     * so that the result is the only object allocated.
+     *
+     * @param text  the text (<code>null</code> not permitted).
+     *
+     * @return The positions (possibly an empty array).
+     */
+    public static int[] breaks(CharSequence text) {
+        if (text == null) {
+            throw new IllegalArgumentException("Null 'text' argument.");
+        }
+        final int length = text.length();
+        int count = 0;
+        int p = next(text, 0, length);
+        while (p != DONE) {
+            count++;
+            p = next(text, p, length);
+        }
+        final int[] result = new int[count];
+        p = 0;
+        for (int i = 0; i < count; i++) {
+            p = next(text, p, length);
+            result[i] = p;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the positions of all the line breaks in a range of an array,
+     * as {@link #nextPosition()} would return them.
+     *
+     * @param text  the array (<code>null</code> not permitted).
+     * @param start  the index of the first character.
+     * @param end  the index after the last character.
+     *
+     * @return The positions (possibly an empty array).
+     */
+    public static int[] breaks(char[] text, int start, int end) {
+        if (text == null) {
+            throw new IllegalArgumentException("Null 'text' argument.");
+        }
+        if (start < 0 || start > end || end > text.length) {
+            throw new IndexOutOfBoundsException("Invalid range [" + start
+                    + ", " + end + ") for an array of length "
+                    + text.length + ".");
+        }
+        int count = 0;
+        int p = next(text, start, end);
+        while (p != DONE) {
+            count++;
+            p = next(text, p, end);
+        }
+        final int[] result = new int[count];
+        p = start;
+        for (int i = 0; i < count; i++) {
+            p = next(text, p, end);
+            result[i] = p;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the position after the first line break at or after
+     * <code>from</code>.
+     *
+     * @param text  the text.
+     * @param from  the start of the search.
+     * @param end  the end of the text.
+     *
+     * @return The position, or {@link #DONE} if there is no break.
+     */
+    private static int next(CharSequence text, int from, int end) {
+        for (int i = from; i < end; i++) {
+            final char c = text.charAt(i);
+            if (c == '\n') {
+                return i + 1;
+            }
+            if (c == '\r') {
+                if (i + 1 < end && text.charAt(i + 1) == '\n') {
+                    return i + 2;
+                }
+                return i + 1;
+            }
+        }
+        return DONE;
+    }
+
+    /**
+     * Returns the position after the first line break at or after
+     * <code>from</code>.
+     *
+     * @param text  the text.
+     * @param from  the start of the search.
+     * @param end  the end of the text.
+     *
+     * @return The position, or {@link #DONE} if there is no break.
+     */
+    private static int next(char[] text, int from, int end) {
+        for (int i = from; i < end; i++) {
+            final char c = text[i];
+            if (c == '\n') {
+                return i + 1;
+            }
+            if (c == '\r') {
+                if (i + 1 < end && text[i + 1] == '\n') {
+                    return i + 2;
+                }
+                return i + 1;
+            }
+        }
+        return DONE;
+    }
+
+}
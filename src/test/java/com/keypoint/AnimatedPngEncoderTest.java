@@ -0,0 +1,264 @@
+package com.keypoint;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import javax.imageio.ImageIO;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests for the {@link AnimatedPngEncoder} class.
+ */
+public class AnimatedPngEncoderTest extends TestCase {
+
+    /**
+     * Returns the tests as a test suite.
+     *
+     * @return The test suite.
+     */
+    public static Test suite() {
+        return new TestSuite(AnimatedPngEncoderTest.class);
+    }
+
+    /**
+     * Constructs a new set of tests.
+     *
+     * @param name  the name of the tests.
+     */
+    public AnimatedPngEncoderTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Reads the chunks of a PNG file, checking the CRC of each one.
+     *
+     * @param png  the file.
+     *
+     * @return A list of (type, data) pairs.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    private static List readChunks(byte[] png) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+                png, 8, png.length - 8));
+        List chunks = new ArrayList();
+        CRC32 crc = new CRC32();
+        while (in.available() > 0) {
+            int length = in.readInt();
+            byte[] type = new byte[4];
+            in.readFully(type);
+            byte[] data = new byte[length];
+            in.readFully(data);
+            crc.reset();
+            crc.update(type);
+            crc.update(data);
+            assertEquals((int) crc.getValue(), in.readInt());
+            chunks.add(new Object[] {new String(type, "US-ASCII"), data});
+        }
+        return chunks;
+    }
+
+    /**
+     * Returns a four byte big-endian integer from an array.
+     *
+     * @param data  the array.
+     * @param offset  the offset.
+     *
+     * @return The integer.
+     */
+    private static int getInt4(byte[] data, int offset) {
+        return ((data[offset] & 0xff) << 24)
+                | ((data[offset + 1] & 0xff) << 16)
+                | ((data[offset + 2] & 0xff) << 8) | (data[offset + 3] & 0xff);
+    }
+
+    /**
+     * Writes a chunk to a stream.
+     *
+     * @param out  the stream.
+     * @param type  the chunk type.
+     * @param data  the data.
+     * @param off  the offset of the data.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    private static void writeChunk(ByteArrayOutputStream out, String type,
+            byte[] data, int off) throws IOException {
+        PngChunkOutputStream.writeChunk(out, new CRC32(),
+                type.getBytes("US-ASCII"), data, off, data.length - off);
+    }
+
+    /**
+     * Encodes a sequence of frames and checks that each frame, decoded as a
+     * plain PNG and drawn over the frame before, gives the original image.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    public void testFrames() throws IOException {
+        BufferedImage[] frames = new BufferedImage[4];
+        frames[0] = PngEncoderTest.createImage(160, 120);
+        for (int i = 1; i < frames.length; i++) {
+            frames[i] = new BufferedImage(160, 120,
+                    BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g2 = frames[i].createGraphics();
+            g2.drawImage(frames[i - 1], 0, 0, null);
+            if (i != 2) {
+                g2.setColor(new Color(0, 255, 0, 80 * i));
+                g2.fillRect(20 * i, 30, 10, 15);
+            }
+            g2.dispose();
+        }
+
+        AnimatedPngEncoder encoder = new AnimatedPngEncoder();
+        encoder.setEncodeAlpha(true);
+        encoder.setFilter(PngEncoder.FILTER_ADAPTIVE);
+        encoder.setCompressionLevel(9);
+        encoder.setIdatChunkSize(1000);
+        encoder.setPlayCount(3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.start(out, frames.length);
+        for (int i = 0; i < frames.length; i++) {
+            encoder.addFrame(frames[i], 100 * (i + 1));
+        }
+        encoder.finish();
+        byte[] png = out.toByteArray();
+
+        // viewers without animation support see the first frame
+        PngEncoderTest.assertSameImage(frames[0], png, true);
+
+        List chunks = readChunks(png);
+        Object[] first = (Object[]) chunks.get(0);
+        assertEquals("IHDR", first[0]);
+        byte[] ihdr = (byte[]) first[1];
+        Object[] actl = (Object[]) chunks.get(1);
+        assertEquals("acTL", actl[0]);
+        assertEquals(4, getInt4((byte[]) actl[1], 0));
+        assertEquals(3, getInt4((byte[]) actl[1], 4));
+        assertEquals("IEND", ((Object[]) chunks.get(chunks.size() - 1))[0]);
+
+        BufferedImage canvas = new BufferedImage(160, 120,
+                BufferedImage.TYPE_INT_ARGB);
+        int sequence = 0;
+        int frame = -1;
+        int[] box = null;
+        ByteArrayOutputStream frameData = null;
+        for (int i = 0; i <= chunks.size(); i++) {
+            String type = "IEND";
+            byte[] data = null;
+            if (i < chunks.size()) {
+                type = (String) ((Object[]) chunks.get(i))[0];
+                data = (byte[]) ((Object[]) chunks.get(i))[1];
+            }
+            if (frameData != null && (type.equals("fcTL")
+                    || type.equals("IEND"))) {
+                // decode the finished frame as a plain PNG
+                byte[] header = ihdr.clone();
+                PngEncoder.setInt4(header, 0, box[0]);
+                PngEncoder.setInt4(header, 4, box[1]);
+                ByteArrayOutputStream single = new ByteArrayOutputStream();
+                single.write(png, 0, 8);
+                writeChunk(single, "IHDR", header, 0);
+                writeChunk(single, "IDAT", frameData.toByteArray(), 0);
+                writeChunk(single, "IEND", new byte[0], 0);
+                BufferedImage part = ImageIO.read(new ByteArrayInputStream(
+                        single.toByteArray()));
+                for (int y = 0; y < box[1]; y++) {
+                    for (int x = 0; x < box[0]; x++) {
+                        canvas.setRGB(box[2] + x, box[3] + y,
+                                part.getRGB(x, y));
+                    }
+                }
+                PngEncoderTest.assertSameImage(canvas,
+                        toPng(frames[frame]), true);
+                frameData = null;
+            }
+            if (type.equals("fcTL")) {
+                assertEquals(sequence++, getInt4(data, 0));
+                frame++;
+                box = new int[] {getInt4(data, 4), getInt4(data, 8),
+                        getInt4(data, 12), getInt4(data, 16)};
+                assertEquals(100 * frame + 100, ((data[20] & 0xff) << 8)
+                        | (data[21] & 0xff));
+                frameData = new ByteArrayOutputStream();
+            }
+            else if (type.equals("IDAT")) {
+                frameData.write(data);
+            }
+            else if (type.equals("fdAT")) {
+                assertEquals(sequence++, getInt4(data, 0));
+                frameData.write(data, 4, data.length - 4);
+            }
+        }
+        assertEquals(3, frame);
+        assertTrue(png.length < 2 * toPng(frames[0]).length);
+    }
+
+    /**
+     * Encodes an image with a plain encoder.
+     *
+     * @param image  the image.
+     *
+     * @return The PNG bytes.
+     */
+    private static byte[] toPng(BufferedImage image) {
+        return new PngEncoder(image, true).pngEncode();
+    }
+
+    /**
+     * Check that adding the wrong number of frames is reported.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    public void testFrameCount() throws IOException {
+        AnimatedPngEncoder encoder = new AnimatedPngEncoder();
+        encoder.start(new ByteArrayOutputStream(), 2);
+        encoder.addFrame(PngEncoderTest.createImage(10, 10), 50);
+        try {
+            encoder.finish();
+            fail("Should have thrown an IllegalStateException.");
+        }
+        catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            encoder.addFrame(PngEncoderTest.createImage(11, 10), 50);
+            fail("Should have thrown an IllegalArgumentException.");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+        encoder.addFrame(PngEncoderTest.createImage(10, 10), 50);
+        encoder.finish();
+    }
+
+    /**
+     * Check that asking for a palette image is ignored, and the frames are
+     * written in truecolour.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    public void testIndexedColor() throws IOException {
+        AnimatedPngEncoder encoder = new AnimatedPngEncoder();
+        encoder.setIndexedColor(true);
+        assertFalse(encoder.getIndexedColor());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.start(out, 1);
+        encoder.addFrame(PngEncoderTest.createImage(10, 10), 50);
+        encoder.finish();
+        Object[] ihdr = (Object[]) readChunks(out.toByteArray()).get(0);
+        assertEquals("IHDR", ihdr[0]);
+        assertEquals(2, ((byte[]) ihdr[1])[9]);  // truecolour
+    }
+
+}
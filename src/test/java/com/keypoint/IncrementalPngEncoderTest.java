@@ -0,0 +1,231 @@
+package com.keypoint;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.ImageConsumer;
+import java.awt.image.ImageProducer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.Adler32;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests for the {@link IncrementalPngEncoder} class.
+ */
+public class IncrementalPngEncoderTest extends TestCase {
+
+    /**
+     * Returns the tests as a test suite.
+     *
+     * @return The test suite.
+     */
+    public static Test suite() {
+        return new TestSuite(IncrementalPngEncoderTest.class);
+    }
+
+    /**
+     * Constructs a new set of tests.
+     *
+     * @param name  the name of the tests.
+     */
+    public IncrementalPngEncoderTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Fills a rectangle of an image with a colour.
+     *
+     * @param image  the image.
+     * @param r  the rectangle.
+     * @param c  the colour.
+     */
+    private static void fill(BufferedImage image, Rectangle r, Color c) {
+        Graphics2D g2 = image.createGraphics();
+        g2.setColor(c);
+        g2.fill(r);
+        g2.dispose();
+    }
+
+    /**
+     * Check that only the bands that changed are encoded again, and that
+     * every frame decodes to the current pixels.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    public void testChangedBands() throws IOException {
+        BufferedImage image = PngEncoderTest.createImage(200, 150);
+        IncrementalPngEncoder encoder = new IncrementalPngEncoder(image,
+                true, PngEncoder.FILTER_ADAPTIVE, 6);
+        encoder.setBandRows(10);
+        PngEncoderTest.assertSameImage(image, encoder.pngEncode(), true);
+        assertEquals(15, encoder.getEncodedBandCount());
+
+        // nothing changed
+        PngEncoderTest.assertSameImage(image, encoder.pngEncode(), true);
+        assertEquals(0, encoder.getEncodedBandCount());
+
+        // a change inside one band
+        fill(image, new Rectangle(50, 42, 20, 5), Color.green);
+        PngEncoderTest.assertSameImage(image, encoder.pngEncode(), true);
+        assertEquals(1, encoder.getEncodedBandCount());
+
+        // a change to the last row of a band also affects the band below
+        fill(image, new Rectangle(0, 99, 30, 1), Color.yellow);
+        PngEncoderTest.assertSameImage(image, encoder.pngEncode(), true);
+        assertEquals(2, encoder.getEncodedBandCount());
+
+        // a change to the last band
+        fill(image, new Rectangle(0, 145, 200, 5), Color.blue);
+        PngEncoderTest.assertSameImage(image, encoder.pngEncode(), true);
+        assertEquals(1, encoder.getEncodedBandCount());
+
+        // a new setting encodes every band
+        encoder.setFilter(PngEncoder.FILTER_PAETH);
+        PngEncoderTest.assertSameImage(image, encoder.pngEncode(), true);
+        assertEquals(15, encoder.getEncodedBandCount());
+    }
+
+    /**
+     * Check that a dirty region given by the caller is used instead of
+     * comparing the pixels.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    public void testDirtyRegion() throws IOException {
+        BufferedImage image = PngEncoderTest.createImage(120, 64);
+        IncrementalPngEncoder encoder = new IncrementalPngEncoder(image,
+                false, PngEncoder.FILTER_UP, 9);
+        encoder.encode(new ByteArrayOutputStream(), null);
+        assertEquals(4, encoder.getEncodedBandCount());
+
+        Rectangle r = new Rectangle(10, 20, 40, 8);
+        fill(image, r, Color.white);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.encode(out, r);
+        assertEquals(1, encoder.getEncodedBandCount());
+        PngEncoderTest.assertSameImage(image, out.toByteArray(), false);
+
+        encoder.invalidate();
+        out.reset();
+        encoder.encode(out, r);
+        assertEquals(4, encoder.getEncodedBandCount());
+        PngEncoderTest.assertSameImage(image, out.toByteArray(), false);
+
+        // the flag is ignored, and the image is still written in truecolour
+        encoder.setIndexedColor(true);
+        assertFalse(encoder.getIndexedColor());
+        out.reset();
+        encoder.encode(out, r);
+        assertEquals(1, encoder.getEncodedBandCount());
+        PngEncoderTest.assertSameImage(image, out.toByteArray(), false);
+    }
+
+    /**
+     * An image whose pixels can only be read through its image producer,
+     * which can be made to fail after a number of reads.
+     */
+    static class FailingImage extends BufferedImage {
+
+        /** The number of reads left before a failure (-1 for no failure). */
+        int readsLeft = -1;
+
+        /**
+         * Creates a new image.
+         *
+         * @param width  the width.
+         * @param height  the height.
+         */
+        FailingImage(int width, int height) {
+            super(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+
+        /**
+         * Returns the image producer, or one that fails.
+         *
+         * @return The producer.
+         */
+        public ImageProducer getSource() {
+            if (this.readsLeft != 0) {
+                if (this.readsLeft > 0) {
+                    this.readsLeft--;
+                }
+                return super.getSource();
+            }
+            return new ImageProducer() {
+                public void addConsumer(ImageConsumer ic) {
+                    ic.imageComplete(ImageConsumer.IMAGEERROR);
+                }
+                public boolean isConsumer(ImageConsumer ic) {
+                    return false;
+                }
+                public void removeConsumer(ImageConsumer ic) {
+                    // nothing to do
+                }
+                public void startProduction(ImageConsumer ic) {
+                    ic.imageComplete(ImageConsumer.IMAGEERROR);
+                }
+                public void requestTopDownLeftRightResend(ImageConsumer ic) {
+                    // nothing to do
+                }
+            };
+        }
+    }
+
+    /**
+     * Check that a frame that fails part way does not leave the encoder
+     * with kept bands that no longer match the kept pixels.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    public void testFailedFrame() throws IOException {
+        FailingImage image = new FailingImage(100, 150);
+        fill(image, new Rectangle(0, 0, 100, 150), Color.red);
+        IncrementalPngEncoder encoder = new IncrementalPngEncoder(image,
+                true, PngEncoder.FILTER_SUB, 6);
+        encoder.setBandRows(10);
+        PngEncoderTest.assertSameImage(image, encoder.pngEncode(), true);
+
+        // the top rows are read, then the read of the lower rows fails
+        fill(image, new Rectangle(0, 5, 100, 3), Color.green);
+        fill(image, new Rectangle(0, 140, 100, 3), Color.blue);
+        image.readsLeft = 1;
+        try {
+            encoder.encode(new ByteArrayOutputStream());
+            fail("Should have thrown an IOException.");
+        }
+        catch (IOException e) {
+            // expected
+        }
+
+        image.readsLeft = -1;
+        PngEncoderTest.assertSameImage(image, encoder.pngEncode(), true);
+        assertEquals(15, encoder.getEncodedBandCount());
+    }
+
+    /**
+     * Check that combined checksums match the checksum of the whole data.
+     */
+    public void testCombine() {
+        byte[] data = new byte[100000];
+        new Random(1).nextBytes(data);
+        Adler32 whole = new Adler32();
+        whole.update(data);
+        Adler32 part = new Adler32();
+        int checksum = 1;
+        int[] cuts = {0, 1, 17, 5000, 70000, 100000};
+        for (int i = 1; i < cuts.length; i++) {
+            part.reset();
+            part.update(data, cuts[i - 1], cuts[i] - cuts[i - 1]);
+            checksum = IncrementalPngEncoder.combine(checksum,
+                    (int) part.getValue(), cuts[i] - cuts[i - 1]);
+        }
+        assertEquals((int) whole.getValue(), checksum);
+    }
+
+}
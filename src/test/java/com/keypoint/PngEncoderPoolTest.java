@@ -0,0 +1,69 @@
+package com.keypoint;
+
+import java.io.IOException;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests for the {@link PngEncoderPool} class.
+ */
+public class PngEncoderPoolTest extends TestCase {
+
+    /**
+     * Returns the tests as a test suite.
+     *
+     * @return The test suite.
+     */
+    public static Test suite() {
+        return new TestSuite(PngEncoderPoolTest.class);
+    }
+
+    /**
+     * Constructs a new set of tests.
+     *
+     * @param name  the name of the tests.
+     */
+    public PngEncoderPoolTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Check that released encoders are reset and handed out again, up to the
+     * maximum number of idle encoders.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    public void testAcquireAndRelease() throws IOException {
+        PngEncoderPool pool = new PngEncoderPool(1);
+        PngEncoder e1 = pool.acquire();
+        PngEncoder e2 = pool.acquire();
+        assertNotSame(e1, e2);
+
+        e1.setImage(PngEncoderTest.createImage(20, 10));
+        e1.setFilter(PngEncoder.FILTER_PAETH);
+        assertNotNull(e1.pngEncode());
+        pool.release(e1);
+        pool.release(e2);
+        assertEquals(1, pool.getIdleCount());
+
+        PngEncoder e3 = pool.acquire();
+        assertSame(e1, e3);
+        assertNull(e3.getImage());
+        assertEquals(PngEncoder.FILTER_NONE, e3.getFilter());
+        assertEquals(0, pool.getIdleCount());
+
+        pool.release(e3);
+        pool.close();
+        assertEquals(0, pool.getIdleCount());
+        try {
+            pool.acquire();
+            fail("Should have thrown IllegalStateException.");
+        }
+        catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+}
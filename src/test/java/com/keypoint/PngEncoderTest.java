@@ -0,0 +1,335 @@
+package com.keypoint;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+
+import javax.imageio.ImageIO;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests for the {@link PngEncoder} class.
+ */
+public class PngEncoderTest extends TestCase {
+
+    /**
+     * Returns the tests as a test suite.
+     *
+     * @return The test suite.
+     */
+    public static Test suite() {
+        return new TestSuite(PngEncoderTest.class);
+    }
+
+    /**
+     * Constructs a new set of tests.
+     *
+     * @param name  the name of the tests.
+     */
+    public PngEncoderTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Creates a test image with a gradient, some text and a diagonal line.
+     *
+     * @param width  the image width.
+     * @param height  the image height.
+     *
+     * @return The image.
+     */
+    static BufferedImage createImage(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height,
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = image.createGraphics();
+        g2.setPaint(new GradientPaint(0, 0, Color.red, width, height,
+                new Color(0, 0, 255, 128)));
+        g2.fillRect(0, 0, width, height / 2);
+        g2.setColor(Color.black);
+        g2.drawString("PNG", 10, height / 2 + 15);
+        g2.drawLine(0, height - 1, width - 1, 0);
+        g2.dispose();
+        return image;
+    }
+
+    /**
+     * Decodes the PNG bytes and checks that the pixels match the image.
+     *
+     * @param image  the original image.
+     * @param png  the encoded image.
+     * @param alpha  was the alpha channel encoded?
+     *
+     * @throws IOException if the PNG cannot be read.
+     */
+    static void assertSameImage(BufferedImage image, byte[] png,
+            boolean alpha) throws IOException {
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(png));
+        assertEquals(image.getWidth(), decoded.getWidth());
+        assertEquals(image.getHeight(), decoded.getHeight());
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int expected = image.getRGB(x, y);
+                if (!alpha) {
+                    expected = expected | 0xff000000;
+                }
+                assertEquals("pixel (" + x + ", " + y + ")", expected,
+                        decoded.getRGB(x, y));
+            }
+        }
+    }
+
+    /**
+     * Check that encoded images decode to the original pixels, for each
+     * filter, with and without alpha and with images larger than one band of
+     * rows.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    public void testRoundTrip() throws IOException {
+        BufferedImage image = createImage(301, 257);
+        int[] filters = {PngEncoder.FILTER_NONE, PngEncoder.FILTER_SUB,
+                PngEncoder.FILTER_UP, PngEncoder.FILTER_AVERAGE,
+                PngEncoder.FILTER_PAETH, PngEncoder.FILTER_ADAPTIVE};
+        for (int i = 0; i < filters.length; i++) {
+            PngEncoder encoder = new PngEncoder(image, false, filters[i], 9);
+            assertSameImage(image, encoder.pngEncode(), false);
+            encoder.setEncodeAlpha(true);
+            assertSameImage(image, encoder.pngEncode(), true);
+        }
+    }
+
+    /**
+     * Check that the streaming methods write the same bytes as pngEncode(),
+     * and that small IDAT chunks still give a valid image.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    public void testEncodeToStream() throws IOException {
+        BufferedImage image = createImage(120, 80);
+        PngEncoder encoder = new PngEncoder(image, true);
+        encoder.setIdatChunkSize(100);
+        byte[] expected = encoder.pngEncode();
+        assertSameImage(image, expected, true);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        encoder.encode(out);
+        assertTrue(Arrays.equals(expected, out.toByteArray()));
+
+        out = new ByteArrayOutputStream();
+        encoder.encode(Channels.newChannel(out));
+        assertTrue(Arrays.equals(expected, out.toByteArray()));
+    }
+
+    /**
+     * Check that parallel compression gives a valid image, including when
+     * the bands are smaller than the deflate window.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    public void testParallelCompression() throws IOException {
+        BufferedImage image = createImage(400, 300);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            PngEncoder encoder = new PngEncoder(image, true,
+                    PngEncoder.FILTER_UP, 9);
+            encoder.setCompressionExecutor(executor);
+            assertSameImage(image, encoder.pngEncode(), true);
+            encoder.setCompressionBandSize(5000);
+            encoder.setCompressionLevel(0);
+            assertSameImage(image, encoder.pngEncode(), true);
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Check the filter setting.
+     */
+    public void testSetFilter() {
+        PngEncoder encoder = new PngEncoder();
+        encoder.setFilter(PngEncoder.FILTER_PAETH);
+        assertEquals(PngEncoder.FILTER_PAETH, encoder.getFilter());
+        encoder.setFilter(PngEncoder.FILTER_ADAPTIVE);
+        assertEquals(PngEncoder.FILTER_ADAPTIVE, encoder.getFilter());
+        encoder.setFilter(-1);
+        assertEquals(PngEncoder.FILTER_NONE, encoder.getFilter());
+        encoder.setFilter(99);
+        assertEquals(PngEncoder.FILTER_NONE, encoder.getFilter());
+    }
+
+    /**
+     * Check that images read straight from the raster (and images read
+     * through a PixelGrabber) decode to the original pixels.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    public void testImageTypes() throws IOException {
+        BufferedImage source = createImage(150, 90);
+        int[] types = {BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_RGB,
+                BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR};
+        for (int i = 0; i < types.length; i++) {
+            BufferedImage image = new BufferedImage(150, 90, types[i]);
+            Graphics2D g2 = image.createGraphics();
+            g2.drawImage(source, 0, 0, null);
+            g2.dispose();
+            boolean alpha = image.getColorModel().hasAlpha();
+            PngEncoder encoder = new PngEncoder(image, alpha,
+                    PngEncoder.FILTER_ADAPTIVE);
+            assertSameImage(image, encoder.pngEncode(), alpha);
+        }
+
+        // a sub-image shares a raster with an offset
+        BufferedImage sub = source.getSubimage(20, 10, 100, 50);
+        PngEncoder encoder = new PngEncoder(sub, true);
+        assertSameImage(sub, encoder.pngEncode(), true);
+    }
+
+    /**
+     * Creates an image that uses a given number of distinct colours, some of
+     * them translucent.
+     *
+     * @param colorCount  the number of colours.
+     *
+     * @return The image.
+     */
+    private static BufferedImage createImage(int colorCount) {
+        BufferedImage image = new BufferedImage(37, 23,
+                BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                int c = (x + y * image.getWidth()) % colorCount;
+                int alpha = (c % 3 == 0) ? 0x80 : 0xff;
+                image.setRGB(x, y, (alpha << 24) | (c * 0x010203));
+            }
+        }
+        return image;
+    }
+
+    /**
+     * Check that images with few colours are written as palette images with
+     * the smallest bit depth, and decode to the original pixels.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    public void testIndexedColor() throws IOException {
+        int[] colorCounts = {2, 4, 16, 256};
+        int[] bitDepths = {1, 2, 4, 8};
+        for (int i = 0; i < colorCounts.length; i++) {
+            BufferedImage image = createImage(colorCounts[i]);
+            PngEncoder encoder = new PngEncoder(image, true,
+                    PngEncoder.FILTER_ADAPTIVE);
+            encoder.setIndexedColor(true);
+            byte[] png = encoder.pngEncode();
+            assertEquals(bitDepths[i], png[24]);
+            assertEquals(3, png[25]);
+            assertSameImage(image, png, true);
+
+            encoder.setEncodeAlpha(false);
+            png = encoder.pngEncode();
+            assertEquals(3, png[25]);
+            assertSameImage(image, png, false);
+        }
+
+        // too many colours falls back to truecolour
+        BufferedImage image = createImage(257);
+        PngEncoder encoder = new PngEncoder(image, true);
+        encoder.setIndexedColor(true);
+        byte[] png = encoder.pngEncode();
+        assertEquals(8, png[24]);
+        assertEquals(6, png[25]);
+        assertSameImage(image, png, true);
+    }
+
+    /**
+     * Check that an encoder reused for images of different sizes and
+     * settings writes the same bytes as a new encoder.
+     *
+     * @throws IOException if there is an I/O problem.
+     */
+    public void testReuse() throws IOException {
+        BufferedImage image1 = createImage(120, 80);
+        BufferedImage image2 = createImage(64);
+        PngEncoder encoder = new PngEncoder(image1, true,
+                PngEncoder.FILTER_ADAPTIVE, 6);
+        byte[] expected = encoder.pngEncode();
+
+        encoder.reset();
+        assertNull(encoder.getImage());
+        assertEquals(PngEncoder.FILTER_NONE, encoder.getFilter());
+        encoder.setImage(image2);
+        encoder.setIndexedColor(true);
+        PngEncoder fresh = new PngEncoder(image2);
+        fresh.setIndexedColor(true);
+        assertTrue(Arrays.equals(fresh.pngEncode(), encoder.pngEncode()));
+
+        encoder.reset();
+        encoder.setImage(image1);
+        encoder.setEncodeAlpha(true);
+        encoder.setFilter(PngEncoder.FILTER_ADAPTIVE);
+        encoder.setCompressionLevel(6);
+        assertTrue(Arrays.equals(expected, encoder.pngEncode()));
+
+        encoder.dispose();
+        encoder.setImage(image1);
+        encoder.setEncodeAlpha(true);
+        encoder.setFilter(PngEncoder.FILTER_ADAPTIVE);
+        encoder.setCompressionLevel(6);
+        assertTrue(Arrays.equals(expected, encoder.pngEncode()));
+    }
+
+    /**
+     * Encoding with a time budget or throughput target chooses the settings
+     * and still produces a valid image.
+     */
+    public void testCompressionTuning() throws IOException {
+        BufferedImage image = createImage(300, 200);
+        PngEncoder encoder = new PngEncoder(image, true,
+                PngEncoder.FILTER_ADAPTIVE, 0);
+        encoder.setCompressionTimeBudget(60000);
+        assertSameImage(image, encoder.pngEncode(), true);
+        assertEquals(9, encoder.getCompressionLevel());
+
+        // a budget that cannot be met falls back to the fastest settings
+        encoder.setCompressionTimeBudget(0);
+        encoder.setCompressionThroughput(Double.MAX_VALUE);
+        assertEquals(0, encoder.getCompressionTimeBudget());
+        assertSameImage(image, encoder.pngEncode(), true);
+        assertEquals(1, encoder.getCompressionLevel());
+        assertEquals(Deflater.HUFFMAN_ONLY, encoder.getCompressionStrategy());
+
+        encoder.setCompressionThroughput(0.0);
+        encoder.setCompressionStrategy(Deflater.FILTERED);
+        assertSameImage(image, encoder.pngEncode(), true);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            encoder.setCompressionExecutor(executor);
+            encoder.setCompressionBandSize(8192);
+            assertSameImage(image, encoder.pngEncode(), true);
+        }
+        finally {
+            executor.shutdown();
+        }
+
+        try {
+            encoder.setCompressionStrategy(99);
+            fail("Should have thrown an IllegalArgumentException.");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+}
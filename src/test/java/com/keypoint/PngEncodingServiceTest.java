@@ -0,0 +1,261 @@
+package com.keypoint;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.jfree.ui.Drawable;
+
+/**
+ * Tests for the {@link PngEncodingService} class.
+ */
+public class PngEncodingServiceTest extends TestCase {
+
+    /**
+     * Returns the tests as a test suite.
+     *
+     * @return The test suite.
+     */
+    public static Test suite() {
+        return new TestSuite(PngEncodingServiceTest.class);
+    }
+
+    /**
+     * Constructs a new set of tests.
+     *
+     * @param name  the name of the tests.
+     */
+    public PngEncodingServiceTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * A drawable that fills its area, after waiting for a latch.
+     */
+    static class SlowDrawable implements Drawable {
+
+        /** The latch. */
+        private final CountDownLatch latch;
+
+        /**
+         * Creates a new drawable.
+         *
+         * @param latch  the latch.
+         */
+        SlowDrawable(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        /**
+         * Draws the object.
+         *
+         * @param g2  the graphics device.
+         * @param area  the area.
+         */
+        public void draw(Graphics2D g2, Rectangle2D area) {
+            try {
+                this.latch.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            g2.setColor(Color.orange);
+            g2.fill(area);
+        }
+    }
+
+    /**
+     * A drawable that signals when it starts drawing, then waits for a
+     * latch without stopping if it is interrupted.
+     */
+    static class StubbornDrawable implements Drawable {
+
+        /** Counted down when drawing starts. */
+        private final CountDownLatch started;
+
+        /** The latch to wait for. */
+        private final CountDownLatch latch;
+
+        /**
+         * Creates a new drawable.
+         *
+         * @param started  counted down when drawing starts.
+         * @param latch  the latch to wait for.
+         */
+        StubbornDrawable(CountDownLatch started, CountDownLatch latch) {
+            this.started = started;
+            this.latch = latch;
+        }
+
+        /**
+         * Draws the object.
+         *
+         * @param g2  the graphics device.
+         * @param area  the area.
+         */
+        public void draw(Graphics2D g2, Rectangle2D area) {
+            this.started.countDown();
+            boolean interrupted = false;
+            while (this.latch.getCount() > 0) {
+                try {
+                    this.latch.await();
+                }
+                catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            g2.setColor(Color.orange);
+            g2.fill(area);
+        }
+    }
+
+    /**
+     * Check that images and drawables are encoded, to byte arrays and to
+     * streams.
+     *
+     * @throws Exception if there is a problem.
+     */
+    public void testSubmit() throws Exception {
+        PngEncodingService service = new PngEncodingService(2, 1 << 24);
+        service.setEncodeAlpha(true);
+        service.setFilter(PngEncoder.FILTER_ADAPTIVE);
+        service.setCompressionLevel(6);
+        BufferedImage[] images = new BufferedImage[6];
+        Future[] results = new Future[images.length];
+        for (int i = 0; i < images.length; i++) {
+            images[i] = PngEncoderTest.createImage(50 + 10 * i, 40);
+            results[i] = service.submit(images[i]);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Future streamed = service.submit(images[0], out);
+        CountDownLatch open = new CountDownLatch(0);
+        Future drawn = service.submit(new SlowDrawable(open), 30, 20);
+
+        for (int i = 0; i < images.length; i++) {
+            PngEncoderTest.assertSameImage(images[i],
+                    (byte[]) results[i].get(), true);
+        }
+        assertNull(streamed.get());
+        PngEncoderTest.assertSameImage(images[0], out.toByteArray(), true);
+        BufferedImage orange = new BufferedImage(30, 20,
+                BufferedImage.TYPE_INT_ARGB);
+        new SlowDrawable(open).draw(orange.createGraphics(),
+                new Rectangle2D.Double(0, 0, 30, 20));
+        PngEncoderTest.assertSameImage(orange, (byte[]) drawn.get(), true);
+
+        service.shutdown();
+        assertTrue(service.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(1 << 24, service.getAvailableMemory());
+        try {
+            service.submit(images[0]);
+            fail("Should have thrown an IllegalStateException.");
+        }
+        catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Check that a job blocks when the memory budget is used up, and runs
+     * once memory is given back.
+     *
+     * @throws Exception if there is a problem.
+     */
+    public void testMemoryBudget() throws Exception {
+        final PngEncodingService service = new PngEncodingService(2, 65536);
+        CountDownLatch latch = new CountDownLatch(1);
+
+        // this job needs more than the whole budget
+        Future first = service.submit(new SlowDrawable(latch), 100, 100);
+        assertEquals(0, service.getAvailableMemory());
+
+        final Future[] second = new Future[1];
+        Thread submitter = new Thread() {
+            public void run() {
+                try {
+                    second[0] = service.submit(
+                            PngEncoderTest.createImage(20, 20));
+                }
+                catch (InterruptedException e) {
+                    // ignore
+                }
+            }
+        };
+        submitter.start();
+        submitter.join(200);
+        assertTrue(submitter.isAlive());
+        assertNull(second[0]);
+
+        latch.countDown();
+        submitter.join(10000);
+        assertNotNull(first.get());
+        assertNotNull(second[0].get());
+        service.shutdown();
+        assertTrue(service.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(65536, service.getAvailableMemory());
+    }
+
+    /**
+     * Check that a job cancelled before it runs gives back its memory, so
+     * that the whole budget can be used again.
+     *
+     * @throws Exception if there is a problem.
+     */
+    public void testCancelQueuedJob() throws Exception {
+        PngEncodingService service = new PngEncodingService(1, 1 << 20);
+        CountDownLatch latch = new CountDownLatch(1);
+        Future running = service.submit(new SlowDrawable(latch), 10, 10);
+        Future queued = service.submit(PngEncoderTest.createImage(200, 200));
+        assertTrue(service.getAvailableMemory() < (1 << 20) - 1024);
+        assertTrue(queued.cancel(false));
+        assertEquals((1 << 20) - 1024, service.getAvailableMemory());
+
+        // the rest of the budget, which must not block
+        Future rest = service.submit(new SlowDrawable(latch), 1023, 128);
+        assertEquals(0, service.getAvailableMemory());
+        latch.countDown();
+        assertNotNull(running.get());
+        assertNotNull(rest.get());
+        service.shutdown();
+        assertTrue(service.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(1 << 20, service.getAvailableMemory());
+    }
+
+    /**
+     * Check that a job cancelled while it runs keeps its memory until the
+     * encoding really stops.
+     *
+     * @throws Exception if there is a problem.
+     */
+    public void testCancelRunningJob() throws Exception {
+        PngEncodingService service = new PngEncodingService(1, 1 << 20);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch latch = new CountDownLatch(1);
+        Future running = service.submit(new StubbornDrawable(started,
+                latch), 100, 100);
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        long available = service.getAvailableMemory();
+        assertTrue(available < 1 << 20);
+        assertTrue(running.cancel(true));
+        Thread.sleep(100);
+        assertEquals(available, service.getAvailableMemory());
+
+        latch.countDown();
+        service.shutdown();
+        assertTrue(service.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(1 << 20, service.getAvailableMemory());
+    }
+
+}
@@ -0,0 +1,212 @@
+/* ========================================================================
+ * JCommon : a free general purpose class library for the Java(tm) platform
+ * ========================================================================
+ *
+ * (C) Copyright 2000-2014, by Object Refinery Limited and Contributors.
+ * 
+ * Project Info:  http://www.jfree.org/jcommon/index.html
+ *
+ * This library is free software; you can redistribute it and/or modify it 
+ * under the terms of the GNU Lesser General Public License as published by 
+ * the Free Software Foundation; either version 2.1 of the License, or 
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public 
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, 
+ * USA.  
+ *
+ * [Java is a trademark or registered trademark of Sun Microsystems, Inc. 
+ * in the United States and other countries.]
+ *
+ * -------------------------
+ * BusinessCalendarTest.java
+ * -------------------------
+ * (C) Copyright 2026, by Object Refinery Limited.
+ *
+ * Original Author:  -;
+ * Contributor(s):   -;
+ *
+ * Changes
+ * -------
+ * 18-Oct-2026 : Version 1;
+ *
+ */
+
+package org.jfree.date;
+
+import java.util.Random;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests for the {@link BusinessCalendar} class.
+ */
+public class BusinessCalendarTest extends TestCase {
+
+    /** The weekend. */
+    private static final Day[] WEEKEND = new Day[] {Day.SATURDAY,
+        Day.SUNDAY};
+
+    /** Some holidays. */
+    private static final AnnualDateRule[] HOLIDAYS = new AnnualDateRule[] {
+        new DayAndMonthRule(1, MonthConstants.JANUARY),
+        new EasterSundayRule(),
+        new RelativeDayOfWeekRule(new EasterSundayRule(),
+                Day.FRIDAY.toInt(), WeekdayRange.PRECEDING),
+        new DayOfWeekInMonthRule(4, Day.THURSDAY, MonthConstants.NOVEMBER),
+        new DayAndMonthRule(25, MonthConstants.DECEMBER),
+        new DayAndMonthRule(26, MonthConstants.DECEMBER)};
+
+    /**
+     * Returns a test suite for the JUnit test runner.
+     *
+     * @return the test suite.
+     */
+    public static Test suite() {
+        return new TestSuite(BusinessCalendarTest.class);
+    }
+
+    /**
+     * Creates a new test case.
+     *
+     * @param name  the name.
+     */
+    public BusinessCalendarTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Returns <code>true</code> if a date is a business day, by evaluating
+     * the rules.
+     *
+     * @param date  the date.
+     *
+     * @return A boolean.
+     */
+    private static boolean isBusinessDay(DayDate date) {
+        Day day = date.getDayOfWeek();
+        for (int i = 0; i < WEEKEND.length; i++) {
+            if (day == WEEKEND[i]) {
+                return false;
+            }
+        }
+        for (int i = 0; i < HOLIDAYS.length; i++) {
+            if (date.equals(HOLIDAYS[i].getDate(date.getYear()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Some simple checks.
+     */
+    public void testSimple() {
+        BusinessCalendar calendar = new BusinessCalendar(2020, 2030,
+                WEEKEND, HOLIDAYS);
+        assertEquals(2020, calendar.getFirstYear());
+        assertEquals(2030, calendar.getLastYear());
+        DayDate christmasEve = new SpreadsheetDate(24, 12, 2026);
+        assertTrue(calendar.isBusinessDay(christmasEve));  // Thursday
+        assertFalse(calendar.isBusinessDay(christmasEve.plusDays(1)));
+        assertFalse(calendar.isBusinessDay(christmasEve.plusDays(3)));
+        assertEquals(new SpreadsheetDate(28, 12, 2026),
+                calendar.addBusinessDays(christmasEve, 1));
+        assertEquals(christmasEve, calendar.addBusinessDays(
+                new SpreadsheetDate(28, 12, 2026), -1));
+        assertEquals(1, calendar.businessDaysBetween(christmasEve,
+                new SpreadsheetDate(28, 12, 2026)));
+        assertEquals(-1, calendar.businessDaysBetween(
+                new SpreadsheetDate(28, 12, 2026), christmasEve));
+
+        // Good Friday and Thanksgiving
+        assertFalse(calendar.isBusinessDay(new SpreadsheetDate(3, 4, 2026)));
+        assertTrue(calendar.isBusinessDay(new SpreadsheetDate(2, 4, 2026)));
+        assertFalse(calendar.isBusinessDay(
+                new SpreadsheetDate(26, 11, 2026)));
+        assertTrue(calendar.isBusinessDay(new SpreadsheetDate(19, 11, 2026)));
+
+        // a date that is not a business day
+        DayDate saturday = new SpreadsheetDate(17, 10, 2026);
+        assertEquals(new SpreadsheetDate(19, 10, 2026),
+                calendar.addBusinessDays(saturday, 1));
+        assertEquals(new SpreadsheetDate(16, 10, 2026),
+                calendar.addBusinessDays(saturday, -1));
+        assertSame(saturday, calendar.addBusinessDays(saturday, 0));
+
+        try {
+            calendar.isBusinessDay(new SpreadsheetDate(31, 12, 2019));
+            fail("Should have thrown an IllegalArgumentException.");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            calendar.addBusinessDays(new SpreadsheetDate(1, 1, 2020), -1);
+            fail("Should have thrown an IllegalArgumentException.");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Check the calendar against the rules, and against stepping through
+     * the days one at a time.
+     */
+    public void testAgainstRules() {
+        BusinessCalendar calendar = new BusinessCalendar(1998, 2003,
+                WEEKEND, HOLIDAYS);
+        DayDate first = new SpreadsheetDate(1, 1, 1998);
+        DayDate last = new SpreadsheetDate(31, 12, 2003);
+        int count = 0;
+        for (DayDate d = first; !d.isAfter(last); d = d.plusDays(1)) {
+            boolean business = isBusinessDay(d);
+            assertEquals(d.toString(), business, calendar.isBusinessDay(d));
+            if (business) {
+                count++;
+            }
+        }
+        assertEquals(count, calendar.getBusinessDayCount());
+
+        Random random = new Random(42L);
+        int days = last.daysSince(first) + 1;
+        for (int k = 0; k < 200; k++) {
+            DayDate d1 = first.plusDays(random.nextInt(days));
+            DayDate d2 = first.plusDays(random.nextInt(days));
+            int between = 0;
+            for (DayDate d = d1; d.isBefore(d2); d = d.plusDays(1)) {
+                if (isBusinessDay(d)) {
+                    between++;
+                }
+            }
+            for (DayDate d = d2; d.isBefore(d1); d = d.plusDays(1)) {
+                if (isBusinessDay(d)) {
+                    between--;
+                }
+            }
+            assertEquals(between, calendar.businessDaysBetween(d1, d2));
+
+            int n = random.nextInt(41) - 20;
+            DayDate expected = d1;
+            for (int step = 0; step < Math.abs(n); step++) {
+                do {
+                    expected = expected.plusDays(n > 0 ? 1 : -1);
+                }
+                while (!isBusinessDay(expected));
+            }
+            if (expected.isOnOrAfter(first) && expected.isOnOrBefore(last)) {
+                assertEquals(expected, calendar.addBusinessDays(d1, n));
+            }
+        }
+    }
+
+}
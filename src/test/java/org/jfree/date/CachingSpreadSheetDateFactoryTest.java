@@ -0,0 +1,154 @@
+/* ========================================================================
+ * JCommon : a free general purpose class library for the Java(tm) platform
+ * ========================================================================
+ *
+ * (C) Copyright 2000-2014, by Object Refinery Limited and Contributors.
+ * 
+ * Project Info:  http://www.jfree.org/jcommon/index.html
+ *
+ * This library is free software; you can redistribute it and/or modify it 
+ * under the terms of the GNU Lesser General Public License as published by 
+ * the Free Software Foundation; either version 2.1 of the License, or 
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public 
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, 
+ * USA.  
+ *
+ * [Java is a trademark or registered trademark of Sun Microsystems, Inc. 
+ * in the United States and other countries.]
+ *
+ * --------------------------------------
+ * CachingSpreadSheetDateFactoryTest.java
+ * --------------------------------------
+ * (C) Copyright 2026, by Object Refinery Limited.
+ *
+ * Original Author:  -;
+ * Contributor(s):   -;
+ *
+ * Changes
+ * -------
+ * 18-Oct-2026 : Version 1;
+ *
+ */
+
+package org.jfree.date;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests for the {@link CachingSpreadSheetDateFactory} class.
+ */
+public class CachingSpreadSheetDateFactoryTest extends TestCase {
+
+    /**
+     * Returns a test suite for the JUnit test runner.
+     *
+     * @return the test suite.
+     */
+    public static Test suite() {
+        return new TestSuite(CachingSpreadSheetDateFactoryTest.class);
+    }
+
+    /**
+     * Creates a new test case.
+     *
+     * @param name  the name.
+     */
+    public CachingSpreadSheetDateFactoryTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Check that dates in the window are shared, and that dates outside it
+     * are not.
+     */
+    public void testShared() {
+        CachingSpreadSheetDateFactory factory
+                = new CachingSpreadSheetDateFactory(1990, 2100);
+        assertEquals(1990, factory.getFirstYear());
+        assertEquals(2100, factory.getLastYear());
+
+        DayDate d1 = factory._makeDate(18, 10, 2026);
+        assertEquals(new SpreadsheetDate(18, 10, 2026), d1);
+        assertSame(d1, factory._makeDate(18, Month.OCTOBER, 2026));
+        assertSame(d1, factory._makeDate(d1.getOrdinalDay()));
+        Calendar calendar = new GregorianCalendar(2026, Calendar.OCTOBER, 18);
+        assertSame(d1, factory._makeDate(calendar.getTime()));
+
+        DayDate first = factory._makeDate(1, 1, 1990);
+        assertSame(first, factory._makeDate(first.getOrdinalDay()));
+        DayDate last = factory._makeDate(31, 12, 2100);
+        assertSame(last, factory._makeDate(last.getOrdinalDay()));
+
+        DayDate before = factory._makeDate(31, 12, 1989);
+        assertEquals(new SpreadsheetDate(31, 12, 1989), before);
+        assertNotSame(before, factory._makeDate(31, 12, 1989));
+        DayDate after = factory._makeDate(1, 1, 2101);
+        assertEquals(after, factory._makeDate(1, 1, 2101));
+        assertNotSame(after, factory._makeDate(1, 1, 2101));
+    }
+
+    /**
+     * Check that invalid dates in the window are still rejected.
+     */
+    public void testInvalidDates() {
+        CachingSpreadSheetDateFactory factory
+                = new CachingSpreadSheetDateFactory(1990, 2100);
+        try {
+            factory._makeDate(29, 2, 2001);
+            fail("Should have thrown an IllegalArgumentException.");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            factory._makeDate(1, 13, 2001);
+            fail("Should have thrown an IllegalArgumentException.");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            new CachingSpreadSheetDateFactory(2000, 1999);
+            fail("Should have thrown an IllegalArgumentException.");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Check that date arithmetic returns the shared dates when the factory
+     * is installed.
+     */
+    public void testArithmetic() {
+        DayDateFactory.setInstance(
+                new CachingSpreadSheetDateFactory(1990, 2100));
+        try {
+            DayDate d = DayDateFactory.makeDate(31, 1, 2024);
+            assertSame(DayDateFactory.makeDate(1, 2, 2024), d.plusDays(1));
+            assertSame(DayDateFactory.makeDate(29, 2, 2024),
+                    d.plusDays(29));
+            assertSame(DayDateFactory.makeDate(31, 3, 2024),
+                    d.plusMonths(2));
+            assertSame(DayDateFactory.makeDate(29, 2, 2024),
+                    d.plusDays(1).getEndOfMonth());
+        }
+        finally {
+            DayDateFactory.setInstance(new SpreadSheetDateFactory());
+        }
+    }
+
+}
@@ -63,6 +63,9 @@ public class DatePackageTests extends TestCase {
         suite.addTestSuite(DayDateTest.class);
         suite.addTestSuite(DayDateUtilitiesTest.class);
         suite.addTestSuite(SpreadsheetDateTest.class);
+        suite.addTestSuite(CachingSpreadSheetDateFactoryTest.class);
+        suite.addTestSuite(DayDateArrayTest.class);
+        suite.addTestSuite(BusinessCalendarTest.class);
         suite.addTestSuite(DayTest.class);
         suite.addTestSuite(MonthTest.class);
         suite.addTestSuite(DateUtil.class);
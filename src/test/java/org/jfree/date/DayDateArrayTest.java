@@ -0,0 +1,216 @@
+/* ========================================================================
+ * JCommon : a free general purpose class library for the Java(tm) platform
+ * ========================================================================
+ *
+ * (C) Copyright 2000-2014, by Object Refinery Limited and Contributors.
+ * 
+ * Project Info:  http://www.jfree.org/jcommon/index.html
+ *
+ * This library is free software; you can redistribute it and/or modify it 
+ * under the terms of the GNU Lesser General Public License as published by 
+ * the Free Software Foundation; either version 2.1 of the License, or 
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but 
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY 
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public 
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, 
+ * USA.  
+ *
+ * [Java is a trademark or registered trademark of Sun Microsystems, Inc. 
+ * in the United States and other countries.]
+ *
+ * ---------------------
+ * DayDateArrayTest.java
+ * ---------------------
+ * (C) Copyright 2026, by Object Refinery Limited.
+ *
+ * Original Author:  -;
+ * Contributor(s):   -;
+ *
+ * Changes
+ * -------
+ * 18-Oct-2026 : Version 1;
+ *
+ */
+
+package org.jfree.date;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests for the {@link DayDateArray} class.
+ */
+public class DayDateArrayTest extends TestCase {
+
+    /**
+     * Returns a test suite for the JUnit test runner.
+     *
+     * @return the test suite.
+     */
+    public static Test suite() {
+        return new TestSuite(DayDateArrayTest.class);
+    }
+
+    /**
+     * Creates a new test case.
+     *
+     * @param name  the name.
+     */
+    public DayDateArrayTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Creates a date.
+     *
+     * @param day  the day.
+     * @param month  the month.
+     * @param year  the year.
+     *
+     * @return The date.
+     */
+    private static DayDate date(int day, int month, int year) {
+        return new SpreadsheetDate(day, month, year);
+    }
+
+    /**
+     * Some checks for adding and getting dates.
+     */
+    public void testAddAndGet() {
+        DayDateArray a = new DayDateArray(1);
+        for (int i = 0; i < 100; i++) {
+            a.add(date(1, 1, 2000).plusDays(i));
+        }
+        assertEquals(100, a.size());
+        assertEquals(date(1, 1, 2000), a.get(0));
+        assertEquals(date(9, 4, 2000), a.get(99));
+        assertEquals(date(9, 4, 2000).getOrdinalDay(), a.getOrdinalDay(99));
+        a.set(0, date(18, 10, 2026));
+        assertEquals(date(18, 10, 2026), a.get(0));
+        try {
+            a.get(100);
+            fail("Should have thrown an IndexOutOfBoundsException.");
+        }
+        catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+        try {
+            a.addOrdinalDay(1);
+            fail("Should have thrown an IllegalArgumentException.");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Check that the bulk operations match the ones on single dates.
+     */
+    public void testBulkOperations() {
+        DayDateArray a = new DayDateArray();
+        for (int serial = 2; serial < 2958465; serial += 1013) {
+            a.addOrdinalDay(serial);
+        }
+        DayDateArray plus = a.plusDays(1);
+        int[] days = a.getDaysOfWeek();
+        for (int i = 0; i < a.size(); i++) {
+            DayDate d = a.get(i);
+            assertEquals(d.plusDays(1), plus.get(i));
+            assertEquals(d.getDayOfWeek(), a.getDayOfWeek(i));
+            assertEquals(d.getDayOfWeek().toInt(), days[i]);
+        }
+        try {
+            a.plusDays(-1);
+            fail("Should have thrown an IllegalArgumentException.");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Some checks for the plusMonths() method.
+     */
+    public void testPlusMonths() {
+        DayDateArray a = new DayDateArray(new int[] {
+            date(31, 1, 2024).getOrdinalDay(),
+            date(15, 11, 1999).getOrdinalDay(),
+            date(29, 2, 2000).getOrdinalDay()});
+        DayDateArray b = a.plusMonths(1);
+        assertEquals(date(29, 2, 2024), b.get(0));
+        assertEquals(date(15, 12, 1999), b.get(1));
+        assertEquals(date(29, 3, 2000), b.get(2));
+        b = a.plusMonths(-14);
+        assertEquals(date(30, 11, 2022), b.get(0));
+        assertEquals(date(15, 9, 1998), b.get(1));
+        assertEquals(date(29, 12, 1998), b.get(2));
+        b = a.plusMonths(12);
+        assertEquals(date(28, 2, 2001), b.get(2));
+        try {
+            a.plusMonths(-12 * 100);
+            fail("Should have thrown an IllegalArgumentException.");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Some checks for the filter(), sort() and binarySearch() methods.
+     */
+    public void testFilterSortAndSearch() {
+        DayDateArray a = new DayDateArray();
+        int[] days = new int[] {5, 1, 9, 3, 7};
+        for (int i = 0; i < days.length; i++) {
+            a.add(date(days[i], 3, 2026));
+        }
+        DayDate d3 = date(3, 3, 2026);
+        DayDate d7 = date(7, 3, 2026);
+        assertEquals(new DayDateArray(new int[] {date(5, 3, 2026)
+                .getOrdinalDay(), d3.getOrdinalDay(), d7.getOrdinalDay()}),
+                a.filter(d7, d3, DateInterval.CLOSED));
+        assertEquals(1, a.filter(d3, d7, DateInterval.OPEN).size());
+        assertEquals(2, a.filter(d3, d7, DateInterval.CLOSED_LEFT).size());
+        assertEquals(d7, a.filter(d3, d7, DateInterval.CLOSED_RIGHT).get(1));
+
+        a.sort();
+        for (int i = 0; i < days.length; i++) {
+            assertEquals(2 * i + 1, a.get(i).getDayOfMonth());
+        }
+        assertEquals(3, a.binarySearch(d7));
+        assertEquals(-3, a.binarySearch(date(4, 3, 2026)));
+    }
+
+    /**
+     * Serialize an instance, restore it, and check for equality.
+     *
+     * @throws Exception if there is a problem.
+     */
+    public void testSerialization() throws Exception {
+        DayDateArray a1 = new DayDateArray();
+        a1.add(date(18, 10, 2026));
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(buffer);
+        out.writeObject(a1);
+        out.close();
+        ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(buffer.toByteArray()));
+        DayDateArray a2 = (DayDateArray) in.readObject();
+        in.close();
+        assertEquals(a1, a2);
+        assertEquals(a1.hashCode(), a2.hashCode());
+    }
+
+}
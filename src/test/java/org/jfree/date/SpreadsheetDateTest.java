@@ -39,6 +39,7 @@
  * 15-Nov-2001 : Version 1 (DG);
  * 24-Oct-2002 : Fixed errors reported by Checkstyle (DG);
  * 29-Aug-2006 : Added checks for get/setDescription (DG);
+ * 18-Oct-2026 : Added testSerialRoundTrip();
  *
  */
 
@@ -292,6 +293,38 @@ public class SpreadsheetDateTest extends TestCase {
         assertEquals(36586, d.getOrdinalDay());
     }
 
+    /**
+     * Check that every serial number in the supported range gives the date
+     * that follows the one before it, and the date that gives the serial
+     * number back.
+     */
+    public void testSerialRoundTrip() {
+        int day = 1;
+        int month = 1;
+        int year = 1900;
+        for (int serial = 2; serial <= 2958465; serial++) {
+            SpreadsheetDate date = new SpreadsheetDate(serial);
+            assertEquals(day, date.getDayOfMonth());
+            assertEquals(month, date.getMonth().toInt());
+            assertEquals(year, date.getYear());
+            if (serial % 97 == 0) {
+                assertEquals(serial,
+                        new SpreadsheetDate(day, month, year).getOrdinalDay());
+            }
+            day++;
+            if (day > DateUtil.lastDayOfMonth(Month.monthFromInt(month),
+                    year)) {
+                day = 1;
+                month++;
+                if (month > 12) {
+                    month = 1;
+                    year++;
+                }
+            }
+        }
+        assertEquals(10000, year);
+    }
+
     /**
      * Serialize an instance, restore it, and check for equality.
      */
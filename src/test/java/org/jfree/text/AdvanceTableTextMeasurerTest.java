@@ -0,0 +1,120 @@
+/* ========================================================================
+ * JCommon : a free general purpose class library for the Java(tm) platform
+ * ========================================================================
+ *
+ * (C) Copyright 2000-2026, by Object Refinery Limited and Contributors.
+ *
+ * Project Info:  http://www.jfree.org/jcommon/index.html
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ * [Java is a trademark or registered trademark of Sun Microsystems, Inc.
+ * in the United States and other countries.]
+ *
+ * ---------------------------------
+ * AdvanceTableTextMeasurerTest.java
+ * ---------------------------------
+ * (C) Copyright 2026, by Object Refinery Limited and Contributors.
+ *
+ * Original Author:  -;
+ * Contributor(s):   -;
+ *
+ * Changes:
+ * --------
+ * 18-Oct-2026 : Version 1;
+ *
+ */
+
+package org.jfree.text;
+
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests for the {@link AdvanceTableTextMeasurer} class.
+ */
+public class AdvanceTableTextMeasurerTest extends TestCase {
+
+    /**
+     * Returns the tests as a test suite.
+     *
+     * @return The test suite.
+     */
+    public static Test suite() {
+        return new TestSuite(AdvanceTableTextMeasurerTest.class);
+    }
+
+    /**
+     * Constructs a new set of tests.
+     *
+     * @param name  the name of the tests.
+     */
+    public AdvanceTableTextMeasurerTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Check that the widths match those from a {@link G2TextMeasurer} for
+     * the font and rendering settings of the table.
+     */
+    public void testWidths() {
+        BufferedImage image = new BufferedImage(10, 10,
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = image.createGraphics();
+        String text = "Revenue (€ 1,234.5) – Zürich, Q3";
+        Font[] fonts = new Font[] {new Font("SansSerif", Font.PLAIN, 12),
+            new Font("Serif", Font.ITALIC, 15)};
+        boolean saved = TextUtilities.getUseFontMetricsGetStringBounds();
+        try {
+            for (int i = 0; i < 2; i++) {
+                TextUtilities.setUseFontMetricsGetStringBounds(i == 0);
+                for (int j = 0; j < fonts.length; j++) {
+                    g2.setFont(fonts[j]);
+                    g2.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS,
+                            j == 0 ? RenderingHints.VALUE_FRACTIONALMETRICS_OFF
+                            : RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+                    FontAdvanceTable table = FontAdvanceTable.create(
+                            fonts[j], g2.getFontRenderContext(),
+                            new char[][] {{' ', '~'}, {(char) 0xa0,
+                                (char) 0xff}, {(char) 0x2000,
+                                (char) 0x20ff}});
+                    TextMeasurer expected = new G2TextMeasurer(g2);
+                    TextMeasurer measurer = new AdvanceTableTextMeasurer(
+                            table);
+                    for (int s = 0; s < text.length(); s++) {
+                        for (int e = s; e <= text.length(); e++) {
+                            assertEquals(text.substring(s, e),
+                                    expected.getStringWidth(text, s, e),
+                                    measurer.getStringWidth(text, s, e),
+                                    0.01f);
+                        }
+                    }
+                }
+            }
+        }
+        finally {
+            TextUtilities.setUseFontMetricsGetStringBounds(saved);
+        }
+        g2.dispose();
+    }
+
+}
@@ -0,0 +1,153 @@
+/* ========================================================================
+ * JCommon : a free general purpose class library for the Java(tm) platform
+ * ========================================================================
+ *
+ * (C) Copyright 2000-2026, by Object Refinery Limited and Contributors.
+ *
+ * Project Info:  http://www.jfree.org/jcommon/index.html
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ * [Java is a trademark or registered trademark of Sun Microsystems, Inc.
+ * in the United States and other countries.]
+ *
+ * ----------------------------
+ * CachingTextMeasurerTest.java
+ * ----------------------------
+ * (C) Copyright 2026, by Object Refinery Limited and Contributors.
+ *
+ * Original Author:  -;
+ * Contributor(s):   -;
+ *
+ * Changes:
+ * --------
+ * 18-Oct-2026 : Version 1;
+ *
+ */
+
+package org.jfree.text;
+
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.font.TextAttribute;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests for the {@link CachingTextMeasurer} class.
+ */
+public class CachingTextMeasurerTest extends TestCase {
+
+    /**
+     * Returns the tests as a test suite.
+     *
+     * @return The test suite.
+     */
+    public static Test suite() {
+        return new TestSuite(CachingTextMeasurerTest.class);
+    }
+
+    /**
+     * Constructs a new set of tests.
+     *
+     * @param name  the name of the tests.
+     */
+    public CachingTextMeasurerTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Checks that every substring of some text has the same width with the
+     * caching measurer as with a {@link G2TextMeasurer}.
+     *
+     * @param g2  the graphics device.
+     * @param text  the text.
+     */
+    private void checkWidths(Graphics2D g2, String text) {
+        TextMeasurer expected = new G2TextMeasurer(g2);
+        TextMeasurer measurer = new CachingTextMeasurer(g2);
+        for (int start = 0; start < text.length(); start++) {
+            for (int end = start; end <= text.length(); end++) {
+                assertEquals(text.substring(start, end),
+                        expected.getStringWidth(text, start, end),
+                        measurer.getStringWidth(text, start, end), 0.01f);
+            }
+        }
+    }
+
+    /**
+     * Check that the widths match those from a {@link G2TextMeasurer} for
+     * different fonts, rendering hints and settings.
+     */
+    public void testWidths() {
+        BufferedImage image = new BufferedImage(10, 10,
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = image.createGraphics();
+        String text = "The quick brown fox (1,234.5 m²) jumped.";
+        boolean saved = TextUtilities.getUseFontMetricsGetStringBounds();
+        try {
+            for (int i = 0; i < 2; i++) {
+                TextUtilities.setUseFontMetricsGetStringBounds(i == 0);
+                g2.setFont(new Font("SansSerif", Font.PLAIN, 12));
+                checkWidths(g2, text);
+                g2.setFont(new Font("Serif", Font.BOLD, 17));
+                checkWidths(g2, text);
+                g2.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS,
+                        RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+                checkWidths(g2, text);
+                g2.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS,
+                        RenderingHints.VALUE_FRACTIONALMETRICS_OFF);
+            }
+        }
+        finally {
+            TextUtilities.setUseFontMetricsGetStringBounds(saved);
+        }
+        g2.dispose();
+    }
+
+    /**
+     * Check that text that needs a full layout gets the same widths as from a
+     * {@link G2TextMeasurer}.
+     */
+    public void testFallback() {
+        BufferedImage image = new BufferedImage(10, 10,
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = image.createGraphics();
+        g2.setFont(new Font("SansSerif", Font.PLAIN, 12));
+        TextMeasurer expected = new G2TextMeasurer(g2);
+        TextMeasurer measurer = new CachingTextMeasurer(g2);
+        String arabic = "سلام abc";
+        assertEquals(expected.getStringWidth(arabic, 0, 7),
+                measurer.getStringWidth(arabic, 0, 7), 0.0f);
+        String combining = "été";
+        assertEquals(expected.getStringWidth(combining, 0, 5),
+                measurer.getStringWidth(combining, 0, 5), 0.0f);
+
+        Map attributes = new HashMap();
+        attributes.put(TextAttribute.KERNING, TextAttribute.KERNING_ON);
+        g2.setFont(g2.getFont().deriveFont(attributes));
+        assertEquals(expected.getStringWidth("AVAWAY", 0, 6),
+                measurer.getStringWidth("AVAWAY", 0, 6), 0.0f);
+        g2.dispose();
+    }
+
+}
@@ -0,0 +1,172 @@
+/* ========================================================================
+ * JCommon : a free general purpose class library for the Java(tm) platform
+ * ========================================================================
+ *
+ * (C) Copyright 2000-2026, by Object Refinery Limited and Contributors.
+ *
+ * Project Info:  http://www.jfree.org/jcommon/index.html
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ * [Java is a trademark or registered trademark of Sun Microsystems, Inc.
+ * in the United States and other countries.]
+ *
+ * -------------------------
+ * FontAdvanceTableTest.java
+ * -------------------------
+ * (C) Copyright 2026, by Object Refinery Limited and Contributors.
+ *
+ * Original Author:  -;
+ * Contributor(s):   -;
+ *
+ * Changes:
+ * --------
+ * 18-Oct-2026 : Version 1;
+ *
+ */
+
+package org.jfree.text;
+
+import java.awt.Font;
+import java.awt.RenderingHints;
+import java.awt.font.FontRenderContext;
+import java.awt.geom.AffineTransform;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests for the {@link FontAdvanceTable} class.
+ */
+public class FontAdvanceTableTest extends TestCase {
+
+    /**
+     * Returns the tests as a test suite.
+     *
+     * @return The test suite.
+     */
+    public static Test suite() {
+        return new TestSuite(FontAdvanceTableTest.class);
+    }
+
+    /**
+     * Constructs a new set of tests.
+     *
+     * @param name  the name of the tests.
+     */
+    public FontAdvanceTableTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Creates a table for a font, covering two ranges of characters.
+     *
+     * @param font  the font.
+     * @param frc  the font render context.
+     *
+     * @return The table.
+     */
+    static FontAdvanceTable createTable(Font font, FontRenderContext frc) {
+        return FontAdvanceTable.create(font, frc, new char[][] {
+            {' ', '~'}, {(char) 0xa0, (char) 0xff}});
+    }
+
+    /**
+     * Checks that two tables hold the same values.
+     *
+     * @param expected  the expected table.
+     * @param actual  the actual table.
+     */
+    private static void assertSameTable(FontAdvanceTable expected,
+            FontAdvanceTable actual) {
+        assertEquals(expected.getFontName(), actual.getFontName());
+        assertEquals(expected.getFontStyle(), actual.getFontStyle());
+        assertEquals(expected.getFontSize(), actual.getFontSize(), 0.0f);
+        assertEquals(expected.isAntiAliased(), actual.isAntiAliased());
+        assertEquals(expected.usesFractionalMetrics(),
+                actual.usesFractionalMetrics());
+        for (int c = 0; c < 0x300; c++) {
+            assertEquals(expected.getAdvance((char) c),
+                    actual.getAdvance((char) c), 0.0f);
+        }
+    }
+
+    /**
+     * Check that a table can be written and read back, from a stream and
+     * from a (memory-mapped) file.
+     *
+     * @throws IOException if there is a problem.
+     */
+    public void testWriteAndLoad() throws IOException {
+        Font font = new Font("Serif", Font.BOLD, 14);
+        FontRenderContext frc = new FontRenderContext(new AffineTransform(),
+                RenderingHints.VALUE_TEXT_ANTIALIAS_ON,
+                RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+        FontAdvanceTable t1 = createTable(font, frc);
+        assertTrue(t1.matches(font, frc));
+        assertFalse(t1.matches(font.deriveFont(15.0f), frc));
+        assertTrue(t1.getAdvance('W') > t1.getAdvance('i'));
+        assertTrue(t1.getAdvance((char) 0x3a9) > 0.0f);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        t1.write(bytes);
+        FontAdvanceTable t2 = FontAdvanceTable.load(
+                new ByteArrayInputStream(bytes.toByteArray()));
+        assertSameTable(t1, t2);
+
+        File file = File.createTempFile("FontAdvanceTableTest", ".bin");
+        try {
+            FileOutputStream out = new FileOutputStream(file);
+            t1.write(out);
+            out.close();
+            FontAdvanceTable t3 = FontAdvanceTable.load(file);
+            assertSameTable(t1, t3);
+            assertTrue(t3.matches(font, frc));
+        }
+        finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Check that invalid data is rejected.
+     */
+    public void testLoadInvalid() {
+        try {
+            FontAdvanceTable.load(new ByteArrayInputStream(new byte[] {
+                1, 2, 3, 4, 5, 6, 7, 8}));
+            fail("Should have thrown an IOException.");
+        }
+        catch (IOException e) {
+            // expected
+        }
+        try {
+            FontAdvanceTable.load(new ByteArrayInputStream(new byte[] {
+                0x4a, 0x46, 0x41, 0x54, 0, 0}));
+            fail("Should have thrown an IOException.");
+        }
+        catch (IOException e) {
+            // expected
+        }
+    }
+
+}
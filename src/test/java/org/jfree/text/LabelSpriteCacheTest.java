@@ -0,0 +1,215 @@
+/* ========================================================================
+ * JCommon : a free general purpose class library for the Java(tm) platform
+ * ========================================================================
+ *
+ * (C) Copyright 2000-2026, by Object Refinery Limited and Contributors.
+ *
+ * Project Info:  http://www.jfree.org/jcommon/index.html
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ * [Java is a trademark or registered trademark of Sun Microsystems, Inc.
+ * in the United States and other countries.]
+ *
+ * -------------------------
+ * LabelSpriteCacheTest.java
+ * -------------------------
+ * (C) Copyright 2026, by Object Refinery Limited and Contributors.
+ *
+ * Original Author:  -;
+ * Contributor(s):   -;
+ *
+ * Changes:
+ * --------
+ * 18-Oct-2026 : Version 1;
+ *
+ */
+
+package org.jfree.text;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.jfree.ui.TextAnchor;
+
+/**
+ * Tests for the {@link LabelSpriteCache} class.
+ */
+public class LabelSpriteCacheTest extends TestCase {
+
+    /**
+     * Returns the tests as a test suite.
+     *
+     * @return The test suite.
+     */
+    public static Test suite() {
+        return new TestSuite(LabelSpriteCacheTest.class);
+    }
+
+    /**
+     * Constructs a new set of tests.
+     *
+     * @param name  the name of the tests.
+     */
+    public LabelSpriteCacheTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Creates an image with a white background and a graphics device set up
+     * for drawing text.
+     *
+     * @param image  the image.
+     * @param antialias  text anti-aliasing flag.
+     * @param scale  the scale.
+     *
+     * @return The graphics device.
+     */
+    private static Graphics2D createGraphics(BufferedImage image,
+            boolean antialias, double scale) {
+        Graphics2D g2 = image.createGraphics();
+        g2.setColor(Color.white);
+        g2.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, antialias
+                ? RenderingHints.VALUE_TEXT_ANTIALIAS_ON
+                : RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+        g2.scale(scale, scale);
+        g2.setFont(new Font("SansSerif", Font.BOLD, 11));
+        g2.setColor(new Color(0, 0, 200, 180));
+        return g2;
+    }
+
+    /**
+     * Check that strings drawn from the cache look the same as strings drawn
+     * directly.
+     */
+    public void testDrawString() {
+        LabelSpriteCache cache = new LabelSpriteCache(1 << 20);
+        String[] texts = new String[] {"Label 1", "Wg(x)", "  "};
+        float[] positions = new float[] {10.0f, 10.3f, 10.5f, 10.7f};
+        for (int a = 0; a < 2; a++) {
+            for (int s = 1; s <= 2; s++) {
+                BufferedImage expected = new BufferedImage(120, 120,
+                        BufferedImage.TYPE_INT_RGB);
+                BufferedImage actual = new BufferedImage(120, 120,
+                        BufferedImage.TYPE_INT_RGB);
+                Graphics2D g1 = createGraphics(expected, a == 1, s);
+                Graphics2D g2 = createGraphics(actual, a == 1, s);
+                for (int i = 0; i < texts.length; i++) {
+                    for (int j = 0; j < positions.length; j++) {
+                        float x = positions[j] * (i + 1);
+                        float y = positions[j] * (j + 2);
+                        g1.drawString(texts[i], x, y);
+                        assertTrue(cache.drawString(texts[i], g2, x, y));
+                    }
+                }
+                g1.dispose();
+                g2.dispose();
+                for (int y = 0; y < expected.getHeight(); y++) {
+                    for (int x = 0; x < expected.getWidth(); x++) {
+                        assertEquals(expected.getRGB(x, y),
+                                actual.getRGB(x, y));
+                    }
+                }
+            }
+        }
+        assertEquals(12, cache.getMissCount());
+        assertEquals(36, cache.getHitCount());
+    }
+
+    /**
+     * Check the cases that the cache leaves to the caller.
+     */
+    public void testUnsupported() {
+        LabelSpriteCache cache = new LabelSpriteCache(1 << 20);
+        BufferedImage image = new BufferedImage(50, 50,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = createGraphics(image, false, 1.0);
+        g2.setPaint(new GradientPaint(0.0f, 0.0f, Color.red, 10.0f, 0.0f,
+                Color.blue));
+        assertFalse(cache.drawString("A", g2, 10.0f, 10.0f));
+        g2.setPaint(Color.black);
+        g2.rotate(0.5);
+        assertFalse(cache.drawString("A", g2, 10.0f, 10.0f));
+        g2.rotate(-0.5);
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                RenderingHints.VALUE_TEXT_ANTIALIAS_LCD_HRGB);
+        assertFalse(cache.drawString("A", g2, 10.0f, 10.0f));
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
+                RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g2.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS,
+                RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+        assertFalse(cache.drawString("A", g2, 10.0f, 10.0f));
+        assertEquals(0, cache.getSize());
+        g2.dispose();
+    }
+
+    /**
+     * Check that the least recently used sprites are discarded when the
+     * cache is full.
+     */
+    public void testEviction() {
+        LabelSpriteCache cache = new LabelSpriteCache(20000);
+        BufferedImage image = new BufferedImage(50, 50,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = createGraphics(image, true, 1.0);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(cache.drawString("Label " + i, g2, 10.0f, 10.0f));
+            assertTrue(cache.getBytes() <= 20000);
+        }
+        assertTrue(cache.getSize() < 100);
+        assertTrue(cache.drawString("Label 99", g2, 10.0f, 10.0f));
+        assertEquals(1, cache.getHitCount());
+
+        // a sprite larger than a quarter of the cache is not made
+        g2.setFont(new Font("SansSerif", Font.PLAIN, 40));
+        assertFalse(cache.drawString("A long label in a large font", g2,
+                10.0f, 10.0f));
+        g2.dispose();
+    }
+
+    /**
+     * Check that TextUtilities uses the cache when one is set.
+     */
+    public void testTextUtilities() {
+        LabelSpriteCache cache = new LabelSpriteCache(1 << 20);
+        BufferedImage image = new BufferedImage(50, 50,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2 = createGraphics(image, true, 1.0);
+        TextUtilities.setLabelSpriteCache(cache);
+        try {
+            TextUtilities.drawAlignedString("Label", g2, 25.0f, 25.0f,
+                    TextAnchor.CENTER);
+            TextUtilities.drawAlignedString("Label", g2, 25.0f, 35.0f,
+                    TextAnchor.CENTER);
+        }
+        finally {
+            TextUtilities.setLabelSpriteCache(null);
+        }
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+        g2.dispose();
+    }
+
+}
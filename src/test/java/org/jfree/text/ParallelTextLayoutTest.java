@@ -0,0 +1,176 @@
+/* ========================================================================
+ * JCommon : a free general purpose class library for the Java(tm) platform
+ * ========================================================================
+ *
+ * (C) Copyright 2000-2026, by Object Refinery Limited and Contributors.
+ *
+ * Project Info:  http://www.jfree.org/jcommon/index.html
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ * [Java is a trademark or registered trademark of Sun Microsystems, Inc.
+ * in the United States and other countries.]
+ *
+ * ---------------------------
+ * ParallelTextLayoutTest.java
+ * ---------------------------
+ * (C) Copyright 2026, by Object Refinery Limited and Contributors.
+ *
+ * Original Author:  -;
+ * Contributor(s):   -;
+ *
+ * Changes:
+ * --------
+ * 18-Oct-2026 : Version 1;
+ *
+ */
+
+package org.jfree.text;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests for the {@link ParallelTextLayout} class.
+ */
+public class ParallelTextLayoutTest extends TestCase {
+
+    /**
+     * Returns the tests as a test suite.
+     *
+     * @return The test suite.
+     */
+    public static Test suite() {
+        return new TestSuite(ParallelTextLayoutTest.class);
+    }
+
+    /**
+     * Constructs a new set of tests.
+     *
+     * @param name  the name of the tests.
+     */
+    public ParallelTextLayoutTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * A factory that counts the measurers it creates.
+     */
+    static class CountingFactory implements TextMeasurerFactory {
+
+        /** The number of measurers created. */
+        int count;
+
+        /**
+         * Returns a new measurer.
+         *
+         * @return A measurer.
+         */
+        public synchronized TextMeasurer createTextMeasurer() {
+            this.count++;
+            return new TextUtilitiesTest.CountingMeasurer();
+        }
+    }
+
+    /**
+     * Check that the blocks are the same as those created one at a time, and
+     * are returned in order.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    public void testCreateTextBlocks() throws InterruptedException {
+        Random random = new Random(27);
+        String[] texts = new String[2000];
+        float[] widths = new float[texts.length];
+        for (int i = 0; i < texts.length; i++) {
+            StringBuffer b = new StringBuffer("Item " + i);
+            int words = random.nextInt(8);
+            for (int j = 0; j < words; j++) {
+                b.append(' ').append("lorem ipsum".substring(0,
+                        1 + random.nextInt(11)));
+            }
+            texts[i] = b.toString();
+            widths[i] = 5 + random.nextInt(20);
+        }
+        Font font = new Font("SansSerif", Font.PLAIN, 10);
+        CountingFactory factory = new CountingFactory();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            TextBlock[] blocks = ParallelTextLayout.createTextBlocks(texts,
+                    widths, font, Color.black, 3, factory, executor);
+            TextBlock[] shared = ParallelTextLayout.createTextBlocks(texts,
+                    widths, font, Color.black, 3, factory);
+            TextMeasurer m = new TextUtilitiesTest.CountingMeasurer();
+            for (int i = 0; i < texts.length; i++) {
+                TextBlock expected = TextUtilities.createTextBlock(texts[i],
+                        font, Color.black, widths[i], 3, m);
+                assertEquals(expected, blocks[i]);
+                assertEquals(expected, shared[i]);
+            }
+            if (Runtime.getRuntime().availableProcessors() > 1) {
+                assertTrue(factory.count > 2);
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Check that an exception thrown during layout reaches the caller.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    public void testException() throws InterruptedException {
+        String[] texts = new String[1000];
+        float[] widths = new float[texts.length];
+        for (int i = 0; i < texts.length; i++) {
+            texts[i] = "Text " + i;
+            widths[i] = 100.0f;
+        }
+        texts[700] = "Bad";
+        TextMeasurerFactory factory = new TextMeasurerFactory() {
+            public TextMeasurer createTextMeasurer() {
+                return new TextMeasurer() {
+                    public float getStringWidth(String text, int start,
+                            int end) {
+                        if (text.equals("Bad")) {
+                            throw new IllegalStateException("Bad text.");
+                        }
+                        return end - start;
+                    }
+                };
+            }
+        };
+        try {
+            ParallelTextLayout.createTextBlocks(texts, widths,
+                    new Font("SansSerif", Font.PLAIN, 10), Color.black, 1,
+                    factory);
+            fail("Should have thrown an IllegalStateException.");
+        }
+        catch (IllegalStateException e) {
+            assertEquals("Bad text.", e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,130 @@
+/* ========================================================================
+ * JCommon : a free general purpose class library for the Java(tm) platform
+ * ========================================================================
+ *
+ * (C) Copyright 2000-2026, by Object Refinery Limited and Contributors.
+ *
+ * Project Info:  http://www.jfree.org/jcommon/index.html
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ * [Java is a trademark or registered trademark of Sun Microsystems, Inc.
+ * in the United States and other countries.]
+ *
+ * -----------------------
+ * TextBlockCacheTest.java
+ * -----------------------
+ * (C) Copyright 2026, by Object Refinery Limited and Contributors.
+ *
+ * Original Author:  -;
+ * Contributor(s):   -;
+ *
+ * Changes:
+ * --------
+ * 18-Oct-2026 : Version 1;
+ *
+ */
+
+package org.jfree.text;
+
+import java.awt.Color;
+import java.awt.Font;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests for the {@link TextBlockCache} class.
+ */
+public class TextBlockCacheTest extends TestCase {
+
+    /**
+     * Returns the tests as a test suite.
+     *
+     * @return The test suite.
+     */
+    public static Test suite() {
+        return new TestSuite(TextBlockCacheTest.class);
+    }
+
+    /**
+     * Constructs a new set of tests.
+     *
+     * @param name  the name of the tests.
+     */
+    public TextBlockCacheTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Check that repeated requests are answered from the cache, and that the
+     * hit and miss counts are kept.
+     */
+    public void testCreateTextBlock() {
+        TextBlockCache cache = new TextBlockCache(10);
+        Font font = new Font("SansSerif", Font.PLAIN, 10);
+        TextMeasurer m = new TextUtilitiesTest.CountingMeasurer();
+        TextBlock b1 = cache.createTextBlock("The quick brown fox", font,
+                Color.black, 10.0f, m);
+        assertTrue(b1.isFrozen());
+        assertEquals(TextUtilities.createTextBlock("The quick brown fox",
+                font, Color.black, 10.0f, m), b1);
+        assertSame(b1, cache.createTextBlock("The quick brown fox", font,
+                Color.black, 10.0f, m));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+
+        // any difference in the key is a miss
+        assertNotSame(b1, cache.createTextBlock("The quick brown fox", font,
+                Color.black, 11.0f, m));
+        assertNotSame(b1, cache.createTextBlock("The quick brown fox", font,
+                Color.red, 10.0f, m));
+        assertNotSame(b1, cache.createTextBlock("The quick brown fox", font,
+                Color.black, 10.0f, 1, m));
+        assertNotSame(b1, cache.createTextBlock("The quick brown fox",
+                font.deriveFont(Font.BOLD), Color.black, 10.0f, m));
+        assertNotSame(b1, cache.createTextBlock("The quick brown fox", font,
+                Color.black, 10.0f, new TextUtilitiesTest.CountingMeasurer()));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(6, cache.getMissCount());
+        assertEquals(6, cache.getSize());
+
+        cache.clear();
+        assertEquals(0, cache.getSize());
+        assertEquals(0, cache.getHitCount());
+        assertEquals(0, cache.getMissCount());
+    }
+
+    /**
+     * Check that the least recently used block is discarded when the cache
+     * is full.
+     */
+    public void testEviction() {
+        TextBlockCache cache = new TextBlockCache(2);
+        Font font = new Font("SansSerif", Font.PLAIN, 10);
+        TextMeasurer m = new TextUtilitiesTest.CountingMeasurer();
+        TextBlock a = cache.createTextBlock("A", font, Color.black, 10.0f, m);
+        TextBlock b = cache.createTextBlock("B", font, Color.black, 10.0f, m);
+        assertSame(a, cache.createTextBlock("A", font, Color.black, 10.0f, m));
+        cache.createTextBlock("C", font, Color.black, 10.0f, m);
+        assertEquals(2, cache.getSize());
+        assertSame(a, cache.createTextBlock("A", font, Color.black, 10.0f, m));
+        assertNotSame(b, cache.createTextBlock("B", font, Color.black, 10.0f,
+                m));
+    }
+
+}
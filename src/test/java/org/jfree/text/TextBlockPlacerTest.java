@@ -0,0 +1,247 @@
+/* ========================================================================
+ * JCommon : a free general purpose class library for the Java(tm) platform
+ * ========================================================================
+ *
+ * (C) Copyright 2000-2026, by Object Refinery Limited and Contributors.
+ *
+ * Project Info:  http://www.jfree.org/jcommon/index.html
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ * [Java is a trademark or registered trademark of Sun Microsystems, Inc.
+ * in the United States and other countries.]
+ *
+ * ------------------------
+ * TextBlockPlacerTest.java
+ * ------------------------
+ * (C) Copyright 2026, by Object Refinery Limited and Contributors.
+ *
+ * Original Author:  -;
+ * Contributor(s):   -;
+ *
+ * Changes:
+ * --------
+ * 18-Oct-2026 : Version 1;
+ *
+ */
+
+package org.jfree.text;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests for the {@link TextBlockPlacer} class.
+ */
+public class TextBlockPlacerTest extends TestCase {
+
+    /** The candidate anchors used in the tests. */
+    private static final TextBlockAnchor[] ANCHORS = new TextBlockAnchor[] {
+        TextBlockAnchor.BOTTOM_LEFT, TextBlockAnchor.TOP_LEFT,
+        TextBlockAnchor.BOTTOM_RIGHT, TextBlockAnchor.TOP_RIGHT};
+
+    /** A graphics device. */
+    private Graphics2D g2;
+
+    /** A font. */
+    private Font font;
+
+    /**
+     * Returns the tests as a test suite.
+     *
+     * @return The test suite.
+     */
+    public static Test suite() {
+        return new TestSuite(TextBlockPlacerTest.class);
+    }
+
+    /**
+     * Constructs a new set of tests.
+     *
+     * @param name  the name of the tests.
+     */
+    public TextBlockPlacerTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Creates the graphics device.
+     */
+    protected void setUp() {
+        this.g2 = new BufferedImage(10, 10,
+                BufferedImage.TYPE_INT_ARGB).createGraphics();
+        this.font = new Font("SansSerif", Font.PLAIN, 10);
+    }
+
+    /**
+     * Disposes of the graphics device.
+     */
+    protected void tearDown() {
+        this.g2.dispose();
+    }
+
+    /**
+     * Creates a text block.
+     *
+     * @param text  the text.
+     *
+     * @return The block.
+     */
+    private TextBlock block(String text) {
+        return TextUtilities.createTextBlock(text, this.font, Color.black);
+    }
+
+    /**
+     * Check that the label with the higher priority wins, and that a label
+     * moves to a later candidate when its first is taken.
+     */
+    public void testPlace() {
+        TextBlockPlacer placer = new TextBlockPlacer();
+        TextBlock low = block("Low");
+        TextBlock high = block("High");
+        TextBlock other = block("Other");
+        placer.addLabel(low, 1, 50.0f, 50.0f,
+                new TextBlockAnchor[] {TextBlockAnchor.CENTER});
+        placer.addLabel(high, 2, 50.0f, 50.0f,
+                new TextBlockAnchor[] {TextBlockAnchor.CENTER});
+        placer.addLabel(other, 0, new float[] {50.0f, 50.0f},
+                new float[] {50.0f, 80.0f}, new TextBlockAnchor[] {
+                TextBlockAnchor.CENTER, TextBlockAnchor.CENTER});
+        assertEquals(3, placer.getLabelCount());
+
+        TextBlockPlacement[] result = placer.place(this.g2);
+        assertEquals(3, result.length);
+        assertNull(result[0]);
+        assertSame(high, result[1].getBlock());
+        assertEquals(TextBlockAnchor.CENTER, result[1].getAnchor());
+        assertEquals(high.calculateBounds(this.g2, 50.0f, 50.0f,
+                TextBlockAnchor.CENTER, 0.0f, 0.0f, 0.0).getBounds2D(),
+                result[1].getBounds());
+        assertSame(other, result[2].getBlock());
+        assertEquals(50.0f, result[2].getAnchorX(), 0.0f);
+        assertEquals(80.0f, result[2].getAnchorY(), 0.0f);
+        assertTrue(!result[1].getBounds().intersects(result[2].getBounds()));
+
+        placer.clear();
+        assertEquals(0, placer.getLabelCount());
+        assertEquals(0, placer.place(this.g2).length);
+    }
+
+    /**
+     * Check that blocks that only touch are both placed.
+     */
+    public void testTouching() {
+        TextBlockPlacer placer = new TextBlockPlacer();
+        TextBlock block = block("ABC");
+        placer.addLabel(block, 0, 20.0f, 20.0f,
+                new TextBlockAnchor[] {TextBlockAnchor.BOTTOM_RIGHT});
+        placer.addLabel(block, 0, 20.0f, 20.0f,
+                new TextBlockAnchor[] {TextBlockAnchor.TOP_LEFT});
+        TextBlockPlacement[] result = placer.place(this.g2);
+        assertNotNull(result[0]);
+        assertNotNull(result[1]);
+    }
+
+    /**
+     * Check that many labels are placed as a greedy search that tests every
+     * pair would place them.
+     */
+    public void testManyLabels() {
+        Random random = new Random(42L);
+        TextBlockPlacer placer = new TextBlockPlacer();
+        int count = 3000;
+        TextBlock[] blocks = new TextBlock[20];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = block("Label " + i * 37);
+        }
+        float[] x = new float[count];
+        float[] y = new float[count];
+        int[] priority = new int[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = random.nextFloat() * 2000.0f;
+            y[i] = random.nextFloat() * 1000.0f;
+            priority[i] = random.nextInt(5);
+            placer.addLabel(blocks[i % blocks.length], priority[i], x[i],
+                    y[i], ANCHORS);
+        }
+        TextBlockPlacement[] result = placer.place(this.g2);
+
+        List placed = new ArrayList();
+        for (int p = 4; p >= 0; p--) {
+            for (int i = 0; i < count; i++) {
+                if (priority[i] != p) {
+                    continue;
+                }
+                Rectangle2D chosen = null;
+                for (int j = 0; j < ANCHORS.length && chosen == null; j++) {
+                    Rectangle2D r = blocks[i % blocks.length].calculateBounds(
+                            this.g2, x[i], y[i], ANCHORS[j], 0.0f, 0.0f,
+                            0.0).getBounds2D();
+                    chosen = r;
+                    for (int k = 0; k < placed.size(); k++) {
+                        if (r.intersects((Rectangle2D) placed.get(k))) {
+                            chosen = null;
+                            break;
+                        }
+                    }
+                }
+                if (chosen == null) {
+                    assertNull(result[i]);
+                }
+                else {
+                    placed.add(chosen);
+                    assertEquals(chosen, result[i].getBounds());
+                }
+            }
+        }
+        assertTrue(placed.size() > 100);
+        assertTrue(placed.size() < count);
+    }
+
+    /**
+     * Check the argument checks.
+     */
+    public void testArguments() {
+        TextBlockPlacer placer = new TextBlockPlacer();
+        try {
+            placer.addLabel(block("A"), 0, new float[1], new float[2],
+                    new TextBlockAnchor[] {TextBlockAnchor.CENTER});
+            fail("Should have thrown an IllegalArgumentException.");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            placer.addLabel(null, 0, 0.0f, 0.0f, ANCHORS);
+            fail("Should have thrown an IllegalArgumentException.");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(0, placer.getLabelCount());
+    }
+
+}
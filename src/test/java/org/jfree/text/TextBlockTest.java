@@ -42,6 +42,10 @@
 
 package org.jfree.text;
 
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectInput;
@@ -53,6 +57,8 @@ import junit.framework.Test;
 import junit.framework.TestCase;
 import junit.framework.TestSuite;
 
+import org.jfree.ui.HorizontalAlignment;
+
 /**
  * Tests for the {@link TextBlock} class.
  */
@@ -116,4 +122,104 @@ public class TextBlockTest extends TestCase {
 
     }
 
+    /**
+     * Check that a frozen block and its lines cannot be changed.
+     */
+    public void testFreeze() {
+        final TextBlock b1 = new TextBlock();
+        final TextLine line = new TextLine("Test");
+        b1.addLine(line);
+        assertFalse(b1.isFrozen());
+        b1.freeze();
+        assertTrue(b1.isFrozen());
+        assertTrue(line.isFrozen());
+        try {
+            b1.addLine(new TextLine("More"));
+            fail("Should have thrown an IllegalStateException.");
+        }
+        catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            line.addFragment(new TextFragment("More"));
+            fail("Should have thrown an IllegalStateException.");
+        }
+        catch (IllegalStateException e) {
+            // expected
+        }
+        assertEquals(1, b1.getLines().size());
+    }
+
+    /**
+     * Creates a block with lines of different widths and fonts.
+     *
+     * @return A block.
+     */
+    private static TextBlock createBlock() {
+        final TextBlock block = new TextBlock();
+        block.addLine("First line", new Font("SansSerif", Font.PLAIN, 12),
+                Color.black);
+        final TextLine line = new TextLine("Mixed ",
+                new Font("Serif", Font.BOLD, 16), Color.red);
+        line.addFragment(new TextFragment("fonts",
+                new Font("SansSerif", Font.ITALIC, 10), Color.blue));
+        block.addLine(line);
+        block.addLine("x", new Font("Monospaced", Font.PLAIN, 20),
+                Color.green);
+        return block;
+    }
+
+    /**
+     * Draws a block and returns the image.
+     *
+     * @param block  the block.
+     * @param angle  the rotation angle.
+     *
+     * @return The image.
+     */
+    private static BufferedImage draw(TextBlock block, double angle) {
+        final BufferedImage image = new BufferedImage(200, 200,
+                BufferedImage.TYPE_INT_RGB);
+        final Graphics2D g2 = image.createGraphics();
+        block.draw(g2, 100.0f, 100.0f, TextBlockAnchor.CENTER, 90.0f, 110.0f,
+                angle);
+        block.draw(g2, 100.0f, 190.0f, TextBlockAnchor.BOTTOM_RIGHT);
+        g2.dispose();
+        return image;
+    }
+
+    /**
+     * Check that a frozen block is measured and drawn the same way as a block
+     * that is not frozen.
+     */
+    public void testFrozenDraw() {
+        final HorizontalAlignment[] alignments = new HorizontalAlignment[] {
+            HorizontalAlignment.LEFT, HorizontalAlignment.CENTER,
+            HorizontalAlignment.RIGHT};
+        final BufferedImage image = new BufferedImage(10, 10,
+                BufferedImage.TYPE_INT_RGB);
+        final Graphics2D g2 = image.createGraphics();
+        for (int i = 0; i < alignments.length; i++) {
+            final TextBlock b1 = createBlock();
+            b1.setLineAlignment(alignments[i]);
+            final TextBlock b2 = createBlock();
+            b2.setLineAlignment(alignments[i]);
+            b2.freeze();
+            assertEquals(b1.calculateDimensions(g2),
+                    b2.calculateDimensions(g2));
+            for (int j = 0; j < 2; j++) {
+                final double angle = j * Math.PI / 6.0;
+                final BufferedImage expected = draw(b1, angle);
+                final BufferedImage actual = draw(b2, angle);
+                for (int y = 0; y < expected.getHeight(); y++) {
+                    for (int x = 0; x < expected.getWidth(); x++) {
+                        assertEquals(expected.getRGB(x, y),
+                                actual.getRGB(x, y));
+                    }
+                }
+            }
+        }
+        g2.dispose();
+    }
+
 }
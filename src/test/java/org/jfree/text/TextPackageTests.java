@@ -60,11 +60,20 @@ public class TextPackageTests extends TestCase {
      */
     public static Test suite() {
         final TestSuite suite = new TestSuite("org.jfree.text");
+        suite.addTestSuite(AdvanceTableTextMeasurerTest.class);
+        suite.addTestSuite(CachingTextMeasurerTest.class);
+        suite.addTestSuite(EllipsisPositionTest.class);
+        suite.addTestSuite(FontAdvanceTableTest.class);
+        suite.addTestSuite(LabelSpriteCacheTest.class);
+        suite.addTestSuite(ParallelTextLayoutTest.class);
         suite.addTestSuite(TextBlockTest.class);
         suite.addTestSuite(TextBlockAnchorTest.class);
+        suite.addTestSuite(TextBlockCacheTest.class);
+        suite.addTestSuite(TextBlockPlacerTest.class);
         suite.addTestSuite(TextBoxTest.class);
         suite.addTestSuite(TextFragmentTest.class);
         suite.addTestSuite(TextLineTest.class);
+        suite.addTestSuite(TextUtilitiesTest.class);
         return suite;
     }
 
@@ -0,0 +1,338 @@
+/* ========================================================================
+ * JCommon : a free general purpose class library for the Java(tm) platform
+ * ========================================================================
+ *
+ * (C) Copyright 2000-2026, by Object Refinery Limited and Contributors.
+ *
+ * Project Info:  http://www.jfree.org/jcommon/index.html
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ * [Java is a trademark or registered trademark of Sun Microsystems, Inc.
+ * in the United States and other countries.]
+ *
+ * ----------------------
+ * TextUtilitiesTest.java
+ * ----------------------
+ * (C) Copyright 2026, by Object Refinery Limited and Contributors.
+ *
+ * Original Author:  -;
+ * Contributor(s):   -;
+ *
+ * Changes:
+ * --------
+ * 18-Oct-2026 : Version 1;
+ *
+ */
+
+package org.jfree.text;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.Shape;
+import java.awt.font.LineMetrics;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import org.jfree.ui.TextAnchor;
+
+/**
+ * Tests for the {@link TextUtilities} class.
+ */
+public class TextUtilitiesTest extends TestCase {
+
+    /**
+     * Returns the tests as a test suite.
+     *
+     * @return The test suite.
+     */
+    public static Test suite() {
+        return new TestSuite(TextUtilitiesTest.class);
+    }
+
+    /**
+     * Constructs a new set of tests.
+     *
+     * @param name  the name of the tests.
+     */
+    public TextUtilitiesTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * A measurer that gives every character a width of 1.0 and counts the
+     * characters it measures.
+     */
+    static class CountingMeasurer implements TextMeasurer {
+
+        /** The number of characters measured. */
+        long measured;
+
+        /**
+         * Returns the string width.
+         *
+         * @param text  the text.
+         * @param start  the index of the first character to measure.
+         * @param end  the index after the last character to measure.
+         *
+         * @return The string width.
+         */
+        public float getStringWidth(String text, int start, int end) {
+            this.measured += end - start;
+            return end - start;
+        }
+    }
+
+    /**
+     * Returns the text of the lines in a block.
+     *
+     * @param block  the block.
+     *
+     * @return The lines.
+     */
+    private static String[] lines(TextBlock block) {
+        List lines = block.getLines();
+        String[] result = new String[lines.size()];
+        for (int i = 0; i < result.length; i++) {
+            TextLine line = (TextLine) lines.get(i);
+            result[i] = line.getFirstTextFragment().getText();
+        }
+        return result;
+    }
+
+    /**
+     * Some checks for the createTextBlock() method.
+     */
+    public void testCreateTextBlock() {
+        Font font = new Font("SansSerif", Font.PLAIN, 10);
+        TextMeasurer m = new CountingMeasurer();
+        TextBlock block = TextUtilities.createTextBlock(
+                "The quick brown fox jumped", font, Color.black, 10.0f, m);
+        assertEquals("The quick |brown fox |jumped",
+                join(lines(block)));
+
+        // a word that is too long is broken where the width runs out
+        block = TextUtilities.createTextBlock("see abcdefghijklmnopqrstuvwxyz",
+                font, Color.black, 10.0f, m);
+        assertEquals("see |abcdefghij|klmnopqrst|uvwxyz", join(lines(block)));
+
+        // newlines
+        block = TextUtilities.createTextBlock("ab\ncd ef\n\ngh", font,
+                Color.black, 10.0f, m);
+        assertEquals("ab|cd ef|gh", join(lines(block)));
+
+        // too many lines
+        block = TextUtilities.createTextBlock("abcdefghijklmnopqrstuvwxyz",
+                font, Color.black, 10.0f, 2, m);
+        assertEquals("abcdefghij|klmnopq...", join(lines(block)));
+
+        // a first word that fits is measured once
+        CountingMeasurer counter = new CountingMeasurer();
+        block = TextUtilities.createTextBlock("abcdef", font, Color.black,
+                10.0f, counter);
+        assertEquals("abcdef", join(lines(block)));
+        assertEquals(6L, counter.measured);
+    }
+
+    /**
+     * Check that breaking a long word into lines does not measure the whole
+     * word again for every line.
+     */
+    public void testCreateTextBlockLongWord() {
+        StringBuffer buffer = new StringBuffer();
+        for (int i = 0; i < 20000; i++) {
+            buffer.append((char) ('a' + i % 26));
+        }
+        String text = buffer.toString();
+        CountingMeasurer m = new CountingMeasurer();
+        TextBlock block = TextUtilities.createTextBlock(text,
+                new Font("SansSerif", Font.PLAIN, 10), Color.black, 40.0f, m);
+        String[] lines = lines(block);
+        assertEquals(500, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            assertEquals(text.substring(i * 40, i * 40 + 40), lines[i]);
+        }
+        assertTrue(m.measured < 100L * text.length());
+    }
+
+    /**
+     * Some checks for the createTextBlock() method that cuts the last line
+     * to fit.
+     */
+    public void testCreateTextBlockEllipsis() {
+        Font font = new Font("SansSerif", Font.PLAIN, 10);
+        String text = "The quick brown fox jumped over";
+        CountingMeasurer m = new CountingMeasurer();
+        TextBlock block = TextUtilities.createTextBlock(text, font,
+                Color.black, 10.0f, 1, m, EllipsisPosition.END);
+        assertEquals("The qui...", join(lines(block)));
+        block = TextUtilities.createTextBlock(text, font, Color.black, 10.0f,
+                1, m, EllipsisPosition.START);
+        assertEquals("...ed over", join(lines(block)));
+        block = TextUtilities.createTextBlock(text, font, Color.black, 10.0f,
+                1, m, EllipsisPosition.MIDDLE);
+        assertEquals("The...over", join(lines(block)));
+
+        // the cut line uses the rest of the text, not just the last line
+        block = TextUtilities.createTextBlock(text, font, Color.black, 10.0f,
+                2, m, EllipsisPosition.END);
+        assertEquals("The quick |brown f...", join(lines(block)));
+
+        // no cut if the text fits
+        block = TextUtilities.createTextBlock(text, font, Color.black, 10.0f,
+                4, m, EllipsisPosition.END);
+        assertEquals("The quick |brown fox |jumped |over", join(lines(block)));
+
+        // only the ellipsis if nothing else fits
+        block = TextUtilities.createTextBlock(text, font, Color.black, 2.0f,
+                1, m, EllipsisPosition.MIDDLE);
+        assertEquals("...", join(lines(block)));
+
+        try {
+            TextUtilities.createTextBlock(text, font, Color.black, 10.0f, 1,
+                    m, (EllipsisPosition) null);
+            fail("Should have thrown an IllegalArgumentException.");
+        }
+        catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Check that cutting a long text to fit measures about as much text as
+     * is kept, not the whole text.
+     */
+    public void testCreateTextBlockEllipsisLongText() {
+        StringBuffer buffer = new StringBuffer();
+        for (int i = 0; i < 20000; i++) {
+            buffer.append((char) ('a' + i % 26));
+        }
+        String text = buffer.toString();
+        EllipsisPosition[] positions = new EllipsisPosition[] {
+            EllipsisPosition.START, EllipsisPosition.MIDDLE,
+            EllipsisPosition.END};
+        String[] expected = new String[] {"..." + text.substring(19963),
+            text.substring(0, 19) + "..." + text.substring(19982),
+            text.substring(0, 37) + "..."};
+        for (int i = 0; i < positions.length; i++) {
+            CountingMeasurer m = new CountingMeasurer();
+            TextBlock block = TextUtilities.createTextBlock(text,
+                    new Font("SansSerif", Font.PLAIN, 10), Color.black,
+                    40.0f, 1, m, positions[i]);
+            assertEquals(expected[i], join(lines(block)));
+            assertTrue(m.measured < 1000L);
+        }
+    }
+
+    /**
+     * Checks that two shapes have the same bounding box.
+     *
+     * @param expected  the expected shape.
+     * @param actual  the actual shape.
+     */
+    private static void assertSameBounds(Shape expected, Shape actual) {
+        Rectangle2D e = expected.getBounds2D();
+        Rectangle2D a = actual.getBounds2D();
+        assertEquals(e.getX(), a.getX(), 0.0001);
+        assertEquals(e.getY(), a.getY(), 0.0001);
+        assertEquals(e.getWidth(), a.getWidth(), 0.0001);
+        assertEquals(e.getHeight(), a.getHeight(), 0.0001);
+    }
+
+    /**
+     * Check the bounds of rotated strings, including repeated requests that
+     * are answered from the cache.
+     */
+    public void testCalculateRotatedStringBounds() {
+        BufferedImage image = new BufferedImage(10, 10,
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = image.createGraphics();
+        boolean saved = TextUtilities.getUseFontMetricsGetStringBounds();
+        try {
+            for (int i = 0; i < 2; i++) {
+                TextUtilities.setUseFontMetricsGetStringBounds(i == 0);
+                for (int j = 0; j < 2; j++) {
+                    g2.setFont(new Font("SansSerif", Font.PLAIN, 10 + 4 * j));
+                    String text = "Category " + j;
+                    Rectangle2D bounds = TextUtilities.getTextBounds(text, g2,
+                            g2.getFontMetrics());
+                    LineMetrics lm = g2.getFont().getLineMetrics(text,
+                            g2.getFontRenderContext());
+                    double w = bounds.getWidth();
+                    double h = bounds.getHeight();
+                    double d = lm.getDescent() + lm.getLeading();
+                    for (int k = 0; k < 3; k++) {
+                        float x = 10.0f * k;
+                        float y = 20.0f * k;
+                        double angle = -Math.PI / 4;
+
+                        // centre of the text at (x, y), rotated about it
+                        double tx = x - w / 2.0;
+                        double ty = y - d + h / 2.0;
+                        AffineTransform t = AffineTransform.getRotateInstance(
+                                angle, x, y);
+                        t.translate(tx, ty);
+                        assertSameBounds(t.createTransformedShape(bounds),
+                                TextUtilities.calculateRotatedStringBounds(
+                                text, g2, x, y, TextAnchor.CENTER, angle,
+                                TextAnchor.CENTER));
+
+                        // baseline at (x, y), rotated about it
+                        t = AffineTransform.getRotateInstance(angle, x, y);
+                        t.translate(x, y);
+                        assertSameBounds(t.createTransformedShape(bounds),
+                                TextUtilities.calculateRotatedStringBounds(
+                                text, g2, x, y, TextAnchor.BASELINE_LEFT,
+                                angle, TextAnchor.BASELINE_LEFT));
+                        assertSameBounds(t.createTransformedShape(bounds),
+                                TextUtilities.calculateRotatedStringBounds(
+                                text, g2, x, y, angle, x, y));
+                    }
+                }
+            }
+        }
+        finally {
+            TextUtilities.setUseFontMetricsGetStringBounds(saved);
+        }
+        g2.dispose();
+    }
+
+    /**
+     * Joins some strings, separated by '|'.
+     *
+     * @param strings  the strings.
+     *
+     * @return The joined string.
+     */
+    private static String join(String[] strings) {
+        StringBuffer result = new StringBuffer();
+        for (int i = 0; i < strings.length; i++) {
+            if (i > 0) {
+                result.append('|');
+            }
+            result.append(strings[i]);
+        }
+        return result.toString();
+    }
+
+}
@@ -0,0 +1,134 @@
+/* ========================================================================
+ * JCommon : a free general purpose class library for the Java(tm) platform
+ * ========================================================================
+ *
+ * (C) Copyright 2000-2026, by Object Refinery Limited and Contributors.
+ *
+ * Project Info:  http://www.jfree.org/jcommon/index.html
+ *
+ * This library is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation; either version 2.1 of the License, or
+ * (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General Public
+ * License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301,
+ * USA.
+ *
+ * [Java is a trademark or registered trademark of Sun Microsystems, Inc.
+ * in the United States and other countries.]
+ *
+ * --------------------------------
+ * LineBreakOffsetIteratorTest.java
+ * --------------------------------
+ * (C) Copyright 2026, by Object Refinery Limited and Contributors.
+ *
+ * Original Author:  -;
+ * Contributor(s):   -;
+ *
+ * Changes:
+ * --------
+ * 18-Oct-2026 : Version 1;
+ *
+ */
+
+package org.jfree.util;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * Tests for the {@link LineBreakOffsetIterator} class.
+ */
+public class LineBreakOffsetIteratorTest extends TestCase {
+
+    /**
+     * Returns the tests as a test suite.
+     *
+     * @return The test suite.
+     */
+    public static Test suite() {
+        return new TestSuite(LineBreakOffsetIteratorTest.class);
+    }
+
+    /**
+     * Constructs a new set of tests.
+     *
+     * @param name  the name of the tests.
+     */
+    public LineBreakOffsetIteratorTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Some checks for the breaks() methods.
+     */
+    public void testBreaks() {
+        assertTrue(Arrays.equals(new int[0],
+                LineBreakOffsetIterator.breaks("")));
+        assertTrue(Arrays.equals(new int[0],
+                LineBreakOffsetIterator.breaks("abc")));
+        assertTrue(Arrays.equals(new int[] {3, 7, 10},
+                LineBreakOffsetIterator.breaks("ab\ncd\r\ne\r\n")));
+        assertTrue(Arrays.equals(new int[] {1, 2, 4},
+                LineBreakOffsetIterator.breaks(new StringBuffer("\n\r\r\n"))));
+
+        // an array range, with a "\r\n" pair split by the end of the range
+        char[] chars = "x\nab\r\ny".toCharArray();
+        assertTrue(Arrays.equals(new int[] {5},
+                LineBreakOffsetIterator.breaks(chars, 2, 5)));
+        assertTrue(Arrays.equals(new int[] {6},
+                LineBreakOffsetIterator.breaks(chars, 2, 7)));
+    }
+
+    /**
+     * Check that the positions match those from a {@link LineBreakIterator}
+     * for random text.
+     */
+    public void testSameAsLineBreakIterator() {
+        Random random = new Random(314);
+        char[] alphabet = new char[] {'a', 'b', ' ', '\r', '\n'};
+        LineBreakOffsetIterator iterator = new LineBreakOffsetIterator();
+        for (int n = 0; n < 500; n++) {
+            char[] chars = new char[random.nextInt(20)];
+            for (int i = 0; i < chars.length; i++) {
+                chars[i] = alphabet[random.nextInt(alphabet.length)];
+            }
+            String text = new String(chars);
+
+            LineBreakIterator expected = new LineBreakIterator(text);
+            iterator.setText(text);
+            int p;
+            do {
+                p = expected.nextPosition();
+                assertEquals(text, p, iterator.nextPosition());
+            } while (p != LineBreakIterator.DONE);
+
+            expected = new LineBreakIterator(text);
+            iterator.setText(chars, 0, chars.length);
+            do {
+                p = expected.nextWithEnd();
+                assertEquals(p != LineBreakIterator.DONE, iterator.hasNext());
+                assertEquals(text, p, iterator.nextWithEnd());
+            } while (p != LineBreakIterator.DONE);
+
+            int[] breaks = LineBreakOffsetIterator.breaks(text);
+            expected = new LineBreakIterator(text);
+            for (int i = 0; i < breaks.length; i++) {
+                assertEquals(expected.nextPosition(), breaks[i]);
+            }
+            assertEquals(LineBreakIterator.DONE, expected.nextPosition());
+        }
+    }
+
+}
@@ -65,6 +65,7 @@ public class UtilPackageTests extends TestCase {
         TestSuite suite = new TestSuite("org.jfree.util");
         suite.addTestSuite(ArrayUtilitiesTest.class);
         suite.addTestSuite(BooleanListTest.class);
+        suite.addTestSuite(LineBreakOffsetIteratorTest.class);
         suite.addTestSuite(ObjectListTest.class);
         suite.addTestSuite(ObjectTableTest.class);
         suite.addTestSuite(ObjectUtilitiesTest.class);